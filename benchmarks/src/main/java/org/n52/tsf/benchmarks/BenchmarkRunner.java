@@ -0,0 +1,122 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks;
+
+import org.n52.tsf.benchmarks.results.BenchmarkRecord;
+import org.n52.tsf.benchmarks.results.BenchmarkResultStore;
+import org.n52.tsf.model.SerializerType;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Runs the benchmarks with the gc profiler attached so that allocation per operation is reported next to
+ * throughput and average time. Accepts the regular JMH command line options, e.g.
+ * {@code java -jar benchmarks/target/benchmarks.jar VectorCodecBenchmark -p vertexCount=1000}, plus
+ * {@code -store <file>} to choose where the results are stored as CSV for a later
+ * {@link org.n52.tsf.benchmarks.results.BenchmarkComparison}.
+ */
+public class BenchmarkRunner {
+    private static final String STORE_OPTION = "-store";
+    private static final String DEFAULT_STORE = "benchmark-results.csv";
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        File store = new File(DEFAULT_STORE);
+        int storeIndex = jmhArgs.indexOf(STORE_OPTION);
+        if (storeIndex >= 0 && storeIndex + 1 < jmhArgs.size()) {
+            store = new File(jmhArgs.remove(storeIndex + 1));
+            jmhArgs.remove(storeIndex);
+        }
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()])))
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        BenchmarkResultStore.write(store, toRecords(results));
+        System.out.println("Benchmark results stored in " + store.getAbsolutePath());
+    }
+
+    static List<BenchmarkRecord> toRecords(Collection<RunResult> results) {
+        String timestamp = Instant.now().toString();
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        int processors = Runtime.getRuntime().availableProcessors();
+        Map<String, Long> encodedSizes = new HashMap<>();
+        List<BenchmarkRecord> records = new ArrayList<>(results.size());
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Result primary = result.getPrimaryResult();
+            records.add(new BenchmarkRecord(timestamp, params.getBenchmark(), params.getMode().shortLabel(),
+                    formatParams(params), primary.getScore(), primary.getScoreError(), primary.getScoreUnit(),
+                    allocatedBytes(result), encodedSize(params, encodedSizes), params.getJdkVersion(),
+                    params.getVmVersion(), String.join(" ", params.getJvmArgs()), maxHeap, processors));
+        }
+        return records;
+    }
+
+    private static String formatParams(BenchmarkParams params) {
+        StringBuilder formatted = new StringBuilder();
+        for (String key : params.getParamsKeys()) {
+            if (formatted.length() > 0) {
+                formatted.append(';');
+            }
+            formatted.append(key).append('=').append(params.getParam(key));
+        }
+        return formatted.toString();
+    }
+
+    private static double allocatedBytes(RunResult result) {
+        for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+            if (secondary.getKey().endsWith(ALLOCATION_RESULT)) {
+                return secondary.getValue().getScore();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static long encodedSize(BenchmarkParams params, Map<String, Long> encodedSizes) {
+        if (!params.getBenchmark().startsWith(VectorCodecBenchmark.class.getName())) {
+            return -1;
+        }
+        return encodedSizes.computeIfAbsent(formatParams(params), key -> {
+            try {
+                return (long) VectorCodecBenchmark.encodedSize(SerializerType.valueOf(params.getParam("serializerType")),
+                        params.getParam("geometryType"), Integer.parseInt(params.getParam("vertexCount")),
+                        Long.parseLong(params.getParam("seed")));
+            } catch (IOException e) {
+                return -1L;
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks;
+
+import org.n52.tsf.benchmarks.results.BenchmarkRecord;
+import org.n52.tsf.benchmarks.results.BenchmarkResultStore;
+import org.n52.tsf.model.*;
+import org.n52.tsf.model.vector.jts.synthetic.SyntheticGeometryGenerator;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by decoded geometries for every deserializer type. A dataset of synthetic geometries
+ * is encoded, decoded into an array and the object graph reachable from that array is walked with JOL, so the
+ * result covers the geometries, coordinate sequences, coordinates and the shared geometry factory. Prints a
+ * comparison table and stores the per geometry and per vertex sizes like {@link BenchmarkRunner}.
+ * Usage: {@code FootprintBenchmark [-store <file>] [geometry count]}.
+ */
+public class FootprintBenchmark {
+    private static final long SEED = 52;
+    private static final int DEFAULT_GEOMETRY_COUNT = 100;
+    private static final String[] GEOMETRY_TYPES = {
+            SyntheticGeometryGenerator.POINT, SyntheticGeometryGenerator.LINESTRING, SyntheticGeometryGenerator.POLYGON,
+            SyntheticGeometryGenerator.MULTIPOINT, SyntheticGeometryGenerator.MULTIPOLYGON,
+            SyntheticGeometryGenerator.GEOMETRYCOLLECTION};
+    private static final int[] VERTEX_COUNTS = {10, 1000};
+
+    public static void main(String[] args) throws IOException {
+        File store = new File("footprint-results.csv");
+        int geometryCount = DEFAULT_GEOMETRY_COUNT;
+        for (int i = 0; i < args.length; i++) {
+            if ("-store".equals(args[i]) && i + 1 < args.length) {
+                store = new File(args[++i]);
+            } else {
+                geometryCount = Integer.parseInt(args[i]);
+            }
+        }
+        String timestamp = Instant.now().toString();
+        List<BenchmarkRecord> records = new ArrayList<>();
+        System.out.println(String.format("%-32s %-20s %8s %16s %14s %12s", "Deserializer", "Geometry", "Vertices",
+                "Retained bytes", "B/geometry", "B/vertex"));
+        for (SerializerType serializerType : SerializerType.values()) {
+            DeserializerType deserializerType = DeserializerType.valueOf(
+                    serializerType.name().replace("_SERIALIZER_", "_DESERIALIZER_"));
+            for (String geometryType : GEOMETRY_TYPES) {
+                for (int vertexCount : VERTEX_COUNTS) {
+                    Object[] geometries = decode(serializerType, deserializerType, geometryType, vertexCount, geometryCount);
+                    long retained = GraphLayout.parseInstance((Object) geometries).totalSize()
+                            - GraphLayout.parseInstance((Object) new Object[geometries.length]).totalSize();
+                    long vertices = countVertices(geometries);
+                    double perGeometry = (double) retained / geometries.length;
+                    double perVertex = (double) retained / vertices;
+                    System.out.println(String.format("%-32s %-20s %8d %16d %14.1f %12.1f", deserializerType,
+                            geometryType, vertexCount, retained, perGeometry, perVertex));
+                    String params = "deserializerType=" + deserializerType + ";geometryType=" + geometryType
+                            + ";vertexCount=" + vertexCount + ";geometryCount=" + geometryCount + ";seed=" + SEED;
+                    records.add(record(timestamp, "retainedPerGeometry", params, perGeometry, "B/geometry"));
+                    records.add(record(timestamp, "retainedPerVertex", params, perVertex, "B/vertex"));
+                }
+            }
+        }
+        BenchmarkResultStore.write(store, records);
+        System.out.println("Footprint results stored in " + store.getAbsolutePath());
+    }
+
+    private static Object[] decode(SerializerType serializerType, DeserializerType deserializerType,
+                                   String geometryType, int vertexCount, int geometryCount) throws IOException {
+        SyntheticGeometryGenerator<?> generator = serializerType.name().endsWith("_VS")
+                ? SyntheticGeometryGenerator.vividsolutions(SEED) : SyntheticGeometryGenerator.locationtech(SEED);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        SerializationHandler serializer = SerializationFactory.createSerializer(outputStream, serializerType);
+        for (int i = 0; i < geometryCount; i++) {
+            serializer.serialize(generator.create(geometryType, vertexCount));
+        }
+        serializer.close();
+
+        Object[] geometries = new Object[geometryCount];
+        DeserializationHandler deserializer = DeserializationFactory.createDeserializer(
+                new ByteArrayInputStream(outputStream.toByteArray()), deserializerType);
+        for (int i = 0; i < geometryCount; i++) {
+            geometries[i] = deserializer.deserialize();
+        }
+        deserializer.close();
+        return geometries;
+    }
+
+    private static long countVertices(Object[] geometries) {
+        long vertices = 0;
+        for (Object geometry : geometries) {
+            if (geometry instanceof org.locationtech.jts.geom.Geometry) {
+                vertices += ((org.locationtech.jts.geom.Geometry) geometry).getNumPoints();
+            } else if (geometry instanceof com.vividsolutions.jts.geom.Geometry) {
+                vertices += ((com.vividsolutions.jts.geom.Geometry) geometry).getNumPoints();
+            }
+        }
+        return Math.max(1, vertices);
+    }
+
+    private static BenchmarkRecord record(String timestamp, String metric, String params, double score, String unit) {
+        return new BenchmarkRecord(timestamp, FootprintBenchmark.class.getName() + "." + metric, "footprint", params,
+                score, Double.NaN, unit, Double.NaN, -1, System.getProperty("java.version"),
+                System.getProperty("java.vm.version"), "", Runtime.getRuntime().maxMemory(),
+                Runtime.getRuntime().availableProcessors());
+    }
+}
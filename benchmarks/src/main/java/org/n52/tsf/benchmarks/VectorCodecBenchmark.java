@@ -0,0 +1,118 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks;
+
+import org.n52.tsf.model.*;
+import org.n52.tsf.model.vector.jts.synthetic.SyntheticGeometryGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding of every serializer type for each synthetic geometry type and vertex count. Each
+ * operation writes or reads a batch of geometries so that per stream header costs, such as the Avro container header,
+ * are amortized the same way for every codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorCodecBenchmark {
+    public static final int BATCH_SIZE = 16;
+
+    @Param({"PROTOBUF_SERIALIZER_LT", "AVRO_SERIALIZER_LT", "AVRO_MESSAGE_SERIALIZER_LT",
+            "PROTOBUF_SERIALIZER_VS", "AVRO_SERIALIZER_VS", "AVRO_MESSAGE_SERIALIZER_VS"})
+    public SerializerType serializerType;
+
+    @Param({"POINT", "LINESTRING", "POLYGON", "MULTIPOINT", "CLUSTERED_MULTIPOINT", "MULTILINESTRING", "MULTIPOLYGON",
+            "COASTLINE", "GEOMETRYCOLLECTION"})
+    public String geometryType;
+
+    @Param({"10", "1000", "100000"})
+    public int vertexCount;
+
+    @Param({"52"})
+    public long seed;
+
+    private DeserializerType deserializerType;
+    private Object geometry;
+    private ByteArrayOutputStream outputStream;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        deserializerType = DeserializerType.valueOf(serializerType.name().replace("_SERIALIZER_", "_DESERIALIZER_"));
+        geometry = serializerType.name().endsWith("_VS")
+                ? SyntheticGeometryGenerator.vividsolutions(seed).create(geometryType, vertexCount)
+                : SyntheticGeometryGenerator.locationtech(seed).create(geometryType, vertexCount);
+        outputStream = new ByteArrayOutputStream();
+        encode();
+        encoded = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int serialize() throws IOException {
+        return encode();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void deserialize(Blackhole blackhole) throws IOException {
+        DeserializationHandler deserializer = DeserializationFactory.createDeserializer(
+                new ByteArrayInputStream(encoded), deserializerType);
+        Object jtsGeometry;
+        while ((jtsGeometry = deserializer.deserialize()) != null) {
+            blackhole.consume(jtsGeometry);
+        }
+        deserializer.close();
+    }
+
+    /**
+     * Encoded size of a single geometry of the given configuration, including its share of any stream header.
+     */
+    public static int encodedSize(SerializerType serializerType, String geometryType, int vertexCount, long seed)
+            throws IOException {
+        VectorCodecBenchmark benchmark = new VectorCodecBenchmark();
+        benchmark.serializerType = serializerType;
+        benchmark.geometryType = geometryType;
+        benchmark.vertexCount = vertexCount;
+        benchmark.seed = seed;
+        benchmark.setUp();
+        return benchmark.encoded.length / BATCH_SIZE;
+    }
+
+    private int encode() throws IOException {
+        outputStream.reset();
+        SerializationHandler serializer = SerializationFactory.createSerializer(outputStream, serializerType);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            serializer.serialize(geometry);
+        }
+        serializer.close();
+        return outputStream.size();
+    }
+}
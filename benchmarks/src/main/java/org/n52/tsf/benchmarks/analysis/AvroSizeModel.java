@@ -0,0 +1,83 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.analysis;
+
+import org.n52.tsf.serialization.avro.gen.vector.Type;
+
+/**
+ * Size model of the {@code geoavro.avsc} records in Avro binary encoding. Arrays are written as a single block
+ * followed by the terminating zero count, and the single object encoding adds a fixed header per record.
+ */
+class AvroSizeModel extends SizeModel {
+    private static final int DOUBLE_SIZE = 8;
+    private static final int COORDINATE_SIZE = 3 * DOUBLE_SIZE;
+
+    private final int recordHeaderSize;
+
+    AvroSizeModel(double quantizationScale, int recordHeaderSize) {
+        super(quantizationScale);
+        this.recordHeaderSize = recordHeaderSize;
+    }
+
+    long recordSize(GeometryNode node, CoordinateEncoding encoding) {
+        return recordHeaderSize + geometrySize(node, encoding);
+    }
+
+    private long geometrySize(GeometryNode node, CoordinateEncoding encoding) {
+        long size = varintSize(zigZag(Type.valueOf(node.getType()).ordinal()));
+        long children = 0;
+        for (GeometryNode child : node.getChildren()) {
+            children += geometrySize(child, encoding);
+        }
+        size += arraySize(node.getChildren().size(), children);
+        int count = node.getCoordinateCount();
+        switch (encoding) {
+            case DROP_Z:
+                return size + arraySize(count, (long) count * 2 * DOUBLE_SIZE);
+            case PACKED_XY:
+                return size + arraySize(2L * count, (long) count * 2 * DOUBLE_SIZE);
+            case QUANTIZED_DELTA:
+                return size + arraySize(2L * count, quantizedDeltaSize(node));
+            default:
+                return size + arraySize(count, (long) count * COORDINATE_SIZE);
+        }
+    }
+
+    private static long arraySize(long count, long itemsSize) {
+        return count == 0 ? 1 : varintSize(zigZag(count)) + itemsSize + 1;
+    }
+
+    long coordinateValueSize(GeometryNode node) {
+        long size = (long) node.getCoordinateCount() * COORDINATE_SIZE;
+        for (GeometryNode child : node.getChildren()) {
+            size += coordinateValueSize(child);
+        }
+        return size;
+    }
+
+    long zValueSize(GeometryNode node) {
+        long size = (long) node.getCoordinateCount() * DOUBLE_SIZE;
+        for (GeometryNode child : node.getChildren()) {
+            size += zValueSize(child);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,43 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.analysis;
+
+/**
+ * Alternative ways to encode the coordinates of a geometry record whose size is projected by the analyzer.
+ */
+public enum CoordinateEncoding {
+    /**
+     * The encoding of the schemas as they are, used to verify the size model against the file.
+     */
+    CURRENT,
+    /**
+     * The current coordinate records without the z value.
+     */
+    DROP_Z,
+    /**
+     * One packed array of x and y doubles per geometry instead of a coordinate record per vertex.
+     */
+    PACKED_XY,
+    /**
+     * One packed array of x and y values per geometry, quantized to integers and delta encoded as zig-zag varints.
+     */
+    QUANTIZED_DELTA
+}
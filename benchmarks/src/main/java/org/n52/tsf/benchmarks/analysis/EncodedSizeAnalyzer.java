@@ -0,0 +1,219 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.analysis;
+
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.n52.tsf.serialization.protobuf.gen.GeoProtobuf;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Breaks the encoded size of a vector file down by geometry type and by field. Every record is decoded and its
+ * size is recomputed from a model of the wire format, which splits the bytes into coordinate values, z values,
+ * structure (tags, lengths, counts and types) and framing. The same model projects the size of the file under
+ * alternative coordinate encodings, so the gain of a schema change can be judged before it is made.
+ * Usage: {@code EncodedSizeAnalyzer <file> <PROTOBUF|AVRO|AVRO_MESSAGE> [quantization scale]}.
+ */
+public class EncodedSizeAnalyzer {
+    private static final double DEFAULT_QUANTIZATION_SCALE = 1e7;
+    private static final int AVRO_MESSAGE_HEADER_SIZE = 10;
+
+    private final SizeModel sizeModel;
+    private final Map<String, Breakdown> byType = new TreeMap<>();
+    private final Map<Integer, Breakdown> byRingCount = new TreeMap<>();
+    private final Map<Long, Breakdown> byVertexDensity = new TreeMap<>();
+    private final Breakdown total = new Breakdown();
+
+    EncodedSizeAnalyzer(SizeModel sizeModel) {
+        this.sizeModel = sizeModel;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: EncodedSizeAnalyzer <file> <PROTOBUF|AVRO|AVRO_MESSAGE> [quantization scale]");
+            System.exit(2);
+        }
+        File file = new File(args[0]);
+        String format = args[1].toUpperCase();
+        double quantizationScale = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_QUANTIZATION_SCALE;
+
+        EncodedSizeAnalyzer analyzer;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            switch (format) {
+                case "PROTOBUF":
+                    analyzer = new EncodedSizeAnalyzer(new ProtobufSizeModel(quantizationScale));
+                    analyzer.readProtobuf(inputStream);
+                    break;
+                case "AVRO":
+                    analyzer = new EncodedSizeAnalyzer(new AvroSizeModel(quantizationScale, 0));
+                    analyzer.readAvroContainer(inputStream);
+                    break;
+                case "AVRO_MESSAGE":
+                    analyzer = new EncodedSizeAnalyzer(new AvroSizeModel(quantizationScale, AVRO_MESSAGE_HEADER_SIZE));
+                    analyzer.readAvroMessages(inputStream);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported format " + args[1]);
+            }
+        }
+        analyzer.print(file.length(), quantizationScale);
+    }
+
+    void readProtobuf(InputStream inputStream) throws IOException {
+        GeoProtobuf.Geometry pbGeometry;
+        while ((pbGeometry = GeoProtobuf.Geometry.parseDelimitedFrom(inputStream)) != null) {
+            add(GeometryNode.from(pbGeometry));
+        }
+    }
+
+    void readAvroContainer(InputStream inputStream) throws IOException {
+        try (DataFileStream<org.n52.tsf.serialization.avro.gen.vector.Geometry> dataFileStream = new DataFileStream<>(
+                inputStream, new SpecificDatumReader<>(org.n52.tsf.serialization.avro.gen.vector.Geometry.class))) {
+            for (org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry : dataFileStream) {
+                add(GeometryNode.from(avroGeometry));
+            }
+        }
+    }
+
+    void readAvroMessages(InputStream inputStream) throws IOException {
+        BinaryMessageDecoder<org.n52.tsf.serialization.avro.gen.vector.Geometry> decoder =
+                org.n52.tsf.serialization.avro.gen.vector.Geometry.getDecoder();
+        PushbackInputStream pushbackStream = new PushbackInputStream(inputStream);
+        int next;
+        while ((next = pushbackStream.read()) != -1) {
+            pushbackStream.unread(next);
+            add(GeometryNode.from(decoder.decode(pushbackStream)));
+        }
+    }
+
+    void add(GeometryNode node) {
+        long vertices = node.getVertexCount();
+        long[] sizes = new long[CoordinateEncoding.values().length];
+        for (CoordinateEncoding encoding : CoordinateEncoding.values()) {
+            sizes[encoding.ordinal()] = sizeModel.recordSize(node, encoding);
+        }
+        long coordinateBytes = sizeModel.coordinateValueSize(node);
+        long zBytes = sizeModel.zValueSize(node);
+
+        Breakdown[] breakdowns = {
+                total,
+                byType.computeIfAbsent(node.getType(), type -> new Breakdown()),
+                byRingCount.computeIfAbsent(node.getRingCount(), rings -> new Breakdown()),
+                byVertexDensity.computeIfAbsent(densityBucket(vertices), bucket -> new Breakdown())};
+        for (Breakdown breakdown : breakdowns) {
+            breakdown.add(vertices, sizes, coordinateBytes, zBytes);
+        }
+    }
+
+    private static long densityBucket(long vertices) {
+        long bucket = 1;
+        while (bucket < vertices) {
+            bucket *= 10;
+        }
+        return bucket;
+    }
+
+    void print(long fileSize, double quantizationScale) {
+        long modelled = total.sizes.get(CoordinateEncoding.CURRENT);
+        System.out.println(String.format("File size %d bytes, %d records, %d vertices", fileSize, total.count,
+                total.vertices));
+        System.out.println(String.format("Records %d bytes, container and framing overhead %d bytes (%.1f%%)",
+                modelled, fileSize - modelled, percent(fileSize - modelled, fileSize)));
+        System.out.println(String.format("Coordinate values %d bytes (%.1f%%), of which z %d bytes (%.1f%%),"
+                        + " structure %d bytes (%.1f%%)", total.coordinateBytes,
+                percent(total.coordinateBytes, modelled), total.zBytes, percent(total.zBytes, modelled),
+                total.structureBytes(), percent(total.structureBytes(), modelled)));
+
+        System.out.println();
+        printHeader("Geometry type");
+        byType.forEach((type, breakdown) -> printRow(type, breakdown));
+        System.out.println();
+        printHeader("Rings");
+        byRingCount.forEach((rings, breakdown) -> printRow(String.valueOf(rings), breakdown));
+        System.out.println();
+        printHeader("Vertices <=");
+        byVertexDensity.forEach((bucket, breakdown) -> printRow(String.valueOf(bucket), breakdown));
+
+        System.out.println();
+        System.out.println(String.format("Projected record sizes (quantization scale %s)", quantizationScale));
+        System.out.println(String.format("%-20s %14s %12s %10s", "Encoding", "Bytes", "B/vertex", "Saving"));
+        for (CoordinateEncoding encoding : CoordinateEncoding.values()) {
+            long size = total.sizes.get(encoding);
+            System.out.println(String.format("%-20s %14d %12.2f %9.1f%%", encoding, size,
+                    (double) size / Math.max(1, total.vertices), percent(modelled - size, modelled)));
+        }
+    }
+
+    private static void printHeader(String label) {
+        System.out.println(String.format("%-20s %8s %14s %12s %12s %10s %10s %10s", label, "Records", "Bytes",
+                "Vertices", "B/vertex", "Coords%", "Z%", "Struct%"));
+    }
+
+    private static void printRow(String label, Breakdown breakdown) {
+        long bytes = breakdown.sizes.get(CoordinateEncoding.CURRENT);
+        System.out.println(String.format("%-20s %8d %14d %12d %12.2f %9.1f%% %9.1f%% %9.1f%%", label,
+                breakdown.count, bytes, breakdown.vertices, (double) bytes / Math.max(1, breakdown.vertices),
+                percent(breakdown.coordinateBytes, bytes), percent(breakdown.zBytes, bytes),
+                percent(breakdown.structureBytes(), bytes)));
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private static class Breakdown {
+        private final Map<CoordinateEncoding, Long> sizes = new EnumMap<>(CoordinateEncoding.class);
+        private long count;
+        private long vertices;
+        private long coordinateBytes;
+        private long zBytes;
+
+        private Breakdown() {
+            for (CoordinateEncoding encoding : CoordinateEncoding.values()) {
+                sizes.put(encoding, 0L);
+            }
+        }
+
+        private void add(long vertices, long[] sizes, long coordinateBytes, long zBytes) {
+            this.count++;
+            this.vertices += vertices;
+            this.coordinateBytes += coordinateBytes;
+            this.zBytes += zBytes;
+            for (CoordinateEncoding encoding : CoordinateEncoding.values()) {
+                this.sizes.merge(encoding, sizes[encoding.ordinal()], Long::sum);
+            }
+        }
+
+        private long structureBytes() {
+            return sizes.get(CoordinateEncoding.CURRENT) - coordinateBytes;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.analysis;
+
+import org.n52.tsf.serialization.protobuf.gen.GeoProtobuf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Format independent view of a decoded geometry record, the coordinates are kept as interleaved x, y and z values.
+ */
+class GeometryNode {
+    private final String type;
+    private final double[] coordinates;
+    private final List<GeometryNode> children;
+
+    GeometryNode(String type, double[] coordinates, List<GeometryNode> children) {
+        this.type = type;
+        this.coordinates = coordinates;
+        this.children = children;
+    }
+
+    static GeometryNode from(GeoProtobuf.Geometry pbGeometry) {
+        double[] coordinates = new double[pbGeometry.getCoordinatesCount() * 3];
+        for (int i = 0; i < pbGeometry.getCoordinatesCount(); i++) {
+            GeoProtobuf.Coordinate coordinate = pbGeometry.getCoordinates(i);
+            coordinates[i * 3] = coordinate.getX();
+            coordinates[i * 3 + 1] = coordinate.getY();
+            coordinates[i * 3 + 2] = coordinate.getZ();
+        }
+        List<GeometryNode> children = pbGeometry.getGeometriesCount() == 0 ? Collections.emptyList()
+                : new ArrayList<>(pbGeometry.getGeometriesCount());
+        for (GeoProtobuf.Geometry child : pbGeometry.getGeometriesList()) {
+            children.add(from(child));
+        }
+        return new GeometryNode(pbGeometry.getType().name(), coordinates, children);
+    }
+
+    static GeometryNode from(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
+        List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> avroCoordinates = avroGeometry.getCoordinates();
+        double[] coordinates = new double[avroCoordinates.size() * 3];
+        for (int i = 0; i < avroCoordinates.size(); i++) {
+            org.n52.tsf.serialization.avro.gen.vector.Coordinate coordinate = avroCoordinates.get(i);
+            coordinates[i * 3] = coordinate.getX();
+            coordinates[i * 3 + 1] = coordinate.getY();
+            coordinates[i * 3 + 2] = coordinate.getZ();
+        }
+        List<GeometryNode> children = avroGeometry.getGeometries().isEmpty() ? Collections.emptyList()
+                : new ArrayList<>(avroGeometry.getGeometries().size());
+        for (org.n52.tsf.serialization.avro.gen.vector.Geometry child : avroGeometry.getGeometries()) {
+            children.add(from(child));
+        }
+        return new GeometryNode(avroGeometry.getType().name(), coordinates, children);
+    }
+
+    String getType() {
+        return type;
+    }
+
+    int getCoordinateCount() {
+        return coordinates.length / 3;
+    }
+
+    double getX(int index) {
+        return coordinates[index * 3];
+    }
+
+    double getY(int index) {
+        return coordinates[index * 3 + 1];
+    }
+
+    double getZ(int index) {
+        return coordinates[index * 3 + 2];
+    }
+
+    List<GeometryNode> getChildren() {
+        return children;
+    }
+
+    long getVertexCount() {
+        long vertices = getCoordinateCount();
+        for (GeometryNode child : children) {
+            vertices += child.getVertexCount();
+        }
+        return vertices;
+    }
+
+    /**
+     * Number of coordinate lists that are rings, i.e. closed with at least four vertices.
+     */
+    int getRingCount() {
+        int count = getCoordinateCount();
+        int rings = count >= 4 && getX(0) == getX(count - 1) && getY(0) == getY(count - 1) ? 1 : 0;
+        for (GeometryNode child : children) {
+            rings += child.getRingCount();
+        }
+        return rings;
+    }
+}
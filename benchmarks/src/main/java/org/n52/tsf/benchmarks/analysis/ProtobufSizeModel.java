@@ -0,0 +1,104 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.analysis;
+
+import org.n52.tsf.serialization.protobuf.gen.GeoProtobuf;
+
+/**
+ * Size model of the length delimited {@code geoprotobuf.proto} records. Proto3 omits scalar fields with the
+ * default value, so zero coordinates and the POINT type cost nothing.
+ */
+class ProtobufSizeModel extends SizeModel {
+    private static final int TAG_SIZE = 1;
+    private static final int DOUBLE_SIZE = 8;
+
+    ProtobufSizeModel(double quantizationScale) {
+        super(quantizationScale);
+    }
+
+    long recordSize(GeometryNode node, CoordinateEncoding encoding) {
+        long size = geometrySize(node, encoding);
+        return varintSize(size) + size;
+    }
+
+    private long geometrySize(GeometryNode node, CoordinateEncoding encoding) {
+        int typeNumber = GeoProtobuf.Geometry.Type.valueOf(node.getType()).getNumber();
+        long size = typeNumber == 0 ? 0 : TAG_SIZE + varintSize(typeNumber);
+        size += coordinatesSize(node, encoding);
+        for (GeometryNode child : node.getChildren()) {
+            long childSize = geometrySize(child, encoding);
+            size += TAG_SIZE + varintSize(childSize) + childSize;
+        }
+        return size;
+    }
+
+    private long coordinatesSize(GeometryNode node, CoordinateEncoding encoding) {
+        int count = node.getCoordinateCount();
+        if (count == 0) {
+            return 0;
+        }
+        switch (encoding) {
+            case PACKED_XY:
+                return packedSize(2L * count * DOUBLE_SIZE);
+            case QUANTIZED_DELTA:
+                return packedSize(quantizedDeltaSize(node));
+            default:
+                long size = 0;
+                for (int i = 0; i < count; i++) {
+                    long coordinateSize = valueSize(node.getX(i)) + valueSize(node.getY(i))
+                            + (encoding == CoordinateEncoding.DROP_Z ? 0 : valueSize(node.getZ(i)));
+                    size += TAG_SIZE + varintSize(coordinateSize) + coordinateSize;
+                }
+                return size;
+        }
+    }
+
+    private static long packedSize(long payload) {
+        return TAG_SIZE + varintSize(payload) + payload;
+    }
+
+    private static long valueSize(double value) {
+        return value != 0D ? TAG_SIZE + DOUBLE_SIZE : 0;
+    }
+
+    long coordinateValueSize(GeometryNode node) {
+        long size = 0;
+        for (int i = 0; i < node.getCoordinateCount(); i++) {
+            size += (node.getX(i) != 0D ? DOUBLE_SIZE : 0) + (node.getY(i) != 0D ? DOUBLE_SIZE : 0)
+                    + (node.getZ(i) != 0D ? DOUBLE_SIZE : 0);
+        }
+        for (GeometryNode child : node.getChildren()) {
+            size += coordinateValueSize(child);
+        }
+        return size;
+    }
+
+    long zValueSize(GeometryNode node) {
+        long size = 0;
+        for (int i = 0; i < node.getCoordinateCount(); i++) {
+            size += node.getZ(i) != 0D ? DOUBLE_SIZE : 0;
+        }
+        for (GeometryNode child : node.getChildren()) {
+            size += zValueSize(child);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,78 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.analysis;
+
+/**
+ * Computes the encoded size of a geometry record from its structure for one wire format. With
+ * {@link CoordinateEncoding#CURRENT} the size equals the bytes the serializers write for the record.
+ */
+abstract class SizeModel {
+    protected final double quantizationScale;
+
+    SizeModel(double quantizationScale) {
+        this.quantizationScale = quantizationScale;
+    }
+
+    /**
+     * Size of the record including any per record framing of the format.
+     */
+    abstract long recordSize(GeometryNode node, CoordinateEncoding encoding);
+
+    /**
+     * Bytes of the record that hold coordinate values, the rest is structure such as tags, lengths and counts.
+     */
+    abstract long coordinateValueSize(GeometryNode node);
+
+    /**
+     * Bytes of the record that hold z values.
+     */
+    abstract long zValueSize(GeometryNode node);
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Bytes of the quantized, delta and zig-zag encoded x and y values of a node.
+     */
+    long quantizedDeltaSize(GeometryNode node) {
+        long size = 0;
+        long previousX = 0;
+        long previousY = 0;
+        for (int i = 0; i < node.getCoordinateCount(); i++) {
+            long x = Math.round(node.getX(i) * quantizationScale);
+            long y = Math.round(node.getY(i) * quantizationScale);
+            size += varintSize(zigZag(x - previousX)) + varintSize(zigZag(y - previousY));
+            previousX = x;
+            previousY = y;
+        }
+        return size;
+    }
+}
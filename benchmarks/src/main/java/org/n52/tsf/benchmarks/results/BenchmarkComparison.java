@@ -0,0 +1,99 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.results;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a candidate benchmark run against a baseline run and flags every configuration whose score, allocation
+ * or encoded size got worse by more than a threshold. Score changes within the combined error margins of both runs
+ * are not flagged. Exits with status 1 if a regression was found, so it can
+ * gate a build. Usage: {@code BenchmarkComparison <baseline.csv> <candidate.csv> [threshold percent]}.
+ */
+public class BenchmarkComparison {
+    public static final double DEFAULT_THRESHOLD_PERCENT = 5;
+
+    private final double thresholdPercent;
+    private int regressions;
+
+    public BenchmarkComparison(double thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BenchmarkComparison <baseline.csv> <candidate.csv> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        BenchmarkComparison comparison = new BenchmarkComparison(threshold);
+        int regressions = comparison.compare(BenchmarkResultStore.read(new File(args[0])),
+                BenchmarkResultStore.read(new File(args[1])));
+        System.out.println(regressions + " regression(s) beyond " + threshold + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * Prints the comparison of all configurations present in both runs and returns the number of regressions.
+     */
+    public int compare(List<BenchmarkRecord> baseline, List<BenchmarkRecord> candidate) {
+        regressions = 0;
+        Map<String, BenchmarkRecord> baselineByKey = new LinkedHashMap<>();
+        for (BenchmarkRecord record : baseline) {
+            baselineByKey.put(record.getKey(), record);
+        }
+        System.out.println(String.format("%-90s %-12s %14s %14s %9s", "Benchmark", "Metric", "Baseline", "Candidate", "Change"));
+        for (BenchmarkRecord record : candidate) {
+            BenchmarkRecord base = baselineByKey.get(record.getKey());
+            if (base == null) {
+                System.out.println(String.format("%-90s (not in baseline)", record.getKey()));
+                continue;
+            }
+            double scoreError = base.getScoreError() + record.getScoreError();
+            report(record.getKey(), "score " + record.getScoreUnit(), base.getScore(), record.getScore(),
+                    Double.isNaN(scoreError) ? 0 : scoreError, record.isHigherScoreBetter());
+            report(record.getKey(), "alloc B/op", base.getAllocatedBytesPerOp(), record.getAllocatedBytesPerOp(), 0, false);
+            if (base.getEncodedBytes() >= 0 && record.getEncodedBytes() >= 0) {
+                report(record.getKey(), "encoded B", base.getEncodedBytes(), record.getEncodedBytes(), 0, false);
+            }
+        }
+        return regressions;
+    }
+
+    private void report(String key, String metric, double baseline, double candidate, double error,
+                        boolean higherIsBetter) {
+        if (Double.isNaN(baseline) || Double.isNaN(candidate)) {
+            return;
+        }
+        double change = baseline == 0 ? (candidate == 0 ? 0 : 100) : (candidate - baseline) * 100 / baseline;
+        double worsening = higherIsBetter ? -change : change;
+        boolean regression = worsening > thresholdPercent && Math.abs(candidate - baseline) > error;
+        if (regression) {
+            regressions++;
+        }
+        System.out.println(String.format("%-90s %-12s %14.3f %14.3f %+8.1f%%%s", key, metric, baseline, candidate,
+                change, regression ? "  REGRESSION" : ""));
+    }
+}
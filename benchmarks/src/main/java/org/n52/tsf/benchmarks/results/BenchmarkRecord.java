@@ -0,0 +1,160 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.results;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One measured benchmark configuration together with the environment it ran in.
+ */
+public class BenchmarkRecord {
+    static final List<String> COLUMNS = Arrays.asList("timestamp", "benchmark", "mode", "params", "score", "scoreError",
+            "scoreUnit", "allocatedBytesPerOp", "encodedBytes", "jdkVersion", "vmVersion", "jvmArgs", "maxHeapBytes",
+            "availableProcessors");
+
+    private final String timestamp;
+    private final String benchmark;
+    private final String mode;
+    private final String params;
+    private final double score;
+    private final double scoreError;
+    private final String scoreUnit;
+    private final double allocatedBytesPerOp;
+    private final long encodedBytes;
+    private final String jdkVersion;
+    private final String vmVersion;
+    private final String jvmArgs;
+    private final long maxHeapBytes;
+    private final int availableProcessors;
+
+    public BenchmarkRecord(String timestamp, String benchmark, String mode, String params, double score,
+                           double scoreError, String scoreUnit, double allocatedBytesPerOp, long encodedBytes,
+                           String jdkVersion, String vmVersion, String jvmArgs, long maxHeapBytes,
+                           int availableProcessors) {
+        this.timestamp = timestamp;
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.params = params;
+        this.score = score;
+        this.scoreError = scoreError;
+        this.scoreUnit = scoreUnit;
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
+        this.encodedBytes = encodedBytes;
+        this.jdkVersion = jdkVersion;
+        this.vmVersion = vmVersion;
+        this.jvmArgs = jvmArgs;
+        this.maxHeapBytes = maxHeapBytes;
+        this.availableProcessors = availableProcessors;
+    }
+
+    /**
+     * Identifies the measured configuration independent of the run, used to match records of two runs.
+     */
+    public String getKey() {
+        return benchmark + " " + mode + " " + params;
+    }
+
+    /**
+     * Whether a higher score is better, which holds for throughput but not for the time based modes.
+     */
+    public boolean isHigherScoreBetter() {
+        return "thrpt".equals(mode);
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public double getScoreError() {
+        return scoreError;
+    }
+
+    public String getScoreUnit() {
+        return scoreUnit;
+    }
+
+    /**
+     * Normalized allocation reported by the gc profiler, or NaN if the profiler was not attached.
+     */
+    public double getAllocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+
+    /**
+     * Encoded size of a single geometry, or -1 if the benchmark does not encode.
+     */
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    public String getJdkVersion() {
+        return jdkVersion;
+    }
+
+    public String getVmVersion() {
+        return vmVersion;
+    }
+
+    public String getJvmArgs() {
+        return jvmArgs;
+    }
+
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
+
+    List<String> toValues() {
+        return Arrays.asList(timestamp, benchmark, mode, params, Double.toString(score), Double.toString(scoreError),
+                scoreUnit, Double.toString(allocatedBytesPerOp), Long.toString(encodedBytes), jdkVersion, vmVersion,
+                jvmArgs, Long.toString(maxHeapBytes), Integer.toString(availableProcessors));
+    }
+
+    static BenchmarkRecord fromValues(List<String> values) {
+        if (values.size() != COLUMNS.size()) {
+            throw new IllegalArgumentException("Expected " + COLUMNS.size() + " columns but found " + values.size());
+        }
+        return new BenchmarkRecord(values.get(0), values.get(1), values.get(2), values.get(3),
+                Double.parseDouble(values.get(4)), Double.parseDouble(values.get(5)), values.get(6),
+                Double.parseDouble(values.get(7)), Long.parseLong(values.get(8)), values.get(9), values.get(10),
+                values.get(11), Long.parseLong(values.get(12)), Integer.parseInt(values.get(13)));
+    }
+}
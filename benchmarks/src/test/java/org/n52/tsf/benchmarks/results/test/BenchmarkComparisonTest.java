@@ -0,0 +1,92 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.results.test;
+
+import org.junit.Test;
+import org.n52.tsf.benchmarks.results.BenchmarkComparison;
+import org.n52.tsf.benchmarks.results.BenchmarkRecord;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BenchmarkComparisonTest {
+
+    @Test
+    public void testThroughputDropBeyondThresholdIsRegression() throws Exception {
+        BenchmarkRecord baseline = record("encode", "thrpt", 1000, 0, 100, 200);
+        BenchmarkRecord candidate = record("encode", "thrpt", 900, 0, 100, 200);
+        assertEquals(1, new BenchmarkComparison(5).compare(list(baseline), list(candidate)));
+        assertEquals(0, new BenchmarkComparison(20).compare(list(baseline), list(candidate)));
+        assertEquals(0, new BenchmarkComparison(5).compare(list(candidate), list(baseline)));
+    }
+
+    @Test
+    public void testTimeIncreaseIsRegression() throws Exception {
+        BenchmarkRecord baseline = record("decode", "avgt", 10, 0, 100, 200);
+        assertEquals(1, new BenchmarkComparison(5).compare(list(baseline), list(record("decode", "avgt", 11, 0, 100, 200))));
+        assertEquals(0, new BenchmarkComparison(5).compare(list(baseline), list(record("decode", "avgt", 9, 0, 100, 200))));
+    }
+
+    @Test
+    public void testScoreChangeWithinErrorMarginIsNoRegression() throws Exception {
+        BenchmarkRecord baseline = record("encode", "thrpt", 1000, 60, 100, 200);
+        BenchmarkRecord candidate = record("encode", "thrpt", 900, 50, 100, 200);
+        assertEquals(0, new BenchmarkComparison(5).compare(list(baseline), list(candidate)));
+    }
+
+    @Test
+    public void testEveryWorsenedMetricCounts() throws Exception {
+        BenchmarkRecord baseline = record("encode", "thrpt", 1000, 0, 100, 200);
+        BenchmarkRecord candidate = record("encode", "thrpt", 800, 0, 150, 250);
+        assertEquals(3, new BenchmarkComparison(5).compare(list(baseline), list(candidate)));
+    }
+
+    @Test
+    public void testMissingMeasurementsAreSkipped() throws Exception {
+        BenchmarkRecord baseline = record("encode", "thrpt", 1000, Double.NaN, Double.NaN, -1);
+        BenchmarkRecord candidate = record("encode", "thrpt", 1000, Double.NaN, 500, 300);
+        assertEquals(0, new BenchmarkComparison(5).compare(list(baseline), list(candidate)));
+    }
+
+    @Test
+    public void testBenchmarkMissingFromBaselineIsNoRegression() throws Exception {
+        BenchmarkRecord baseline = record("encode", "thrpt", 1000, 0, 100, 200);
+        BenchmarkRecord added = record("decode", "thrpt", 1, 0, 1000, 2000);
+        BenchmarkRecord worse = record("encode", "thrpt", 500, 0, 100, 200);
+        assertEquals(0, new BenchmarkComparison(5).compare(list(baseline), list(added)));
+        assertEquals(1, new BenchmarkComparison(5).compare(list(baseline), Arrays.asList(added, worse)));
+        assertEquals(0, new BenchmarkComparison(5).compare(Collections.<BenchmarkRecord>emptyList(), list(worse)));
+    }
+
+    private static BenchmarkRecord record(String benchmark, String mode, double score, double scoreError,
+                                          double allocatedBytesPerOp, long encodedBytes) {
+        return new BenchmarkRecord("2024-01-01T00:00:00Z", benchmark, mode, "codec=PB", score, scoreError,
+                "thrpt".equals(mode) ? "ops/s" : "us/op", allocatedBytesPerOp, encodedBytes, "1.8.0_352",
+                "OpenJDK 64-Bit Server VM", "", 1L << 30, 4);
+    }
+
+    private static List<BenchmarkRecord> list(BenchmarkRecord record) {
+        return Collections.singletonList(record);
+    }
+}
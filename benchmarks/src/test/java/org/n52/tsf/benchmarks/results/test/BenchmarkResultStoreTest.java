@@ -0,0 +1,87 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.benchmarks.results.test;
+
+import org.junit.Test;
+import org.n52.tsf.benchmarks.results.BenchmarkRecord;
+import org.n52.tsf.benchmarks.results.BenchmarkResultStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BenchmarkResultStoreTest {
+
+    @Test
+    public void testRecordsRoundTrip() throws Exception {
+        BenchmarkRecord quoted = new BenchmarkRecord("2024-01-01T00:00:00Z", "VectorCodecBenchmark.encode", "thrpt",
+                "codec=PB, shape=\"polygon\"", 1234.5, 12.25, "ops/s", 96, 208, "17.0.2", "OpenJDK 64-Bit Server VM",
+                "-Xmx2g -XX:+UseG1GC,-Dtsf=1", 2147483648L, 8);
+        BenchmarkRecord plain = new BenchmarkRecord("2024-01-01T00:00:00Z", "FootprintBenchmark.decode", "avgt", "",
+                0.75, Double.NaN, "us/op", Double.NaN, -1, "1.8.0_352", "", "", 1L << 30, 4);
+        File file = File.createTempFile("benchmark", ".csv");
+        try {
+            BenchmarkResultStore.write(file, Arrays.asList(quoted, plain));
+            List<BenchmarkRecord> records = BenchmarkResultStore.read(file);
+            assertEquals(2, records.size());
+            assertRecordEquals(quoted, records.get(0));
+            assertRecordEquals(plain, records.get(1));
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            assertTrue(lines.get(1).contains("\"codec=PB, shape=\"\"polygon\"\"\""));
+            assertTrue(lines.get(1).contains("\"-Xmx2g -XX:+UseG1GC,-Dtsf=1\""));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsFileWithoutHeader() throws Exception {
+        File file = File.createTempFile("benchmark", ".csv");
+        try {
+            Files.write(file.toPath(), Collections.singletonList("a,b,c"), StandardCharsets.UTF_8);
+            BenchmarkResultStore.read(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertRecordEquals(BenchmarkRecord expected, BenchmarkRecord actual) {
+        assertEquals(expected.getKey(), actual.getKey());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getScore(), actual.getScore(), 0);
+        assertEquals(expected.getScoreError(), actual.getScoreError(), 0);
+        assertEquals(expected.getScoreUnit(), actual.getScoreUnit());
+        assertEquals(expected.getAllocatedBytesPerOp(), actual.getAllocatedBytesPerOp(), 0);
+        assertEquals(expected.getEncodedBytes(), actual.getEncodedBytes());
+        assertEquals(expected.getJdkVersion(), actual.getJdkVersion());
+        assertEquals(expected.getVmVersion(), actual.getVmVersion());
+        assertEquals(expected.getJvmArgs(), actual.getJvmArgs());
+        assertEquals(expected.getMaxHeapBytes(), actual.getMaxHeapBytes());
+        assertEquals(expected.getAvailableProcessors(), actual.getAvailableProcessors());
+    }
+}
@@ -20,19 +20,39 @@
 package org.n52.tsf.model;
 
 import org.apache.log4j.Logger;
+import org.n52.tsf.model.jfr.CodecEvents;
+import org.n52.tsf.model.metrics.CodecMetrics;
+import org.n52.tsf.model.metrics.CountingInputStream;
+import org.n52.tsf.model.metrics.MeteredDeserializationHandler;
+import org.n52.tsf.model.metrics.Metrics;
 import org.n52.tsf.model.vector.jts.locationtech.AvroDeserializationHandlerLT;
+import org.n52.tsf.model.vector.jts.locationtech.AvroMessageDeserializationHandlerLT;
 import org.n52.tsf.model.vector.jts.locationtech.PBDeserializationHandlerLT;
 import org.n52.tsf.model.vector.jts.vividsolutions.AvroDeserializationHandlerVS;
+import org.n52.tsf.model.vector.jts.vividsolutions.AvroMessageDeserializationHandlerVS;
 import org.n52.tsf.model.vector.jts.vividsolutions.PBDeserializationHandlerVS;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 public class DeserializationFactory {
     private final static Logger logger = Logger.getLogger(DeserializationFactory.class);
 
+    /**
+     * Creates a deserializer reading from the given stream. The deserializer reports to the configured
+     * {@link Metrics} unless these are the no-op default. It emits flight recorder events if a recording with the
+     * decode event enabled is running when it is created, otherwise it is left uninstrumented.
+     */
     public static DeserializationHandler createDeserializer(InputStream inputStream, DeserializerType deserializerType) throws IOException {
        DeserializationHandler deserializationHandler = null;
+        CodecMetrics metrics = Metrics.get();
+        CountingInputStream countingStream = null;
+        if (metrics != CodecMetrics.NOOP || CodecEvents.isDecodeEnabled()) {
+            countingStream = new CountingInputStream(inputStream);
+            inputStream = countingStream;
+        }
 
         switch (deserializerType){
             case AVRO_DESERIALIZER_VS:
@@ -47,10 +67,50 @@ public class DeserializationFactory {
             case PROTOBUF_DESERIALIZER_LT:
                 deserializationHandler = new PBDeserializationHandlerLT(inputStream);
                 break;
+            case AVRO_MESSAGE_DESERIALIZER_VS:
+                deserializationHandler = new AvroMessageDeserializationHandlerVS(inputStream);
+                break;
+            case AVRO_MESSAGE_DESERIALIZER_LT:
+                deserializationHandler = new AvroMessageDeserializationHandlerLT(inputStream);
+                break;
             default:
                 logger.error("Given deserialization type does not support");
         }
 
+        if (countingStream != null && deserializationHandler != null) {
+            deserializationHandler = new MeteredDeserializationHandler(deserializationHandler, metrics, countingStream);
+        }
+        return deserializationHandler;
+    }
+
+    /**
+     * Creates a deserializer reading from the given file. The protobuf and avro container file deserializers
+     * created this way provide a {@link DeserializationHandler#stream()} which can be split for parallel decoding.
+     */
+    public static DeserializationHandler createDeserializer(File file, DeserializerType deserializerType) throws IOException {
+        DeserializationHandler deserializationHandler;
+
+        switch (deserializerType){
+            case AVRO_DESERIALIZER_VS:
+                deserializationHandler = new AvroDeserializationHandlerVS(file);
+                break;
+            case PROTOBUF_DESERIALIZER_VS:
+                deserializationHandler = new PBDeserializationHandlerVS(file);
+                break;
+            case AVRO_DESERIALIZER_LT:
+                deserializationHandler = new AvroDeserializationHandlerLT(file);
+                break;
+            case PROTOBUF_DESERIALIZER_LT:
+                deserializationHandler = new PBDeserializationHandlerLT(file);
+                break;
+            default:
+                return createDeserializer(new FileInputStream(file), deserializerType);
+        }
+
+        CodecMetrics metrics = Metrics.get();
+        if (metrics != CodecMetrics.NOOP || CodecEvents.isDecodeEnabled()) {
+            deserializationHandler = new MeteredDeserializationHandler(deserializationHandler, metrics, null);
+        }
         return deserializationHandler;
     }
 }
@@ -19,8 +19,16 @@
 
 package org.n52.tsf.model;
 
+import org.reactivestreams.Publisher;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class DeserializationHandler {
     private DeserializerType deserializerType =  null;
@@ -33,6 +41,45 @@ public abstract class DeserializationHandler {
         return deserializerType;
     }
 
+    /**
+     * Exposes the remaining geometries of this handler as a {@link Publisher} decoding on the given executor.
+     */
+    public <T> Publisher<T> toPublisher(Class<T> geometryType, Executor executor) {
+        return new DeserializationPublisher<>(this, geometryType, executor);
+    }
+
+    /**
+     * Exposes the remaining geometries of this handler as a sequential {@link Stream}. Handlers created from a
+     * file override this with a stream over the whole file which can be split for parallel decoding. Closing the
+     * stream closes the handler.
+     */
+    public Stream<Object> stream() {
+        Spliterator<Object> spliterator = new Spliterators.AbstractSpliterator<Object>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            public boolean tryAdvance(Consumer<? super Object> action) {
+                try {
+                    Object geometry = deserialize();
+                    if (geometry == null) {
+                        return false;
+                    }
+                    action.accept(geometry);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::closeUnchecked);
+    }
+
+    protected void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public abstract Object deserialize() throws IOException;
     public abstract void close() throws IOException;
 }
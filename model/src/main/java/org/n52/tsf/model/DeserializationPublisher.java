@@ -0,0 +1,188 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model;
+
+import org.apache.log4j.Logger;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive Streams {@link Publisher} over a {@link DeserializationHandler}. Geometries are decoded on the given
+ * executor, at most {@code readAhead} of them ahead of the subscriber demand, and the handler is closed once the
+ * stream completes, fails or is cancelled. The underlying stream can be consumed only once, so the publisher
+ * accepts a single subscriber. On Java 9 and later the publisher can be bridged to
+ * {@code java.util.concurrent.Flow} with {@code org.reactivestreams.FlowAdapters}.
+ */
+public class DeserializationPublisher<T> implements Publisher<T> {
+    private final static Logger logger = Logger.getLogger(DeserializationPublisher.class);
+    public static final int DEFAULT_READ_AHEAD = 32;
+
+    private final DeserializationHandler deserializationHandler;
+    private final Class<T> geometryType;
+    private final Executor executor;
+    private final int readAhead;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public DeserializationPublisher(DeserializationHandler deserializationHandler, Class<T> geometryType, Executor executor) {
+        this(deserializationHandler, geometryType, executor, DEFAULT_READ_AHEAD);
+    }
+
+    public DeserializationPublisher(DeserializationHandler deserializationHandler, Class<T> geometryType, Executor executor,
+                                    int readAhead) {
+        if (readAhead < 1) {
+            throw new IllegalArgumentException("Read ahead must be at least one geometry");
+        }
+        this.deserializationHandler = deserializationHandler;
+        this.geometryType = geometryType;
+        this.executor = executor;
+        this.readAhead = readAhead;
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Deserialization publisher supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new DeserializationSubscription(subscriber));
+    }
+
+    private final class DeserializationSubscription implements Subscription, Runnable {
+        private final Subscriber<? super T> subscriber;
+        private final ArrayDeque<T> readAheadQueue = new ArrayDeque<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable requestError;
+        private boolean endOfStream;
+        private boolean terminated;
+
+        private DeserializationSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Requested geometries must be positive but was " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    terminate(e);
+                }
+            }
+        }
+
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            try {
+                while (!terminated) {
+                    if (cancelled) {
+                        terminated = true;
+                        readAheadQueue.clear();
+                        closeHandler();
+                    } else if (requestError != null) {
+                        terminate(requestError);
+                    } else if (requested.get() > 0 && !readAheadQueue.isEmpty()) {
+                        if (requested.get() != Long.MAX_VALUE) {
+                            requested.decrementAndGet();
+                        }
+                        subscriber.onNext(readAheadQueue.poll());
+                    } else if (endOfStream && readAheadQueue.isEmpty()) {
+                        terminated = true;
+                        closeHandler();
+                        subscriber.onComplete();
+                    } else if (!endOfStream && readAheadQueue.size() < readAhead) {
+                        Object geometry = deserializationHandler.deserialize();
+                        if (geometry == null) {
+                            endOfStream = true;
+                        } else {
+                            readAheadQueue.add(geometryType.cast(geometry));
+                        }
+                    } else {
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                terminate(e);
+            }
+        }
+
+        private void terminate(Throwable throwable) {
+            if (!terminated) {
+                terminated = true;
+                readAheadQueue.clear();
+                closeHandler();
+                subscriber.onError(throwable);
+            }
+        }
+
+        private void closeHandler() {
+            try {
+                deserializationHandler.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the deserialization handler", e);
+            }
+        }
+    }
+}
@@ -20,5 +20,6 @@
 package org.n52.tsf.model;
 
 public enum DeserializerType {
-    PROTOBUF_DESERIALIZER_VS, PROTOBUF_DESERIALIZER_LT, AVRO_DESERIALIZER_VS, AVRO_DESERIALIZER_LT
+    PROTOBUF_DESERIALIZER_VS, PROTOBUF_DESERIALIZER_LT, AVRO_DESERIALIZER_VS, AVRO_DESERIALIZER_LT,
+    AVRO_MESSAGE_DESERIALIZER_VS, AVRO_MESSAGE_DESERIALIZER_LT
 }
@@ -20,8 +20,15 @@
 package org.n52.tsf.model;
 
 import org.apache.log4j.Logger;
+import org.n52.tsf.model.jfr.CodecEvents;
+import org.n52.tsf.model.metrics.CodecMetrics;
+import org.n52.tsf.model.metrics.CountingOutputStream;
+import org.n52.tsf.model.metrics.MeteredSerializationHandler;
+import org.n52.tsf.model.metrics.Metrics;
+import org.n52.tsf.model.vector.jts.locationtech.AvroMessageSerializationHandlerLT;
 import org.n52.tsf.model.vector.jts.locationtech.AvroSerializationHandlerLT;
 import org.n52.tsf.model.vector.jts.locationtech.PBSerializationHandlerLT;
+import org.n52.tsf.model.vector.jts.vividsolutions.AvroMessageSerializationHandlerVS;
 import org.n52.tsf.model.vector.jts.vividsolutions.AvroSerializationHandlerVS;
 import org.n52.tsf.model.vector.jts.vividsolutions.PBSerializationHandlerVS;
 
@@ -31,8 +38,19 @@ import java.io.OutputStream;
 public class SerializationFactory {
     private final static Logger logger = Logger.getLogger(SerializationFactory.class);
 
+    /**
+     * Creates a serializer writing to the given stream. The serializer reports to the configured {@link Metrics}
+     * unless these are the no-op default. It emits flight recorder events if a recording with the encode event
+     * enabled is running when it is created, otherwise it is left uninstrumented.
+     */
     public static SerializationHandler createSerializer(OutputStream outputStream, SerializerType serializerType) throws IOException {
         SerializationHandler serializationHandler = null;
+        CodecMetrics metrics = Metrics.get();
+        CountingOutputStream countingStream = null;
+        if (metrics != CodecMetrics.NOOP || CodecEvents.isEncodeEnabled()) {
+            countingStream = new CountingOutputStream(outputStream);
+            outputStream = countingStream;
+        }
 
         switch (serializerType){
             case AVRO_SERIALIZER_VS:
@@ -47,10 +65,19 @@ public class SerializationFactory {
             case PROTOBUF_SERIALIZER_LT:
                 serializationHandler = new PBSerializationHandlerLT(outputStream);
                 break;
+            case AVRO_MESSAGE_SERIALIZER_VS:
+                serializationHandler = new AvroMessageSerializationHandlerVS(outputStream);
+                break;
+            case AVRO_MESSAGE_SERIALIZER_LT:
+                serializationHandler = new AvroMessageSerializationHandlerLT(outputStream);
+                break;
             default:
                 logger.error("Given serialization type does not support");
         }
 
+        if (countingStream != null && serializationHandler != null) {
+            serializationHandler = new MeteredSerializationHandler(serializationHandler, metrics, countingStream);
+        }
         return serializationHandler;
     }
 }
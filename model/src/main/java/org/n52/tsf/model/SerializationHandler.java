@@ -19,9 +19,10 @@
 
 package org.n52.tsf.model;
 
+import java.io.Closeable;
 import java.io.IOException;
 
-public abstract class SerializationHandler {
+public abstract class SerializationHandler implements Closeable {
     private SerializerType serializerType =  null;
 
     public SerializationHandler(SerializerType serializerType) {
@@ -0,0 +1,107 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.jfr;
+
+/**
+ * Entry point for the flight recorder events of the codecs. Safe to call on JVMs without the JFR API, where every
+ * begin method returns null. The begin methods also return null without allocating an event while no recording has
+ * the event enabled, so the instrumented code paths only pay for a flag check when nobody is recording.
+ */
+public final class CodecEvents {
+    private static final boolean AVAILABLE = isJfrPresent();
+
+    private CodecEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Whether a running recording has the encode event enabled.
+     */
+    public static boolean isEncodeEnabled() {
+        return AVAILABLE && JfrCodecEvents.isEncodeEnabled();
+    }
+
+    /**
+     * Whether a running recording has the decode event enabled.
+     */
+    public static boolean isDecodeEnabled() {
+        return AVAILABLE && JfrCodecEvents.isDecodeEnabled();
+    }
+
+    public static Object beginEncode() {
+        return AVAILABLE ? JfrCodecEvents.beginEncode() : null;
+    }
+
+    public static Object beginDecode() {
+        return AVAILABLE ? JfrCodecEvents.beginDecode() : null;
+    }
+
+    /**
+     * Commits a geometry encode event, the vertex count is only computed if the event passes its threshold.
+     */
+    public static void commitEncode(Object event, String codec, Object geometry, long bytes) {
+        if (event != null) {
+            JfrCodecEvents.commitEncode(event, codec, geometry, null, 0, bytes);
+        }
+    }
+
+    /**
+     * Commits an encode event of something other than a single geometry, such as a grid coverage.
+     */
+    public static void commitEncode(Object event, String codec, String geometryType, long vertexCount, long bytes) {
+        if (event != null) {
+            JfrCodecEvents.commitEncode(event, codec, null, geometryType, vertexCount, bytes);
+        }
+    }
+
+    public static void commitDecode(Object event, String codec, Object geometry, long bytes) {
+        if (event != null) {
+            JfrCodecEvents.commitDecode(event, codec, geometry, bytes);
+        }
+    }
+
+    static long countVertices(Object geometry) {
+        if (geometry instanceof org.locationtech.jts.geom.Geometry) {
+            return ((org.locationtech.jts.geom.Geometry) geometry).getNumPoints();
+        } else if (geometry instanceof com.vividsolutions.jts.geom.Geometry) {
+            return ((com.vividsolutions.jts.geom.Geometry) geometry).getNumPoints();
+        } else if (geometry instanceof org.locationtech.jts.geom.LineSegment
+                || geometry instanceof com.vividsolutions.jts.geom.LineSegment) {
+            return 2;
+        } else if (geometry instanceof org.locationtech.jts.geom.Triangle
+                || geometry instanceof com.vividsolutions.jts.geom.Triangle) {
+            return 3;
+        }
+        return 0;
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, CodecEvents.class.getClassLoader());
+            return Class.forName("jdk.jfr.FlightRecorder").getMethod("isAvailable").invoke(null) == Boolean.TRUE;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+}
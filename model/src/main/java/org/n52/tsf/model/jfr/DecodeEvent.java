@@ -0,0 +1,46 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of a geometry or coverage being deserialized. Only operations above the threshold are recorded.
+ */
+@Name("org.n52.tsf.Decode")
+@Label("TSF Decode")
+@Category({"Topology Serialization Framework", "Codec"})
+@Threshold("1 ms")
+@StackTrace(false)
+class DecodeEvent extends Event {
+    @Label("Codec")
+    String codec;
+
+    @Label("Geometry Type")
+    String geometryType;
+
+    @Label("Vertex Count")
+    long vertexCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,84 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * Creates and commits the flight recorder events, only loaded once {@link CodecEvents} found the JFR API.
+ */
+final class JfrCodecEvents {
+    private static final EventType ENCODE_TYPE = EventType.getEventType(EncodeEvent.class);
+    private static final EventType DECODE_TYPE = EventType.getEventType(DecodeEvent.class);
+
+    private JfrCodecEvents() {
+    }
+
+    static boolean isEncodeEnabled() {
+        return ENCODE_TYPE.isEnabled();
+    }
+
+    static boolean isDecodeEnabled() {
+        return DECODE_TYPE.isEnabled();
+    }
+
+    static Object beginEncode() {
+        if (!ENCODE_TYPE.isEnabled()) {
+            return null;
+        }
+        EncodeEvent event = new EncodeEvent();
+        event.begin();
+        return event;
+    }
+
+    static Object beginDecode() {
+        if (!DECODE_TYPE.isEnabled()) {
+            return null;
+        }
+        DecodeEvent event = new DecodeEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitEncode(Object begun, String codec, Object geometry, String geometryType, long vertexCount, long bytes) {
+        EncodeEvent event = (EncodeEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.codec = codec;
+            event.geometryType = geometry == null ? geometryType : geometry.getClass().getSimpleName();
+            event.vertexCount = geometry == null ? vertexCount : CodecEvents.countVertices(geometry);
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    static void commitDecode(Object begun, String codec, Object geometry, long bytes) {
+        DecodeEvent event = (DecodeEvent) begun;
+        event.end();
+        if (event.shouldCommit() && geometry != null) {
+            event.codec = codec;
+            event.geometryType = geometry.getClass().getSimpleName();
+            event.vertexCount = CodecEvents.countVertices(geometry);
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import org.n52.tsf.model.DeserializerType;
+import org.n52.tsf.model.SerializerType;
+
+/**
+ * Receives the measurements of instrumented serializers and deserializers. Implementations must be thread safe,
+ * handlers on different threads report to the same instance. Implementations can be registered through
+ * {@link java.util.ServiceLoader} or {@link Metrics#set(CodecMetrics)}.
+ */
+public interface CodecMetrics {
+
+    /**
+     * The default, handlers are not instrumented at all while it is active.
+     */
+    CodecMetrics NOOP = new CodecMetrics() {
+        public void geometryEncoded(SerializerType serializerType, String geometryType, long bytes, long nanos) {
+        }
+
+        public void geometryDecoded(DeserializerType deserializerType, String geometryType, long bytes, long nanos) {
+        }
+
+        public void encodeFailed(SerializerType serializerType, Throwable error) {
+        }
+
+        public void decodeFailed(DeserializerType deserializerType, Throwable error) {
+        }
+    };
+
+    /**
+     * Called after a geometry was serialized. The bytes are those written to the output stream during the call,
+     * which is zero for codecs that buffer records until a block is full.
+     */
+    void geometryEncoded(SerializerType serializerType, String geometryType, long bytes, long nanos);
+
+    /**
+     * Called after a geometry was deserialized with the bytes read from the input stream during the call.
+     */
+    void geometryDecoded(DeserializerType deserializerType, String geometryType, long bytes, long nanos);
+
+    void encodeFailed(SerializerType serializerType, Throwable error);
+
+    void decodeFailed(DeserializerType deserializerType, Throwable error);
+}
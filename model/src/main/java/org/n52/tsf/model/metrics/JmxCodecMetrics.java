@@ -0,0 +1,98 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Records the measurements like {@link RecordingCodecMetrics} and exposes them as an MXBean on the platform
+ * MBean server under {@link #OBJECT_NAME}.
+ */
+public class JmxCodecMetrics extends RecordingCodecMetrics implements CodecMetricsMXBean {
+    public static final String OBJECT_NAME = "org.n52.tsf:type=CodecMetrics";
+
+    private ObjectName objectName;
+
+    public synchronized void register() throws JMException {
+        if (objectName == null) {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        }
+    }
+
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    public Map<String, Long> getGeometryCounts() {
+        return collectCounts(this::getGeometryCount);
+    }
+
+    public Map<String, Long> getByteCounts() {
+        return collectCounts(this::getBytes);
+    }
+
+    public Map<String, Long> getErrorCounts() {
+        return collectCounts(this::getErrorCount);
+    }
+
+    public Map<String, Double> getMeanLatencies() {
+        return collectLatencies(Histogram::getMean);
+    }
+
+    public Map<String, Double> getP99Latencies() {
+        return collectLatencies(histogram -> (double) histogram.getValueAtPercentile(99));
+    }
+
+    public Map<String, Double> getMaxLatencies() {
+        return collectLatencies(histogram -> (double) histogram.getMaxValue());
+    }
+
+    private Map<String, Long> collectCounts(ToLongFunction<String> count) {
+        Map<String, Long> counts = new HashMap<>();
+        for (String codec : getCodecs()) {
+            counts.put(codec, count.applyAsLong(codec));
+        }
+        return counts;
+    }
+
+    private Map<String, Double> collectLatencies(Function<Histogram, Double> statistic) {
+        Map<String, Double> latencies = new HashMap<>();
+        for (String codec : getCodecs()) {
+            Histogram histogram = getLatencyHistogram(codec);
+            if (histogram.getTotalCount() > 0) {
+                latencies.put(codec, statistic.apply(histogram) / 1000);
+            }
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,85 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import org.n52.tsf.model.DeserializationHandler;
+import org.n52.tsf.model.jfr.CodecEvents;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * Reports the geometries, bytes, latencies and errors of a wrapped deserializer to {@link CodecMetrics} and emits
+ * flight recorder events for it while a recording is enabled. Only {@link #deserialize()} is metered; see
+ * {@link #stream()}.
+ */
+public class MeteredDeserializationHandler extends DeserializationHandler {
+    private final DeserializationHandler deserializationHandler;
+    private final CodecMetrics metrics;
+    private final CountingInputStream input;
+
+    /**
+     * @param input the counting stream the wrapped deserializer reads from, or null if the bytes are unknown
+     */
+    public MeteredDeserializationHandler(DeserializationHandler deserializationHandler, CodecMetrics metrics,
+                                         CountingInputStream input) {
+        super(deserializationHandler.getDeserializerType());
+        this.deserializationHandler = deserializationHandler;
+        this.metrics = metrics;
+        this.input = input;
+    }
+
+    public Object deserialize() throws IOException {
+        Object event = CodecEvents.beginDecode();
+        if (event == null && metrics == CodecMetrics.NOOP) {
+            return deserializationHandler.deserialize();
+        }
+        long bytes = input == null ? 0 : input.getCount();
+        long start = System.nanoTime();
+        Object jtsGeometry;
+        try {
+            jtsGeometry = deserializationHandler.deserialize();
+        } catch (IOException | RuntimeException e) {
+            metrics.decodeFailed(getDeserializerType(), e);
+            throw e;
+        }
+        if (jtsGeometry != null) {
+            long nanos = System.nanoTime() - start;
+            bytes = input == null ? 0 : input.getCount() - bytes;
+            metrics.geometryDecoded(getDeserializerType(), jtsGeometry.getClass().getSimpleName(), bytes, nanos);
+            CodecEvents.commitDecode(event, getDeserializerType().name(), jtsGeometry, bytes);
+        }
+        return jtsGeometry;
+    }
+
+    /**
+     * Returns the stream of the wrapped deserializer without metering it. Its splits read and decode records on
+     * their own, so the bytes and latency of a single geometry are not known here, and recording geometries
+     * without them would add zero samples to the latency and throughput statistics.
+     */
+    public Stream<Object> stream() {
+        return deserializationHandler.stream();
+    }
+
+    public void close() throws IOException {
+        deserializationHandler.close();
+    }
+}
@@ -0,0 +1,71 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import org.n52.tsf.model.SerializationHandler;
+import org.n52.tsf.model.jfr.CodecEvents;
+
+import java.io.IOException;
+
+/**
+ * Reports the geometries, bytes, latencies and errors of a wrapped serializer to {@link CodecMetrics} and emits
+ * flight recorder events for it while a recording is enabled.
+ */
+public class MeteredSerializationHandler extends SerializationHandler {
+    private final SerializationHandler serializationHandler;
+    private final CodecMetrics metrics;
+    private final CountingOutputStream output;
+
+    /**
+     * @param output the counting stream the wrapped serializer writes to, or null if the bytes are unknown
+     */
+    public MeteredSerializationHandler(SerializationHandler serializationHandler, CodecMetrics metrics,
+                                       CountingOutputStream output) {
+        super(serializationHandler.getSerializerType());
+        this.serializationHandler = serializationHandler;
+        this.metrics = metrics;
+        this.output = output;
+    }
+
+    public void serialize(Object jtsGeometry) throws IOException {
+        Object event = CodecEvents.beginEncode();
+        if (event == null && metrics == CodecMetrics.NOOP) {
+            serializationHandler.serialize(jtsGeometry);
+            return;
+        }
+        long bytes = output == null ? 0 : output.getCount();
+        long start = System.nanoTime();
+        try {
+            serializationHandler.serialize(jtsGeometry);
+        } catch (IOException | RuntimeException e) {
+            metrics.encodeFailed(getSerializerType(), e);
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = output == null ? 0 : output.getCount() - bytes;
+        metrics.geometryEncoded(getSerializerType(), jtsGeometry.getClass().getSimpleName(), bytes, nanos);
+        CodecEvents.commitEncode(event, getSerializerType().name(), jtsGeometry, bytes);
+    }
+
+    public void close() throws IOException {
+        serializationHandler.close();
+    }
+}
@@ -0,0 +1,69 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the {@link CodecMetrics} used by the serialization and deserialization factories. Without configuration
+ * the first implementation found by the {@link ServiceLoader} is used, or {@link CodecMetrics#NOOP} if there is
+ * none. Handlers pick up the metrics when they are created.
+ */
+public final class Metrics {
+    private final static Logger logger = Logger.getLogger(Metrics.class);
+    private static volatile CodecMetrics metrics;
+
+    private Metrics() {
+    }
+
+    public static CodecMetrics get() {
+        CodecMetrics current = metrics;
+        if (current == null) {
+            synchronized (Metrics.class) {
+                if (metrics == null) {
+                    metrics = load();
+                }
+                current = metrics;
+            }
+        }
+        return current;
+    }
+
+    public static void set(CodecMetrics codecMetrics) {
+        metrics = codecMetrics == null ? CodecMetrics.NOOP : codecMetrics;
+    }
+
+    private static CodecMetrics load() {
+        try {
+            Iterator<CodecMetrics> providers = ServiceLoader.load(CodecMetrics.class).iterator();
+            if (providers.hasNext()) {
+                return providers.next();
+            }
+        } catch (ServiceConfigurationError e) {
+            logger.error("Unable to load the codec metrics provider", e);
+        }
+        return CodecMetrics.NOOP;
+    }
+}
@@ -0,0 +1,79 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import io.micrometer.core.instrument.*;
+import org.n52.tsf.model.DeserializerType;
+import org.n52.tsf.model.SerializerType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the measurements to a Micrometer {@link MeterRegistry}: a {@code tsf.codec.latency} timer tagged
+ * with codec and geometry type, a {@code tsf.codec.bytes} summary and a {@code tsf.codec.errors} counter. The
+ * micrometer-core dependency is optional and only needed when this class is used.
+ */
+public class MicrometerCodecMetrics implements CodecMetrics {
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+    public MicrometerCodecMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void geometryEncoded(SerializerType serializerType, String geometryType, long bytes, long nanos) {
+        record(serializerType.name(), "encode", geometryType, bytes, nanos);
+    }
+
+    public void geometryDecoded(DeserializerType deserializerType, String geometryType, long bytes, long nanos) {
+        record(deserializerType.name(), "decode", geometryType, bytes, nanos);
+    }
+
+    public void encodeFailed(SerializerType serializerType, Throwable error) {
+        error(serializerType.name(), "encode");
+    }
+
+    public void decodeFailed(DeserializerType deserializerType, Throwable error) {
+        error(deserializerType.name(), "decode");
+    }
+
+    private void record(String codec, String operation, String geometryType, long bytes, long nanos) {
+        String key = codec + '/' + geometryType;
+        timers.computeIfAbsent(key, k -> Timer.builder("tsf.codec.latency")
+                .tags("codec", codec, "operation", operation, "geometry", geometryType)
+                .publishPercentileHistogram()
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+        summaries.computeIfAbsent(key, k -> DistributionSummary.builder("tsf.codec.bytes")
+                .baseUnit("bytes")
+                .tags("codec", codec, "operation", operation, "geometry", geometryType)
+                .register(registry)).record(bytes);
+    }
+
+    private void error(String codec, String operation) {
+        errors.computeIfAbsent(codec, k -> Counter.builder("tsf.codec.errors")
+                .tags("codec", codec, "operation", operation)
+                .register(registry)).increment();
+    }
+}
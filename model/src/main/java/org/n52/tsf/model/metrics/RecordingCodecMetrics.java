@@ -0,0 +1,112 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.n52.tsf.model.DeserializerType;
+import org.n52.tsf.model.SerializerType;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the measurements in memory, geometry counts per codec and geometry type, byte and error counts per codec
+ * and a latency histogram per codec. Codecs are identified by the name of their serializer or deserializer type.
+ */
+public class RecordingCodecMetrics implements CodecMetrics {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Map<String, LongAdder>> geometries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bytes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+
+    public void geometryEncoded(SerializerType serializerType, String geometryType, long bytes, long nanos) {
+        record(serializerType.name(), geometryType, bytes, nanos);
+    }
+
+    public void geometryDecoded(DeserializerType deserializerType, String geometryType, long bytes, long nanos) {
+        record(deserializerType.name(), geometryType, bytes, nanos);
+    }
+
+    public void encodeFailed(SerializerType serializerType, Throwable error) {
+        errors.computeIfAbsent(serializerType.name(), codec -> new LongAdder()).increment();
+    }
+
+    public void decodeFailed(DeserializerType deserializerType, Throwable error) {
+        errors.computeIfAbsent(deserializerType.name(), codec -> new LongAdder()).increment();
+    }
+
+    private void record(String codec, String geometryType, long byteCount, long nanos) {
+        geometries.computeIfAbsent(codec, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(geometryType, key -> new LongAdder()).increment();
+        bytes.computeIfAbsent(codec, key -> new LongAdder()).add(byteCount);
+        if (nanos > 0) {
+            latencies.computeIfAbsent(codec, key -> new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS))
+                    .recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        }
+    }
+
+    public Set<String> getCodecs() {
+        return Collections.unmodifiableSet(geometries.keySet());
+    }
+
+    public Map<String, Long> getGeometryCounts(String codec) {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        geometries.getOrDefault(codec, Collections.emptyMap()).forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    public long getGeometryCount(String codec) {
+        return geometries.getOrDefault(codec, Collections.emptyMap()).values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getBytes(String codec) {
+        LongAdder count = bytes.get(codec);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getErrorCount(String codec) {
+        LongAdder count = errors.get(codec);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Returns a copy of the latency histogram of the codec in nanoseconds.
+     */
+    public Histogram getLatencyHistogram(String codec) {
+        Histogram histogram = latencies.get(codec);
+        return histogram == null ? new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS) : histogram.copy();
+    }
+
+    public void reset() {
+        geometries.clear();
+        bytes.clear();
+        errors.clear();
+        latencies.clear();
+    }
+}
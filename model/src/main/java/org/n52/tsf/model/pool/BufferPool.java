@@ -0,0 +1,123 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.pool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread local pool of reusable byte arrays and heap {@link ByteBuffer}s for the delimited protobuf encode /
+ * decode hot path. Every thread keeps at most one buffer of each kind, so a borrowed buffer
+ * has to be released by the thread which borrowed it once it is not referenced anymore. Buffers larger than
+ * {@link #MAX_POOLED_SIZE} elements are handed out but never retained.
+ */
+public final class BufferPool {
+    public static final int MAX_POOLED_SIZE = 1 << 22;
+    private static final int MIN_POOLED_SIZE = 1 << 10;
+
+    private static final ThreadLocal<BufferPool> localPool = ThreadLocal.withInitial(BufferPool::new);
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    private byte[] bytes;
+    private ByteBuffer heapBuffer;
+
+    private BufferPool() {
+    }
+
+    /**
+     * Returns the pool of the calling thread.
+     */
+    public static BufferPool get() {
+        return localPool.get();
+    }
+
+    public byte[] borrowBytes(int minSize) {
+        byte[] pooled = bytes;
+        if (pooled != null && pooled.length >= minSize) {
+            bytes = null;
+            hits.increment();
+            return pooled;
+        }
+        misses.increment();
+        return new byte[capacityFor(minSize)];
+    }
+
+    public void releaseBytes(byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_SIZE && (bytes == null || bytes.length < buffer.length)) {
+            bytes = buffer;
+        }
+    }
+
+    public ByteBuffer borrowHeapBuffer(int minSize) {
+        ByteBuffer pooled = heapBuffer;
+        if (pooled != null && pooled.capacity() >= minSize) {
+            heapBuffer = null;
+            hits.increment();
+            pooled.clear();
+            return pooled;
+        }
+        misses.increment();
+        return ByteBuffer.allocate(capacityFor(minSize));
+    }
+
+    public void releaseBuffer(ByteBuffer buffer) {
+        if (!buffer.isDirect() && buffer.capacity() <= MAX_POOLED_SIZE
+                && (heapBuffer == null || heapBuffer.capacity() < buffer.capacity())) {
+            heapBuffer = buffer;
+        }
+    }
+
+    /**
+     * Number of borrow requests served from a pooled buffer, summed over all threads.
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of borrow requests which required a new allocation, summed over all threads.
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    public static double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public static void resetMetrics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private static int capacityFor(int minSize) {
+        if (minSize <= MIN_POOLED_SIZE) {
+            return MIN_POOLED_SIZE;
+        }
+        if (minSize > MAX_POOLED_SIZE) {
+            return minSize;
+        }
+        return Integer.highestOneBit(minSize - 1) << 1;
+    }
+}
@@ -0,0 +1,221 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster;
+
+import java.awt.image.Raster;
+import java.util.Arrays;
+
+/**
+ * Statistics of the samples of one band, accumulated in a single pass. No-data, NaN and infinite samples are only
+ * counted as no-data.
+ * The histogram has at most {@link #HISTOGRAM_BINS} bins whose width is a power of two; the width is doubled
+ * whenever the samples no longer fit, so the counts stay exact and statistics of tiles can be merged.
+ */
+public final class BandStatistics {
+    public static final int HISTOGRAM_BINS = 256;
+    private static final int INITIAL_BIN_EXPONENT = -40;
+
+    private final double noData;
+    private final int minExponent;
+    private long count;
+    private long noDataCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    private double m2;
+    private int exponent;
+    private long firstBin;
+    private long[] histogram = new long[HISTOGRAM_BINS];
+
+    /**
+     * Creates empty statistics. Integral bands never get bins narrower than one; the no-data value is NaN for bands
+     * without no-data.
+     */
+    public BandStatistics(boolean integral, double noData) {
+        this.noData = noData;
+        this.minExponent = integral ? 0 : Double.MIN_EXPONENT + INITIAL_BIN_EXPONENT;
+    }
+
+    /**
+     * Restores statistics as stored in a raster header.
+     */
+    public static BandStatistics of(long count, long noDataCount, double min, double max, double mean, double stdDev,
+                                    double histogramMin, double histogramBinWidth, long[] histogram) {
+        BandStatistics statistics = new BandStatistics(false, Double.NaN);
+        statistics.count = count;
+        statistics.noDataCount = noDataCount;
+        if (count > 0) {
+            statistics.min = min;
+            statistics.max = max;
+            statistics.mean = mean;
+            statistics.m2 = stdDev * stdDev * count;
+            statistics.exponent = Math.getExponent(histogramBinWidth);
+            statistics.firstBin = Math.round(histogramMin / histogramBinWidth);
+            System.arraycopy(histogram, 0, statistics.histogram, 0, Math.min(histogram.length, HISTOGRAM_BINS));
+        }
+        return statistics;
+    }
+
+    public void add(double sample) {
+        if (Double.isNaN(sample) || Double.isInfinite(sample) || sample == noData) {
+            noDataCount++;
+            return;
+        }
+        if (count == 0) {
+            int sampleExponent = sample == 0 ? 0 : Math.getExponent(sample);
+            exponent = Math.max(minExponent, sampleExponent + INITIAL_BIN_EXPONENT);
+            firstBin = bin(sample);
+        }
+        count++;
+        double delta = sample - mean;
+        mean += delta / count;
+        m2 += delta * (sample - mean);
+        if (sample < min || sample > max) {
+            fit(Math.min(min, sample), Math.max(max, sample));
+            min = Math.min(min, sample);
+            max = Math.max(max, sample);
+        }
+        histogram[(int) (bin(sample) - firstBin)]++;
+    }
+
+    /**
+     * Adds the samples of one band of the raster.
+     */
+    public void add(Raster raster, int band) {
+        double[] row = new double[raster.getWidth()];
+        for (int y = 0; y < raster.getHeight(); y++) {
+            raster.getSamples(raster.getMinX(), raster.getMinY() + y, raster.getWidth(), 1, band, row);
+            for (double sample : row) {
+                add(sample);
+            }
+        }
+    }
+
+    /**
+     * Adds the samples counted by other statistics of the same band.
+     */
+    public void merge(BandStatistics other) {
+        noDataCount += other.noDataCount;
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            exponent = other.exponent;
+            firstBin = other.firstBin;
+        }
+        while (exponent < other.exponent) {
+            coarsen();
+        }
+        fit(Math.min(min, other.min), Math.max(max, other.max));
+        for (int i = 0; i < HISTOGRAM_BINS; i++) {
+            if (other.histogram[i] != 0) {
+                histogram[(int) (bin(Math.scalb((double) (other.firstBin + i), other.exponent)) - firstBin)] += other.histogram[i];
+            }
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private long bin(double sample) {
+        return (long) Math.floor(Math.scalb(sample, -exponent));
+    }
+
+    private void fit(double newMin, double newMax) {
+        while (Math.floor(Math.scalb(newMax, -exponent)) - Math.floor(Math.scalb(newMin, -exponent)) >= HISTOGRAM_BINS) {
+            coarsen();
+        }
+        long start = bin(newMin);
+        if (start < firstBin) {
+            int shift = (int) (firstBin - start);
+            System.arraycopy(histogram, 0, histogram, shift, HISTOGRAM_BINS - shift);
+            Arrays.fill(histogram, 0, shift, 0);
+            firstBin = start;
+        } else if (bin(newMax) >= firstBin + HISTOGRAM_BINS) {
+            int shift = (int) (bin(newMax) - firstBin - HISTOGRAM_BINS + 1);
+            System.arraycopy(histogram, shift, histogram, 0, HISTOGRAM_BINS - shift);
+            Arrays.fill(histogram, HISTOGRAM_BINS - shift, HISTOGRAM_BINS, 0);
+            firstBin += shift;
+        }
+    }
+
+    private void coarsen() {
+        long[] coarse = new long[HISTOGRAM_BINS];
+        long coarseFirstBin = Math.floorDiv(firstBin, 2);
+        for (int i = 0; i < HISTOGRAM_BINS; i++) {
+            coarse[(int) (Math.floorDiv(firstBin + i, 2) - coarseFirstBin)] += histogram[i];
+        }
+        histogram = coarse;
+        firstBin = coarseFirstBin;
+        exponent++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNoDataCount() {
+        return noDataCount;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Returns the population standard deviation of the valid samples.
+     */
+    public double getStdDev() {
+        return count == 0 ? Double.NaN : Math.sqrt(m2 / count);
+    }
+
+    /**
+     * Returns the lower bound of the first histogram bin, the bin of the minimum.
+     */
+    public double getHistogramMin() {
+        return count == 0 ? 0 : Math.scalb((double) bin(min), exponent);
+    }
+
+    public double getHistogramBinWidth() {
+        return count == 0 ? 0 : Math.scalb(1.0, exponent);
+    }
+
+    /**
+     * Returns the histogram counts from the bin of the minimum to the bin of the maximum.
+     */
+    public long[] getHistogram() {
+        if (count == 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(histogram, (int) (bin(min) - firstBin), (int) (bin(max) - firstBin) + 1);
+    }
+}
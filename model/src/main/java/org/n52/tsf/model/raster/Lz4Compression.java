@@ -0,0 +1,51 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * LZ4 block compression, kept apart so lz4-java is only loaded when LZ4 is used.
+ */
+final class Lz4Compression {
+    private static final LZ4Factory factory = LZ4Factory.fastestInstance();
+
+    private Lz4Compression() {
+    }
+
+    static byte[] compress(byte[] data) {
+        return factory.fastCompressor().compress(data);
+    }
+
+    static byte[] decompress(byte[] data, int offset, int length, int decompressedLength) {
+        byte[] decompressed = new byte[decompressedLength];
+        int size;
+        try {
+            size = factory.safeDecompressor().decompress(data, offset, length, decompressed, 0, decompressedLength);
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("Invalid lz4 tile", e);
+        }
+        if (size != decompressedLength) {
+            throw new IllegalArgumentException("Invalid lz4 tile: " + size + " of " + decompressedLength + " bytes");
+        }
+        return decompressed;
+    }
+}
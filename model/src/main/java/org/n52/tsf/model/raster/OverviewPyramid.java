@@ -0,0 +1,152 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster;
+
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+/**
+ * Builds the overview levels of a raster from strips of its full resolution rows, added top to bottom while the full
+ * resolution is written. Every level reduces the rows of the previous level as they arrive with
+ * {@link Overviews#reduce(Raster, Resampling, double[])} and hands them on as tile rows, so each level holds at most
+ * one tile row and one unpaired row of the previous level. The levels equal the reductions of the whole raster.
+ */
+public final class OverviewPyramid {
+
+    /**
+     * Receives the tile rows of the overview levels, level 1 being the first overview, in row order within a level.
+     * The raster starts at (0, 0) and is reused once the call returns.
+     */
+    public interface TileRowSink {
+        void accept(int level, int row, Raster tileRow) throws IOException;
+    }
+
+    private final Level[] levels;
+    private final int tileHeight;
+    private final Resampling resampling;
+    private final double[] noData;
+    private final TileRowSink sink;
+
+    public OverviewPyramid(int width, int height, int levelCount, int tileHeight, Resampling resampling,
+                           double[] noData, TileRowSink sink) {
+        if (tileHeight <= 0) {
+            throw new IllegalArgumentException("Invalid tile height " + tileHeight);
+        }
+        levels = new Level[levelCount];
+        for (int i = 0; i < levelCount; i++) {
+            levels[i] = new Level(Overviews.levelSize(width, i + 1), Overviews.levelSize(height, i + 1));
+        }
+        this.tileHeight = tileHeight;
+        this.resampling = resampling;
+        this.noData = noData;
+        this.sink = sink;
+    }
+
+    /**
+     * Adds the next full resolution rows, which span the whole width of the raster.
+     */
+    public void add(Raster strip) throws IOException {
+        if (levels.length > 0) {
+            add(0, strip);
+        }
+    }
+
+    /**
+     * Reduces the last unpaired rows and hands on the last tile row of every level. Call after all rows were added.
+     */
+    public void finish() throws IOException {
+        for (int i = 0; i < levels.length; i++) {
+            Level level = levels[i];
+            if (level.unpaired != null) {
+                append(i, Overviews.reduce(level.unpaired, resampling, noData));
+                level.unpaired = null;
+            }
+            if (level.filled > 0) {
+                sink.accept(i + 1, level.row++, level.tileRow.createChild(0, 0, level.width, level.filled, 0, 0, null));
+                level.filled = 0;
+            }
+        }
+    }
+
+    /**
+     * Reduces the rows of the previous level into the given level, keeping a last row without pair for the next call.
+     */
+    private void add(int index, Raster rows) throws IOException {
+        Level level = levels[index];
+        Raster source = rows;
+        if (level.unpaired != null) {
+            WritableRaster joined = rows.createCompatibleWritableRaster(rows.getWidth(), rows.getHeight() + 1);
+            joined.setRect(-level.unpaired.getMinX(), -level.unpaired.getMinY(), level.unpaired);
+            joined.setRect(-rows.getMinX(), 1 - rows.getMinY(), rows);
+            source = joined;
+            level.unpaired = null;
+        }
+        int paired = source.getHeight() & ~1;
+        if (paired < source.getHeight()) {
+            // copied, so that the unpaired row does not keep the whole strip alive
+            WritableRaster unpaired = source.createCompatibleWritableRaster(source.getWidth(), 1);
+            unpaired.setRect(-source.getMinX(), -(source.getMinY() + paired), source);
+            level.unpaired = unpaired;
+        }
+        if (paired > 0) {
+            append(index, Overviews.reduce(source.createChild(source.getMinX(), source.getMinY(), source.getWidth(),
+                    paired, source.getMinX(), source.getMinY(), null), resampling, noData));
+        }
+    }
+
+    /**
+     * Appends reduced rows to the tile row of a level, handing it on whenever it is full, and adds them to the next
+     * level.
+     */
+    private void append(int index, WritableRaster reduced) throws IOException {
+        Level level = levels[index];
+        if (level.tileRow == null) {
+            level.tileRow = reduced.createCompatibleWritableRaster(level.width, Math.min(tileHeight, level.height));
+        }
+        for (int y = 0; y < reduced.getHeight(); ) {
+            int count = Math.min(reduced.getHeight() - y, level.tileRow.getHeight() - level.filled);
+            level.tileRow.setRect(0, level.filled - y, reduced.createChild(0, y, level.width, count, 0, y, null));
+            level.filled += count;
+            y += count;
+            if (level.filled == level.tileRow.getHeight()) {
+                sink.accept(index + 1, level.row++, level.tileRow);
+                level.filled = 0;
+            }
+        }
+        if (index + 1 < levels.length) {
+            add(index + 1, reduced);
+        }
+    }
+
+    private static final class Level {
+        private final int width;
+        private final int height;
+        private WritableRaster tileRow;
+        private int filled;
+        private int row;
+        private Raster unpaired;
+
+        private Level(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
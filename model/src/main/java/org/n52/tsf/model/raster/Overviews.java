@@ -0,0 +1,98 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * Builds reduced resolution overview levels of a raster. Each level halves the width and height of the previous
+ * one, rounding up, so level n has about 1 / 2^n of the resolution of the full raster.
+ */
+public final class Overviews {
+
+    private Overviews() {
+    }
+
+    /**
+     * Returns the size of a dimension of the full raster at the given overview level.
+     */
+    public static int levelSize(int size, int level) {
+        return (int) ((size + (1L << level) - 1) >> level);
+    }
+
+    /**
+     * Reduces the raster to half its width and height. The reduced raster has the same sample model type and starts
+     * at (0, 0). The no-data array holds one value per band, NaN for bands without no-data. A block without any
+     * valid sample takes the no-data value of its band, which on an integral raster is only the case for a band that
+     * has a no-data value, since its samples cannot be NaN.
+     */
+    public static WritableRaster reduce(Raster source, Resampling resampling, double[] noData) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int reducedWidth = levelSize(width, 1);
+        int reducedHeight = levelSize(height, 1);
+        WritableRaster reduced = source.createCompatibleWritableRaster(reducedWidth, reducedHeight);
+        boolean integral = source.getTransferType() != DataBuffer.TYPE_FLOAT
+                && source.getTransferType() != DataBuffer.TYPE_DOUBLE;
+        double[] upper = new double[width];
+        double[] lower = new double[width];
+        double[] row = new double[reducedWidth];
+        for (int band = 0; band < source.getNumBands(); band++) {
+            double bandNoData = noData[band];
+            boolean hasNoData = !Double.isNaN(bandNoData);
+            for (int y = 0; y < reducedHeight; y++) {
+                source.getSamples(source.getMinX(), source.getMinY() + 2 * y, width, 1, band, upper);
+                boolean hasLower = 2 * y + 1 < height && resampling == Resampling.AVERAGE;
+                if (hasLower) {
+                    source.getSamples(source.getMinX(), source.getMinY() + 2 * y + 1, width, 1, band, lower);
+                }
+                for (int x = 0; x < reducedWidth; x++) {
+                    if (resampling == Resampling.NEAREST) {
+                        row[x] = upper[2 * x];
+                        continue;
+                    }
+                    boolean hasRight = 2 * x + 1 < width;
+                    double sum = 0;
+                    int count = 0;
+                    for (int i = 0; i < 4; i++) {
+                        if ((i & 1) == 1 && !hasRight || i >= 2 && !hasLower) {
+                            continue;
+                        }
+                        double sample = (i < 2 ? upper : lower)[2 * x + (i & 1)];
+                        if (!Double.isNaN(sample) && !(hasNoData && sample == bandNoData)) {
+                            sum += sample;
+                            count++;
+                        }
+                    }
+                    if (count == 0) {
+                        // an integral raster would store NaN as 0, so it keeps a sample where it has no no-data
+                        row[x] = hasNoData || !integral ? bandNoData : upper[2 * x];
+                    } else {
+                        row[x] = integral ? Math.round(sum / count) : sum / count;
+                    }
+                }
+                reduced.setSamples(0, y, reducedWidth, 1, band, row);
+            }
+        }
+        return reduced;
+    }
+}
@@ -0,0 +1,339 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster;
+
+import javax.media.jai.TiledImage;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Packs the samples of a raster band into a little endian array of the band's data type and back. Samples are
+ * copied row by row through primitive arrays, so no sample is boxed and no full size intermediate array is
+ * allocated. The data type names match the {@code DataType} enums of the coverage schemas, which list the
+ * {@link DataBuffer} types in the same order.
+ */
+public final class RasterBands {
+    private static final String[] DATA_TYPE_NAMES = {"BYTE", "USHORT", "SHORT", "INT", "FLOAT", "DOUBLE"};
+
+    private RasterBands() {
+    }
+
+    /**
+     * Returns the schema name of a {@link DataBuffer} type.
+     */
+    public static String dataTypeName(int dataType) {
+        if (dataType < 0 || dataType >= DATA_TYPE_NAMES.length) {
+            throw new IllegalArgumentException("Unsupported raster data type " + dataType);
+        }
+        return DATA_TYPE_NAMES[dataType];
+    }
+
+    /**
+     * Returns the {@link DataBuffer} type of a schema data type name.
+     */
+    public static int dataType(String dataTypeName) {
+        for (int i = 0; i < DATA_TYPE_NAMES.length; i++) {
+            if (DATA_TYPE_NAMES[i].equals(dataTypeName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported raster data type " + dataTypeName);
+    }
+
+    /**
+     * Returns the schema name of the layout of a sample model.
+     */
+    public static String sampleModelTypeName(SampleModel sampleModel) {
+        if (sampleModel instanceof BandedSampleModel) {
+            return "BANDED";
+        } else if (sampleModel instanceof PixelInterleavedSampleModel) {
+            return "PIXEL_INTERLEAVED";
+        } else if (sampleModel instanceof ComponentSampleModel) {
+            return "COMPONENT";
+        } else if (sampleModel instanceof SinglePixelPackedSampleModel) {
+            return "SINGLE_PIXEL_PACKED";
+        } else if (sampleModel instanceof MultiPixelPackedSampleModel) {
+            return "MULTI_PIXEL_PACKED";
+        }
+        return "PIXEL_INTERLEAVED";
+    }
+
+    public static int bytesPerSample(int dataType) {
+        return DataBuffer.getDataTypeSize(dataType) / 8;
+    }
+
+    /**
+     * Packs one band of the raster into a little endian array of its data type, in row major order.
+     */
+    public static byte[] pack(Raster raster, int band) {
+        return pack(raster, band, null);
+    }
+
+    /**
+     * Packs one band of the raster like {@link #pack(Raster, int)} and adds its samples to the statistics, unless
+     * they are null, in the same pass.
+     */
+    public static byte[] pack(Raster raster, int band, BandStatistics statistics) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int dataType = raster.getTransferType();
+        ByteBuffer samples = ByteBuffer.allocate(width * height * bytesPerSample(dataType)).order(ByteOrder.LITTLE_ENDIAN);
+        int minX = raster.getMinX();
+        int minY = raster.getMinY();
+        switch (dataType) {
+            case DataBuffer.TYPE_FLOAT: {
+                float[] row = new float[width];
+                for (int y = 0; y < height; y++) {
+                    raster.getSamples(minX, minY + y, width, 1, band, row);
+                    for (float sample : row) {
+                        samples.putFloat(sample);
+                        if (statistics != null) {
+                            statistics.add(sample);
+                        }
+                    }
+                }
+                break;
+            }
+            case DataBuffer.TYPE_DOUBLE: {
+                double[] row = new double[width];
+                for (int y = 0; y < height; y++) {
+                    raster.getSamples(minX, minY + y, width, 1, band, row);
+                    for (double sample : row) {
+                        samples.putDouble(sample);
+                        if (statistics != null) {
+                            statistics.add(sample);
+                        }
+                    }
+                }
+                break;
+            }
+            default: {
+                int[] row = new int[width];
+                for (int y = 0; y < height; y++) {
+                    raster.getSamples(minX, minY + y, width, 1, band, row);
+                    putIntSamples(samples, row, dataType);
+                    if (statistics != null) {
+                        for (int sample : row) {
+                            statistics.add(sample);
+                        }
+                    }
+                }
+            }
+        }
+        return samples.array();
+    }
+
+    private static void putIntSamples(ByteBuffer samples, int[] row, int dataType) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+                for (int sample : row) {
+                    samples.put((byte) sample);
+                }
+                break;
+            case DataBuffer.TYPE_USHORT:
+            case DataBuffer.TYPE_SHORT:
+                for (int sample : row) {
+                    samples.putShort((short) sample);
+                }
+                break;
+            default:
+                for (int sample : row) {
+                    samples.putInt(sample);
+                }
+        }
+    }
+
+    /**
+     * Writes the packed samples of one band, as produced by {@link #pack(Raster, int)}, into the raster.
+     */
+    public static void unpack(ByteBuffer packedSamples, WritableRaster raster, int band) {
+        ByteBuffer samples = packedSamples.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int dataType = raster.getTransferType();
+        if (samples.remaining() < width * height * bytesPerSample(dataType)) {
+            throw new IllegalArgumentException("Band " + band + " holds " + samples.remaining()
+                    + " bytes, expected " + width * height * bytesPerSample(dataType));
+        }
+        int minX = raster.getMinX();
+        int minY = raster.getMinY();
+        switch (dataType) {
+            case DataBuffer.TYPE_FLOAT: {
+                float[] row = new float[width];
+                for (int y = 0; y < height; y++) {
+                    samples.asFloatBuffer().get(row);
+                    samples.position(samples.position() + width * 4);
+                    raster.setSamples(minX, minY + y, width, 1, band, row);
+                }
+                break;
+            }
+            case DataBuffer.TYPE_DOUBLE: {
+                double[] row = new double[width];
+                for (int y = 0; y < height; y++) {
+                    samples.asDoubleBuffer().get(row);
+                    samples.position(samples.position() + width * 8);
+                    raster.setSamples(minX, minY + y, width, 1, band, row);
+                }
+                break;
+            }
+            default: {
+                int[] row = new int[width];
+                for (int y = 0; y < height; y++) {
+                    getIntSamples(samples, row, dataType);
+                    raster.setSamples(minX, minY + y, width, 1, band, row);
+                }
+            }
+        }
+    }
+
+    private static void getIntSamples(ByteBuffer samples, int[] row, int dataType) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = samples.get() & 0xFF;
+                }
+                break;
+            case DataBuffer.TYPE_USHORT:
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = samples.getShort() & 0xFFFF;
+                }
+                break;
+            case DataBuffer.TYPE_SHORT:
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = samples.getShort();
+                }
+                break;
+            default:
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = samples.getInt();
+                }
+        }
+    }
+
+    /**
+     * Returns the raster of an image. A single tile covering the whole image is returned as is, otherwise the tiles
+     * are copied into one raster.
+     */
+    public static Raster getRaster(RenderedImage image) {
+        if (image.getNumXTiles() == 1 && image.getNumYTiles() == 1) {
+            Raster tile = image.getTile(image.getMinTileX(), image.getMinTileY());
+            if (tile.getBounds().equals(new Rectangle(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight()))) {
+                return tile;
+            }
+        }
+        return image.getData();
+    }
+
+    /**
+     * Creates the sample model for decoded samples. Banded layouts are kept, every other layout, including the packed
+     * ones whose samples are unpacked by {@link #pack(Raster, int)}, is decoded pixel interleaved.
+     */
+    public static SampleModel createSampleModel(int dataType, int width, int height, int numBands, String sampleModelType) {
+        if ("BANDED".equals(sampleModelType)) {
+            return new BandedSampleModel(dataType, width, height, numBands);
+        }
+        int[] bandOffsets = new int[numBands];
+        for (int i = 0; i < numBands; i++) {
+            bandOffsets[i] = i;
+        }
+        return new PixelInterleavedSampleModel(dataType, width, height, numBands, width * numBands, bandOffsets);
+    }
+
+    /**
+     * Creates a single tile image for decoded samples, which are written into its tile by {@link #unpack}.
+     */
+    public static TiledImage createImage(SampleModel sampleModel) {
+        return createImage(sampleModel, sampleModel.getWidth(), sampleModel.getHeight());
+    }
+
+    /**
+     * Creates a width x height image whose tiles have the size of the given sample model.
+     */
+    public static TiledImage createImage(SampleModel tileSampleModel, int width, int height) {
+        return new TiledImage(0, 0, width, height, 0, 0, tileSampleModel, createColorModel(tileSampleModel));
+    }
+
+    /**
+     * Creates an image covering the given bounds whose tiles have the size of the given sample model. The tile grid
+     * starts at 0, 0, so tile column and row indices are those of an image created for the whole grid.
+     */
+    public static TiledImage createImage(SampleModel tileSampleModel, Rectangle bounds) {
+        return new TiledImage(bounds.x, bounds.y, bounds.width, bounds.height, 0, 0, tileSampleModel,
+                createColorModel(tileSampleModel));
+    }
+
+    /**
+     * Writes the packed bands of one tile into the image. Tiles at the right and bottom edge may be smaller than
+     * the tile size of the image. Distinct tiles of the same image can be unpacked concurrently.
+     */
+    public static void unpackTile(TiledImage image, int column, int row, int width, int height, List<ByteBuffer> bands) {
+        WritableRaster tile;
+        synchronized (image) {
+            tile = image.getWritableTile(column, row);
+        }
+        try {
+            WritableRaster raster = width == tile.getWidth() && height == tile.getHeight() ? tile
+                    : tile.createWritableChild(tile.getMinX(), tile.getMinY(), width, height, tile.getMinX(), tile.getMinY(), null);
+            for (int i = 0; i < bands.size(); i++) {
+                unpack(bands.get(i), raster, i);
+            }
+        } finally {
+            synchronized (image) {
+                image.releaseWritableTile(column, row);
+            }
+        }
+    }
+
+    /**
+     * Creates a component color model for gray, RGB and RGBA rasters, returns null for other band counts.
+     */
+    public static ColorModel createColorModel(SampleModel sampleModel) {
+        int numBands = sampleModel.getNumBands();
+        ColorSpace colorSpace;
+        boolean hasAlpha = false;
+        if (numBands == 1) {
+            colorSpace = ColorSpace.getInstance(ColorSpace.CS_GRAY);
+        } else if (numBands == 3 || numBands == 4) {
+            colorSpace = ColorSpace.getInstance(ColorSpace.CS_sRGB);
+            hasAlpha = numBands == 4;
+        } else {
+            return null;
+        }
+        return new ComponentColorModel(colorSpace, hasAlpha, false,
+                hasAlpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE, sampleModel.getDataType());
+    }
+}
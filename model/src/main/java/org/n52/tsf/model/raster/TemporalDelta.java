@@ -0,0 +1,112 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster;
+
+import java.awt.image.DataBuffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Differences the packed samples of a band, as produced by {@link RasterBands#pack}, against the packed samples of
+ * the same band at the previous time step of a series and back. Integer samples are subtracted with wrap around at
+ * their width and floating point samples are xor-ed bit by bit, so both directions are lossless and every sample
+ * that did not change between the steps becomes zero.
+ */
+public final class TemporalDelta {
+
+    private TemporalDelta() {
+    }
+
+    /**
+     * Returns the delta of the samples against the previous samples, neither array is modified.
+     */
+    public static byte[] encode(byte[] samples, byte[] previous, int dataType) {
+        checkLength(samples.length, previous);
+        byte[] delta = new byte[samples.length];
+        ByteBuffer current = ByteBuffer.wrap(samples).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer reference = ByteBuffer.wrap(previous).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer output = ByteBuffer.wrap(delta).order(ByteOrder.LITTLE_ENDIAN);
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] = (byte) (samples[i] - previous[i]);
+                }
+                break;
+            case DataBuffer.TYPE_USHORT:
+            case DataBuffer.TYPE_SHORT:
+                for (int i = 0; i < delta.length; i += 2) {
+                    output.putShort(i, (short) (current.getShort(i) - reference.getShort(i)));
+                }
+                break;
+            case DataBuffer.TYPE_INT:
+                for (int i = 0; i < delta.length; i += 4) {
+                    output.putInt(i, current.getInt(i) - reference.getInt(i));
+                }
+                break;
+            default:
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] = (byte) (samples[i] ^ previous[i]);
+                }
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the samples restored from their delta against the previous samples, the previous array is not modified.
+     */
+    public static byte[] decode(ByteBuffer delta, byte[] previous, int dataType) {
+        checkLength(delta.remaining(), previous);
+        byte[] samples = new byte[previous.length];
+        delta.duplicate().get(samples);
+        ByteBuffer output = ByteBuffer.wrap(samples).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer reference = ByteBuffer.wrap(previous).order(ByteOrder.LITTLE_ENDIAN);
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] += previous[i];
+                }
+                break;
+            case DataBuffer.TYPE_USHORT:
+            case DataBuffer.TYPE_SHORT:
+                for (int i = 0; i < samples.length; i += 2) {
+                    output.putShort(i, (short) (output.getShort(i) + reference.getShort(i)));
+                }
+                break;
+            case DataBuffer.TYPE_INT:
+                for (int i = 0; i < samples.length; i += 4) {
+                    output.putInt(i, output.getInt(i) + reference.getInt(i));
+                }
+                break;
+            default:
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] ^= previous[i];
+                }
+        }
+        return samples;
+    }
+
+    private static void checkLength(int length, byte[] previous) {
+        if (length != previous.length) {
+            throw new IllegalArgumentException("Samples of " + length + " bytes do not match the previous step of "
+                    + previous.length + " bytes");
+        }
+    }
+}
@@ -0,0 +1,273 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster;
+
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes the packed samples of one tile band, as produced by {@link RasterBands#pack}, with a predictor followed
+ * by a compression, and decodes them back. Instances are immutable and can be shared between threads.
+ */
+public final class TileCodec {
+    public static final TileCodec NONE = new TileCodec(Predictor.NONE, Compression.NONE);
+
+    private final Predictor predictor;
+    private final Compression compression;
+
+    public TileCodec(Predictor predictor, Compression compression) {
+        this.predictor = predictor;
+        this.compression = compression;
+    }
+
+    public Predictor getPredictor() {
+        return predictor;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Encodes the packed samples of a width x height band. The samples array is modified by the predictor.
+     */
+    public byte[] encode(byte[] samples, int dataType, int width, int height) throws IOException {
+        int bytesPerSample = RasterBands.bytesPerSample(dataType);
+        switch (predictor) {
+            case HORIZONTAL:
+                if (dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE) {
+                    throw new IllegalArgumentException("The horizontal predictor needs an integer data type");
+                }
+                differenceSamples(samples, bytesPerSample, width, height);
+                break;
+            case FLOATING_POINT:
+                differenceBytePlanes(samples, bytesPerSample, width, height);
+                break;
+            default:
+        }
+        switch (compression) {
+            case DEFLATE:
+                return deflate(samples);
+            case LZ4:
+                try {
+                    return Lz4Compression.compress(samples);
+                } catch (LinkageError e) {
+                    throw missingDependency(e);
+                }
+            case ZSTD:
+                try {
+                    return ZstdCompression.compress(samples);
+                } catch (LinkageError e) {
+                    throw missingDependency(e);
+                }
+            default:
+                return samples;
+        }
+    }
+
+    /**
+     * Decodes an encoded width x height band into packed samples. The encoded buffer is not modified.
+     */
+    public ByteBuffer decode(ByteBuffer encoded, int dataType, int width, int height) throws IOException {
+        if (predictor == Predictor.NONE && compression == Compression.NONE) {
+            return encoded;
+        }
+        int bytesPerSample = RasterBands.bytesPerSample(dataType);
+        int length = width * height * bytesPerSample;
+        byte[] data;
+        int offset;
+        if (encoded.hasArray()) {
+            data = encoded.array();
+            offset = encoded.arrayOffset() + encoded.position();
+        } else {
+            data = new byte[encoded.remaining()];
+            encoded.duplicate().get(data);
+            offset = 0;
+        }
+        byte[] samples;
+        switch (compression) {
+            case DEFLATE:
+                samples = inflate(data, offset, encoded.remaining(), length);
+                break;
+            case LZ4:
+                try {
+                    samples = Lz4Compression.decompress(data, offset, encoded.remaining(), length);
+                } catch (LinkageError e) {
+                    throw missingDependency(e);
+                }
+                break;
+            case ZSTD:
+                try {
+                    samples = ZstdCompression.decompress(data, offset, encoded.remaining(), length);
+                } catch (LinkageError e) {
+                    throw missingDependency(e);
+                }
+                break;
+            default:
+                samples = new byte[encoded.remaining()];
+                System.arraycopy(data, offset, samples, 0, samples.length);
+        }
+        switch (predictor) {
+            case HORIZONTAL:
+                accumulateSamples(samples, bytesPerSample, width, height);
+                break;
+            case FLOATING_POINT:
+                accumulateBytePlanes(samples, bytesPerSample, width, height);
+                break;
+            default:
+        }
+        return ByteBuffer.wrap(samples);
+    }
+
+    /**
+     * LZ4 and zstd are optional dependencies; a codec using one that is not on the class path fails with this error
+     * rather than with the linkage error.
+     */
+    private IOException missingDependency(LinkageError e) {
+        String dependency = compression == Compression.LZ4 ? "org.lz4:lz4-java" : "com.github.luben:zstd-jni";
+        return new IOException(compression + " compression needs the optional " + dependency + " dependency", e);
+    }
+
+    private static void differenceSamples(byte[] samples, int bytesPerSample, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(samples).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < height; y++) {
+            int row = y * width * bytesPerSample;
+            for (int x = width - 1; x > 0; x--) {
+                int index = row + x * bytesPerSample;
+                switch (bytesPerSample) {
+                    case 1:
+                        samples[index] -= samples[index - 1];
+                        break;
+                    case 2:
+                        buffer.putShort(index, (short) (buffer.getShort(index) - buffer.getShort(index - 2)));
+                        break;
+                    default:
+                        buffer.putInt(index, buffer.getInt(index) - buffer.getInt(index - 4));
+                }
+            }
+        }
+    }
+
+    private static void accumulateSamples(byte[] samples, int bytesPerSample, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(samples).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < height; y++) {
+            int row = y * width * bytesPerSample;
+            for (int x = 1; x < width; x++) {
+                int index = row + x * bytesPerSample;
+                switch (bytesPerSample) {
+                    case 1:
+                        samples[index] += samples[index - 1];
+                        break;
+                    case 2:
+                        buffer.putShort(index, (short) (buffer.getShort(index) + buffer.getShort(index - 2)));
+                        break;
+                    default:
+                        buffer.putInt(index, buffer.getInt(index) + buffer.getInt(index - 4));
+                }
+            }
+        }
+    }
+
+    private static void differenceBytePlanes(byte[] samples, int bytesPerSample, int width, int height) {
+        int rowBytes = width * bytesPerSample;
+        byte[] planes = new byte[rowBytes];
+        for (int y = 0; y < height; y++) {
+            int row = y * rowBytes;
+            for (int x = 0; x < width; x++) {
+                for (int b = 0; b < bytesPerSample; b++) {
+                    planes[b * width + x] = samples[row + x * bytesPerSample + bytesPerSample - 1 - b];
+                }
+            }
+            for (int i = rowBytes - 1; i > 0; i--) {
+                planes[i] -= planes[i - 1];
+            }
+            System.arraycopy(planes, 0, samples, row, rowBytes);
+        }
+    }
+
+    private static void accumulateBytePlanes(byte[] samples, int bytesPerSample, int width, int height) {
+        int rowBytes = width * bytesPerSample;
+        byte[] planes = new byte[rowBytes];
+        for (int y = 0; y < height; y++) {
+            int row = y * rowBytes;
+            System.arraycopy(samples, row, planes, 0, rowBytes);
+            for (int i = 1; i < rowBytes; i++) {
+                planes[i] += planes[i - 1];
+            }
+            for (int x = 0; x < width; x++) {
+                for (int b = 0; b < bytesPerSample; b++) {
+                    samples[row + x * bytesPerSample + bytesPerSample - 1 - b] = planes[b * width + x];
+                }
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length, int inflatedLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] inflated = new byte[inflatedLength];
+            int position = 0;
+            while (position < inflatedLength && !inflater.finished()) {
+                int count = inflater.inflate(inflated, position, inflatedLength - position);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated deflate tile");
+                }
+                position += count;
+            }
+            if (position < inflatedLength) {
+                throw new IOException("Truncated deflate tile: " + position + " of " + inflatedLength + " bytes");
+            }
+            if (!inflater.finished() && inflater.inflate(new byte[1]) == 0 && !inflater.finished()) {
+                throw new IOException("Truncated deflate tile: the stream does not end");
+            }
+            if (!inflater.finished() || inflater.getRemaining() > 0) {
+                throw new IOException("Invalid deflate tile: more than " + inflatedLength + " bytes");
+            }
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
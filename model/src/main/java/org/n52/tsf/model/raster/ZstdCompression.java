@@ -0,0 +1,48 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Zstandard compression, kept apart so zstd-jni is only loaded when zstd is used.
+ */
+final class ZstdCompression {
+    private static final int LEVEL = 3;
+
+    private ZstdCompression() {
+    }
+
+    static byte[] compress(byte[] data) {
+        return Zstd.compress(data, LEVEL);
+    }
+
+    static byte[] decompress(byte[] data, int offset, int length, int decompressedLength) {
+        byte[] decompressed = new byte[decompressedLength];
+        long size = Zstd.decompressByteArray(decompressed, 0, decompressedLength, data, offset, length);
+        if (Zstd.isError(size)) {
+            throw new IllegalArgumentException("Invalid zstd tile: " + Zstd.getErrorName(size));
+        }
+        if (size != decompressedLength) {
+            throw new IllegalArgumentException("Invalid zstd tile: " + size + " of " + decompressedLength + " bytes");
+        }
+        return decompressed;
+    }
+}
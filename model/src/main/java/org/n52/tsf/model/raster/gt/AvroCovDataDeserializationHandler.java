@@ -28,21 +28,57 @@ import org.geotools.geometry.GeneralEnvelope;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.operation.matrix.GeneralMatrix;
-import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.geotools.resources.coverage.CoverageUtilities;
+import org.n52.tsf.model.raster.BandStatistics;
+import org.n52.tsf.model.raster.RasterBands;
+import org.n52.tsf.model.raster.TemporalDelta;
+import org.n52.tsf.model.raster.TileCodec;
+import org.n52.tsf.model.raster.gt.beans.CoverageTimeStep;
 import org.n52.tsf.model.raster.gt.beans.GeoPoint;
+import org.n52.tsf.model.raster.gt.beans.GeoPointArray;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.operation.MathTransform;
 
+import javax.media.jai.TiledImage;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
  * This class provides the Geotools coverage data to ProtoBuf Deserialization functionality.
  */
 public class AvroCovDataDeserializationHandler {
+    private final Executor executor;
+    private final int parallelism;
+
+    public AvroCovDataDeserializationHandler() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a handler which decodes the tiles of tiled coverages on the given executor with at most parallelism
+     * tiles per worker in flight.
+     */
+    public AvroCovDataDeserializationHandler(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
 
     public GridCoverage2D deserialize(String covName, InputStream inputStream) throws Exception {
         DatumReader<org.n52.tsf.serialization.avro.gen.raster.Grid> datumReader =
@@ -52,24 +88,467 @@ public class AvroCovDataDeserializationHandler {
         if (dataFileReader.hasNext()) {
             avroGrid = dataFileReader.next();
         }
+        RenderedImage image;
+        if (!avroGrid.getBands().isEmpty()) {
+            List<ByteBuffer> bands = new ArrayList<>(avroGrid.getBands().size());
+            for (org.n52.tsf.serialization.avro.gen.raster.Band band : avroGrid.getBands()) {
+                bands.add(band.getSamples());
+            }
+            image = createImage(avroGrid, bands);
+        } else {
+            image = new BufferedImage(avroGrid.getMaxWidth(), avroGrid.getMaxHight(), avroGrid.getColorSpace());
+        }
+        return createCoverage(covName, avroGrid, image);
+    }
+
+    /**
+     * Deserializes the full resolution of a coverage written by {@link AvroCovDataSerializationHandler#serializeTiled}.
+     * Tile records are read one at a time, then decoded and unpacked into the matching tile of the coverage image on
+     * the executor. Records are not reused since their buffers are still in use by the decoder.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream) throws Exception {
+        DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader = openTiled(inputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readTiledHeader(dataFileReader);
+        return readLevel(covName, avroGrid, createEnvelope(avroGrid), 0, dataFileReader);
+    }
+
+    /**
+     * Deserializes the coarsest level of a tiled coverage whose resolution is at least the target resolution, given in
+     * units of the coverage CRS per pixel. The resolution of a level is the geometric mean of its pixel sizes along
+     * both axes. The full resolution is returned if no overview is fine enough. The blocks of the finer levels in front
+     * of it are skipped without decoding their records and those of coarser levels are not read.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream, double targetResolution) throws Exception {
+        DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader = openTiled(inputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readTiledHeader(dataFileReader);
+        GeneralEnvelope envelope = createEnvelope(avroGrid);
+        int level = 0;
+        for (int i = 0; i < avroGrid.getOverviews().size(); i++) {
+            org.n52.tsf.serialization.avro.gen.raster.Overview overview = avroGrid.getOverviews().get(i);
+            if (resolution(envelope, overview.getWidth(), overview.getHeight()) > targetResolution) {
+                break;
+            }
+            level = i + 1;
+        }
+        return readLevel(covName, avroGrid, envelope, level, dataFileReader);
+    }
+
+    /**
+     * Deserializes the part of the full resolution of a tiled coverage which covers the window. The window is given
+     * in world coordinates and transformed into the coverage CRS if it has a different CRS. Only the tile records
+     * which intersect the window are decoded and reading stops after the last of them. The returned coverage spans
+     * the pixels touched by the window, its image keeps their position in the full grid.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream, Envelope window) throws Exception {
+        DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader = openTiled(inputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readTiledHeader(dataFileReader);
+        Rectangle pixels = GridWindows.toPixels(window, createMathTransform(avroGrid), createCrs(avroGrid),
+                levelBounds(avroGrid, 0));
+        return readLevel(covName, avroGrid, createEnvelope(avroGrid, pixels), 0, pixels, dataFileReader);
+    }
+
+    /**
+     * Deserializes the part of the full resolution of a tiled coverage which covers the window, given in pixels of the
+     * full grid, like {@link #deserializeTiled(String, InputStream, Envelope)}.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream, Rectangle pixelWindow) throws Exception {
+        DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader = openTiled(inputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readTiledHeader(dataFileReader);
+        Rectangle pixels = GridWindows.clip(pixelWindow, levelBounds(avroGrid, 0));
+        return readLevel(covName, avroGrid, createEnvelope(avroGrid, pixels), 0, pixels, dataFileReader);
+    }
+
+    /**
+     * Deserializes the part of the full resolution of a tile store which covers the window, given in pixels of the full
+     * grid. Only the tiles which intersect the window are fetched from the store.
+     */
+    public GridCoverage2D deserializeTiled(String covName, AvroTileStore store, Rectangle pixelWindow) throws Exception {
+        return readWindow(covName, store, 0, GridWindows.clip(pixelWindow, levelBounds(store.getGrid(), 0)));
+    }
+
+    /**
+     * Deserializes a single tile of a tile store as a coverage of its pixels, level 0 being the full resolution and
+     * level n the n-th overview.
+     */
+    public GridCoverage2D deserializeTile(String covName, AvroTileStore store, int level, int column, int row) throws Exception {
+        if (level < 0 || level >= store.getLevelCount()) {
+            throw new IllegalArgumentException("No level " + level + " in the tile store");
+        }
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = store.getGrid();
+        Rectangle tile = new Rectangle(column * avroGrid.getTileWidth(), row * avroGrid.getTileHeight(), avroGrid.getTileWidth(),
+                avroGrid.getTileHeight());
+        return readWindow(covName, store, level, GridWindows.clip(tile, levelBounds(avroGrid, level)));
+    }
+
+    /**
+     * Deserializes all steps of a coverage series written by {@link AvroCovDataSerializationHandler#serializeSeries}.
+     * Each step is restored from the samples of the previous step and returned as a coverage of its own.
+     */
+    public List<CoverageTimeStep> deserializeSeries(String covName, InputStream inputStream) throws Exception {
+        DataFileStream<org.n52.tsf.serialization.avro.gen.raster.TimeStep> dataFileReader = openSeries(inputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readSeriesHeader(dataFileReader);
+        GeneralEnvelope envelope = createEnvelope(avroGrid);
+        List<CoverageTimeStep> steps = new ArrayList<>();
+        byte[][] samples = new byte[avroGrid.getBands().size()][];
+        org.n52.tsf.serialization.avro.gen.raster.TimeStep timeStep = null;
+        while (dataFileReader.hasNext()) {
+            timeStep = dataFileReader.next(timeStep);
+            decodeTimeStep(avroGrid, timeStep, samples);
+            steps.add(new CoverageTimeStep(timeStep.getTime(), createCoverage(covName, avroGrid, envelope,
+                    createImage(avroGrid, bands(samples)))));
+        }
+        return steps;
+    }
+
+    /**
+     * Deserializes a single step of a coverage series. The records before the keyframe preceding it are read but not
+     * decoded, only the keyframe and the deltas up to the step are.
+     */
+    public CoverageTimeStep deserializeSeries(String covName, InputStream inputStream, int step) throws Exception {
+        if (step < 0) {
+            throw new IllegalArgumentException("Invalid series step " + step);
+        }
+        DataFileStream<org.n52.tsf.serialization.avro.gen.raster.TimeStep> dataFileReader = openSeries(inputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readSeriesHeader(dataFileReader);
+        int keyframe = step - step % avroGrid.getKeyframeInterval();
+        byte[][] samples = new byte[avroGrid.getBands().size()][];
+        org.n52.tsf.serialization.avro.gen.raster.TimeStep timeStep = null;
+        for (int i = 0; ; i++) {
+            if (!dataFileReader.hasNext()) {
+                throw new IOException("Series ends before step " + step);
+            }
+            timeStep = dataFileReader.next(timeStep);
+            if (i >= keyframe) {
+                decodeTimeStep(avroGrid, timeStep, samples);
+            }
+            if (i == step) {
+                return new CoverageTimeStep(timeStep.getTime(), createCoverage(covName, avroGrid,
+                        createImage(avroGrid, bands(samples))));
+            }
+        }
+    }
+
+    /**
+     * Reads the statistics of the whole bands of a tiled coverage written with statistics from the bands of its header,
+     * without reading any record. Bands without statistics are returned as null.
+     */
+    public List<BandStatistics> deserializeTiledStatistics(InputStream inputStream) throws IOException {
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readTiledHeader(openTiled(inputStream));
+        List<BandStatistics> statistics = new ArrayList<>(avroGrid.getBands().size());
+        for (org.n52.tsf.serialization.avro.gen.raster.Band band : avroGrid.getBands()) {
+            statistics.add(band.getStatistics() != null ? createStatistics(band.getStatistics()) : null);
+        }
+        return statistics;
+    }
+
+    /**
+     * Reads the statistics of the whole bands from the footer of a tile store written with statistics. Bands without
+     * statistics are returned as null.
+     */
+    public List<BandStatistics> deserializeTiledStatistics(AvroTileStore store) throws IOException {
+        return createStatistics(store.getGrid().getBands().size(), store.getStatistics());
+    }
+
+    private static List<BandStatistics> createStatistics(int bandCount,
+            List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> avroStatistics) {
+        List<BandStatistics> statistics = new ArrayList<>(bandCount);
+        for (int i = 0; i < bandCount; i++) {
+            statistics.add(i < avroStatistics.size() ? createStatistics(avroStatistics.get(i)) : null);
+        }
+        return statistics;
+    }
+
+    /**
+     * Converts stored statistics, either of a band or of one band of a tile.
+     */
+    public static BandStatistics createStatistics(org.n52.tsf.serialization.avro.gen.raster.BandStatistics avroStatistics) {
+        long[] histogram = new long[avroStatistics.getHistogram().size()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = avroStatistics.getHistogram().get(i);
+        }
+        return BandStatistics.of(avroStatistics.getCount(), avroStatistics.getNoDataCount(), avroStatistics.getMin(),
+                avroStatistics.getMax(), avroStatistics.getMean(), avroStatistics.getStddev(),
+                avroStatistics.getHistogramMin(), avroStatistics.getHistogramBinWidth(), histogram);
+    }
+
+    private DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> openTiled(InputStream inputStream) throws IOException {
+        DatumReader<org.n52.tsf.serialization.avro.gen.raster.Tile> datumReader =
+                new SpecificDatumReader<>(org.n52.tsf.serialization.avro.gen.raster.Tile.class);
+        return new DataFileStream<>(inputStream, datumReader);
+    }
+
+    private org.n52.tsf.serialization.avro.gen.raster.Grid readTiledHeader(
+            DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader) throws IOException {
+        byte[] header = dataFileReader.getMeta(AvroCovDataSerializationHandler.GRID_META);
+        if (header == null) {
+            throw new IOException("Stream does not hold a tiled grid header");
+        }
+        return org.n52.tsf.serialization.avro.gen.raster.Grid.fromByteBuffer(ByteBuffer.wrap(header));
+    }
+
+    private DataFileStream<org.n52.tsf.serialization.avro.gen.raster.TimeStep> openSeries(InputStream inputStream) throws IOException {
+        DatumReader<org.n52.tsf.serialization.avro.gen.raster.TimeStep> datumReader =
+                new SpecificDatumReader<>(org.n52.tsf.serialization.avro.gen.raster.TimeStep.class);
+        return new DataFileStream<>(inputStream, datumReader);
+    }
+
+    private org.n52.tsf.serialization.avro.gen.raster.Grid readSeriesHeader(
+            DataFileStream<org.n52.tsf.serialization.avro.gen.raster.TimeStep> dataFileReader) throws IOException {
+        byte[] header = dataFileReader.getMeta(AvroCovDataSerializationHandler.GRID_META);
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = header == null ? null
+                : org.n52.tsf.serialization.avro.gen.raster.Grid.fromByteBuffer(ByteBuffer.wrap(header));
+        if (avroGrid == null || avroGrid.getKeyframeInterval() <= 0) {
+            throw new IOException("Stream does not hold a coverage series header");
+        }
+        return avroGrid;
+    }
+
+    /**
+     * Replaces the samples of the previous step with the samples of the given step, decoding its bands with the codec
+     * of the header and adding them to the previous samples unless the step is a keyframe. The decoded samples are
+     * copied out of the record buffers, which the reader reuses for the next record.
+     */
+    private static void decodeTimeStep(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid,
+                                       org.n52.tsf.serialization.avro.gen.raster.TimeStep timeStep,
+                                       byte[][] samples) throws IOException {
+        if (timeStep.getBands().size() != samples.length) {
+            throw new IOException("Series step with " + timeStep.getBands().size() + " bands instead of " + samples.length);
+        }
+        if (!timeStep.getKeyframe() && samples[0] == null) {
+            throw new IOException("Series does not start with a keyframe");
+        }
+        TileCodec codec = TileDecoder.codec(avroGrid.getPredictor().ordinal(), avroGrid.getCompression().ordinal());
+        int dataType = RasterBands.dataType(avroGrid.getBands().get(0).getDataType().name());
+        org.n52.tsf.serialization.avro.gen.raster.SampleModel avroSampleModel = avroGrid.getSampleModel();
+        for (int i = 0; i < samples.length; i++) {
+            ByteBuffer decoded = codec.decode(timeStep.getBands().get(i), dataType, avroSampleModel.getWidth(),
+                    avroSampleModel.getHeight());
+            if (timeStep.getKeyframe()) {
+                samples[i] = new byte[decoded.remaining()];
+                decoded.duplicate().get(samples[i]);
+            } else {
+                samples[i] = TemporalDelta.decode(decoded, samples[i], dataType);
+            }
+        }
+    }
+
+    private static List<ByteBuffer> bands(byte[][] samples) {
+        List<ByteBuffer> bands = new ArrayList<>(samples.length);
+        for (byte[] band : samples) {
+            bands.add(ByteBuffer.wrap(band));
+        }
+        return bands;
+    }
+
+    private GridCoverage2D readLevel(String covName, org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid,
+                                     GeneralEnvelope envelope, int level,
+                                     DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader) throws Exception {
+        return readLevel(covName, avroGrid, envelope, level, levelBounds(avroGrid, level), dataFileReader);
+    }
+
+    /**
+     * Reads the tile records of one level which intersect the window, given in pixels of the level. Levels are
+     * written finest first and tiles in row major order, so the records of the finer levels are skipped by their
+     * count and reading stops at the first record of a coarser level or below the window.
+     */
+    private GridCoverage2D readLevel(String covName, org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid,
+                                     GeneralEnvelope envelope, int level, Rectangle window,
+                                     DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader) throws Exception {
+        int tileWidth = avroGrid.getTileWidth();
+        int tileHeight = avroGrid.getTileHeight();
+        TiledImage image = createTiledImage(avroGrid, window);
+        TileDecoder decoder = new TileDecoder(image, TileDecoder.codec(avroGrid.getPredictor().ordinal(),
+                avroGrid.getCompression().ordinal()), executor, parallelism);
+        int minColumn = window.x / tileWidth;
+        int maxColumn = (window.x + window.width - 1) / tileWidth;
+        int minRow = window.y / tileHeight;
+        int maxRow = (window.y + window.height - 1) / tileHeight;
+        skipRecords(dataFileReader, level == 0 ? 0 : AvroTileStore.layout(avroGrid).entry(level, 0, 0));
+        while (dataFileReader.hasNext()) {
+            org.n52.tsf.serialization.avro.gen.raster.Tile tile = dataFileReader.next();
+            if (tile.getLevel() != level || tile.getRow() > maxRow) {
+                break;
+            }
+            if (tile.getRow() >= minRow && tile.getColumn() >= minColumn && tile.getColumn() <= maxColumn) {
+                decoder.submit(tile.getColumn(), tile.getRow(), tile.getWidth(), tile.getHeight(), tile.getBands());
+            }
+        }
+        decoder.finish();
+        return createCoverage(covName, avroGrid, envelope, image);
+    }
+
+    /**
+     * Skips the given number of records of a container file which has not been read from yet. Whole blocks are
+     * skipped without decoding their records, the serializer starts a new block with every level.
+     */
+    private static void skipRecords(DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileReader,
+                                    long count) throws IOException {
+        org.n52.tsf.serialization.avro.gen.raster.Tile tile = null;
+        long blockRemaining = 0;
+        while (count > 0 && dataFileReader.hasNext()) {
+            if (blockRemaining == 0) {
+                blockRemaining = dataFileReader.getBlockCount();
+                if (blockRemaining <= count) {
+                    dataFileReader.nextBlock();
+                    count -= blockRemaining;
+                    blockRemaining = 0;
+                    continue;
+                }
+            }
+            tile = dataFileReader.next(tile);
+            blockRemaining--;
+            count--;
+        }
+    }
+
+    /**
+     * Fetches the tiles of one level which intersect the window, given in pixels of the level, from the store.
+     */
+    private GridCoverage2D readWindow(String covName, AvroTileStore store, int level, Rectangle window) throws Exception {
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = store.getGrid();
+        int tileWidth = avroGrid.getTileWidth();
+        int tileHeight = avroGrid.getTileHeight();
+        TiledImage image = createTiledImage(avroGrid, window);
+        TileDecoder decoder = new TileDecoder(image, TileDecoder.codec(avroGrid.getPredictor().ordinal(),
+                avroGrid.getCompression().ordinal()), executor, parallelism);
+        for (int row = window.y / tileHeight; row <= (window.y + window.height - 1) / tileHeight; row++) {
+            for (int column = window.x / tileWidth; column <= (window.x + window.width - 1) / tileWidth; column++) {
+                org.n52.tsf.serialization.avro.gen.raster.Tile tile = store.getTile(level, column, row);
+                decoder.submit(column, row, tile.getWidth(), tile.getHeight(), tile.getBands());
+            }
+        }
+        decoder.finish();
+        return createCoverage(covName, avroGrid, createEnvelope(avroGrid, toFullResolution(avroGrid, level, window)), image);
+    }
+
+    /**
+     * Returns the pixels of the full resolution grid which are covered by the given pixels of a level.
+     */
+    private static Rectangle2D toFullResolution(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid, int level, Rectangle window) {
+        if (level == 0) {
+            return window;
+        }
+        Rectangle bounds = levelBounds(avroGrid, level);
+        double scaleX = (double) avroGrid.getMaxWidth() / bounds.width;
+        double scaleY = (double) avroGrid.getMaxHight() / bounds.height;
+        return new Rectangle2D.Double(window.x * scaleX, window.y * scaleY, window.width * scaleX, window.height * scaleY);
+    }
+
+    private static TiledImage createTiledImage(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid, Rectangle bounds) {
+        return RasterBands.createImage(RasterBands.createSampleModel(
+                RasterBands.dataType(avroGrid.getBands().get(0).getDataType().name()), avroGrid.getTileWidth(),
+                avroGrid.getTileHeight(), avroGrid.getBands().size(), avroGrid.getSampleModel().getType().name()), bounds);
+    }
+
+    private static Rectangle levelBounds(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid, int level) {
+        return level == 0 ? new Rectangle(avroGrid.getSampleModel().getWidth(), avroGrid.getSampleModel().getHeight())
+                : new Rectangle(avroGrid.getOverviews().get(level - 1).getWidth(), avroGrid.getOverviews().get(level - 1).getHeight());
+    }
+
+    private static double resolution(GeneralEnvelope envelope, int width, int height) {
+        return Math.sqrt(envelope.getSpan(0) * envelope.getSpan(1) / ((double) width * height));
+    }
+
+    private GridCoverage2D createCoverage(String covName, org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid,
+                                          RenderedImage image) throws Exception {
+        return createCoverage(covName, avroGrid, createEnvelope(avroGrid), image);
+    }
+
+    private GridCoverage2D createCoverage(String covName, org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid,
+                                          GeneralEnvelope envelope, RenderedImage image) {
         GridCoverageFactory factory = new GridCoverageFactory();
-        BufferedImage image = new BufferedImage(avroGrid.getMaxWidth(), avroGrid.getMaxHight(), avroGrid.getColorSpace());
-        ReferencedEnvelope rEnvelope = new ReferencedEnvelope(0, avroGrid.getMaxWidth(), 0, avroGrid.getMaxHight(), null);
-        MathTransform mathTransform;
+        Map<String, Object> properties = new HashMap<>();
+        if (!avroGrid.getBands().isEmpty() && avroGrid.getBands().get(0).getNoData() != null) {
+            CoverageUtilities.setNoDataProperty(properties, avroGrid.getBands().get(0).getNoData());
+        }
+        return factory.create(covName, image, envelope, null, null, properties);
+    }
+
+    private GeneralEnvelope createEnvelope(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid) throws Exception {
+        return createEnvelope(avroGrid, new Rectangle(avroGrid.getMaxWidth(), avroGrid.getMaxHight()));
+    }
+
+    /**
+     * Returns the world envelope of the given pixels of the full resolution grid.
+     */
+    private GeneralEnvelope createEnvelope(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid, Rectangle2D pixels) throws Exception {
+        ReferencedEnvelope rEnvelope = new ReferencedEnvelope(pixels.getMinX(), pixels.getMaxX(), pixels.getMinY(),
+                pixels.getMaxY(), null);
+        GeneralEnvelope envelope = CRS.transform(createMathTransform(avroGrid), rEnvelope);
+        envelope.setCoordinateReferenceSystem(createCrs(avroGrid));
+        return envelope;
+    }
+
+    private MathTransform createMathTransform(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid) {
         //TODO add model transformation support
         if (avroGrid.getXulc().isNaN()) {
-            mathTransform = createMathtransformFromMetaData(avroGrid.getTiePoints().get(0), avroGrid.getPixelScale());
+            return createMathtransformFromMetaData(avroGrid.getTiePoints().get(0), avroGrid.getPixelScale());
         } else {
-            mathTransform = createMathtransformFromTfw(avroGrid);
+            return createMathtransformFromTfw(avroGrid);
         }
-        CoordinateReferenceSystem crs = CRS.decode(avroGrid.getSourceCrs().toString());
-        GeneralEnvelope envelope = CRS.transform(mathTransform, rEnvelope);
-        envelope.setCoordinateReferenceSystem(crs);
+    }
 
-        return factory.create(covName, image, envelope);
+    private CoordinateReferenceSystem createCrs(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid) throws FactoryException {
+        return avroGrid.getSourceCrsWkt() == null ? CrsCache.decode(avroGrid.getSourceCrs().toString())
+                : CrsCache.parse(avroGrid.getSourceCrsWkt().toString());
+    }
+
+    private RenderedImage createImage(org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid, List<ByteBuffer> bands) {
+        org.n52.tsf.serialization.avro.gen.raster.SampleModel avroSampleModel = avroGrid.getSampleModel();
+        TiledImage image = RasterBands.createImage(RasterBands.createSampleModel(
+                RasterBands.dataType(avroGrid.getBands().get(0).getDataType().name()), avroSampleModel.getWidth(),
+                avroSampleModel.getHeight(), bands.size(), avroSampleModel.getType().name()));
+        WritableRaster raster = image.getWritableTile(0, 0);
+        for (int i = 0; i < bands.size(); i++) {
+            RasterBands.unpack(bands.get(i), raster, i);
+        }
+        image.releaseWritableTile(0, 0);
+        return image;
     }
 
     public List<GeoPoint> deserializeToWorld(InputStream inputStream) throws IOException {
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readGrid(inputStream);
+
+        if (avroGrid.getGridPoints().size() > 0) {
+            return avroGrid.getGridPoints().
+                    stream().map(this::createGeoPoint).collect(Collectors.toList());
+        } else if (avroGrid.getGridToWorld() != null) {
+            return WorldPoints.fromAffine(createAffineTransform(avroGrid.getGridToWorld()),
+                    avroGrid.getMaxWidth(), avroGrid.getMaxHight());
+        } else if (avroGrid.getWorldPoints().hasRemaining()) {
+            return WorldPoints.fromPacked(avroGrid.getWorldPoints());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Deserializes the world points of the pixel centers into a {@link GeoPointArray} instead of one
+     * {@link GeoPoint} per pixel. Packed points are wrapped without copying.
+     */
+    public GeoPointArray deserializeToWorldArray(InputStream inputStream) throws IOException {
+        org.n52.tsf.serialization.avro.gen.raster.Grid avroGrid = readGrid(inputStream);
+
+        List<org.n52.tsf.serialization.avro.gen.raster.GridPoint> gridPoints = avroGrid.getGridPoints();
+        if (gridPoints.size() > 0) {
+            double[] points = new double[gridPoints.size() * 2];
+            for (int i = 0; i < gridPoints.size(); i++) {
+                org.n52.tsf.serialization.avro.gen.raster.GridPoint gridPoint = gridPoints.get(i);
+                points[2 * i] = gridPoint.getLatitude();
+                points[2 * i + 1] = gridPoint.getLongitude();
+            }
+            return new GeoPointArray(points);
+        } else if (avroGrid.getGridToWorld() != null) {
+            return new GeoPointArray(WorldPoints.toArray(createAffineTransform(avroGrid.getGridToWorld()),
+                    avroGrid.getMaxWidth(), avroGrid.getMaxHight()));
+        } else if (avroGrid.getWorldPoints().hasRemaining()) {
+            return new GeoPointArray(avroGrid.getWorldPoints().duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer());
+        } else {
+            return null;
+        }
+    }
+
+    private org.n52.tsf.serialization.avro.gen.raster.Grid readGrid(InputStream inputStream) throws IOException {
         DatumReader<org.n52.tsf.serialization.avro.gen.raster.Grid> datumReader =
                 new SpecificDatumReader<>(org.n52.tsf.serialization.avro.gen.raster.Grid.class);
         DataFileStream<org.n52.tsf.serialization.avro.gen.raster.Grid> dataFileReader = new DataFileStream<>(inputStream, datumReader);
@@ -77,13 +556,12 @@ public class AvroCovDataDeserializationHandler {
         if (dataFileReader.hasNext()) {
             avroGrid = dataFileReader.next();
         }
+        return avroGrid;
+    }
 
-        if (avroGrid.getGridPoints().size() > 0) {
-            return avroGrid.getGridPoints().
-                    stream().map(this::createGeoPoint).collect(Collectors.toList());
-        } else {
-            return null;
-        }
+    private AffineTransform createAffineTransform(org.n52.tsf.serialization.avro.gen.raster.GridToWorld gridToWorld) {
+        return new AffineTransform(gridToWorld.getScaleX(), gridToWorld.getShearY(), gridToWorld.getShearX(),
+                gridToWorld.getScaleY(), gridToWorld.getTranslateX(), gridToWorld.getTranslateY());
     }
 
     private MathTransform createMathtransformFromTfw(org.n52.tsf.serialization.avro.gen.raster.Grid pbGrid) {
@@ -94,7 +572,7 @@ public class AvroCovDataDeserializationHandler {
         gm.setElement(1, 0, pbGrid.getYRotation());
         gm.setElement(0, 2, pbGrid.getXulc());
         gm.setElement(1, 2, pbGrid.getYulc());
-        return ProjectiveTransform.create(gm);
+        return CrsCache.transform(gm);
     }
 
     private static MathTransform createMathtransformFromMetaData(org.n52.tsf.serialization.avro.gen.raster.TiePoint tiePoint,
@@ -106,7 +584,7 @@ public class AvroCovDataDeserializationHandler {
         gm.setElement(1, 0, 0);
         gm.setElement(0, 2, tiePoint.getValues().get(3));
         gm.setElement(1, 2, tiePoint.getValues().get(4));
-        return ProjectiveTransform.create(gm);
+        return CrsCache.transform(gm);
     }
 
     private GeoPoint createGeoPoint(org.n52.tsf.serialization.avro.gen.raster.GridPoint gridPoint) {
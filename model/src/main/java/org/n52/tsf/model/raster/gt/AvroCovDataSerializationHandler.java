@@ -19,33 +19,53 @@
 
 package org.n52.tsf.model.raster.gt;
 
+import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.Encoder;
 import org.apache.avro.specific.SpecificDatumWriter;
 import org.geotools.coverage.grid.GridCoverage2D;
-import org.geotools.coverage.grid.GridEnvelope2D;
-import org.geotools.coverage.grid.GridGeometry2D;
-import org.geotools.coverage.grid.io.AbstractGridFormat;
-import org.geotools.coverage.grid.io.GridCoverage2DReader;
-import org.geotools.coverage.grid.io.GridFormatFinder;
 import org.geotools.coverage.grid.io.imageio.geotiff.GeoTiffIIOMetadataDecoder;
 import org.geotools.coverage.grid.io.imageio.geotiff.TiePoint;
 import org.geotools.data.WorldFileReader;
-import org.geotools.gce.geotiff.GeoTiffReader;
-import org.geotools.referencing.CRS;
+import org.n52.tsf.model.jfr.CodecEvents;
+import org.n52.tsf.model.metrics.CountingOutputStream;
+import org.n52.tsf.model.raster.BandStatistics;
+import org.n52.tsf.model.raster.Compression;
+import org.n52.tsf.model.raster.OverviewPyramid;
+import org.n52.tsf.model.raster.Overviews;
+import org.n52.tsf.model.raster.Predictor;
+import org.n52.tsf.model.raster.RasterBands;
+import org.n52.tsf.model.raster.Resampling;
+import org.n52.tsf.model.raster.TemporalDelta;
+import org.n52.tsf.model.raster.TileCodec;
 import org.n52.tsf.serialization.avro.gen.vector.Coordinate;
 import org.n52.tsf.serialization.avro.gen.vector.Geometry;
 import org.n52.tsf.serialization.protobuf.gen.GeoProtobufCov;
-import org.opengis.coverage.grid.GridCoordinates;
-import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.metadata.spatial.PixelOrientation;
 import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform2D;
 import org.opengis.referencing.operation.TransformException;
 
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.Double.NaN;
 
@@ -54,43 +74,603 @@ import static java.lang.Double.NaN;
  */
 public class AvroCovDataSerializationHandler {
 
+    private static final String CODEC = "AVRO_COVERAGE_SERIALIZER";
+    private static final String COVERAGE_TYPE = "GridCoverage2D";
+    /**
+     * File metadata key of the single object encoded {@code Grid} header of a tiled coverage.
+     */
+    public static final String GRID_META = "tsf.grid";
+    private static final String GRID_POINTS_FIELD = "gridPoints";
+    private static final String WORLD_POINTS_FIELD = "world_points";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean embedCrsWkt;
+
+    public AvroCovDataSerializationHandler() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a handler which computes dense world coordinates on the given executor with at most parallelism
+     * bands of grid columns per worker in flight.
+     */
+    public AvroCovDataSerializationHandler(Executor executor, int parallelism) {
+        this(executor, parallelism, false);
+    }
+
+    /**
+     * Creates a handler which, with embedCrsWkt, also stores the well known text of the source CRS so that the
+     * deserializer can parse it instead of decoding the CRS code from the EPSG database.
+     */
+    public AvroCovDataSerializationHandler(Executor executor, int parallelism, boolean embedCrsWkt) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.embedCrsWkt = embedCrsWkt;
+    }
+
     public void serialize(File geotifFile, OutputStream outputStream, boolean serializeMetaData) throws Exception {
-        org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder = org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder();
+        serialize(geotifFile, outputStream, serializeMetaData, false);
+    }
+
+    /**
+     * Serializes the coverage like {@link #serialize(File, OutputStream, boolean)}. With computeStatistics the
+     * statistics and histogram of each band are computed while its samples are packed and stored with the band.
+     * Statistics need the band samples, so they cannot be computed without serializeMetaData.
+     */
+    public void serialize(File geotifFile, OutputStream outputStream, boolean serializeMetaData,
+                          boolean computeStatistics) throws Exception {
+        if (computeStatistics && !serializeMetaData) {
+            throw new IllegalArgumentException("Statistics are only computed when the metadata and samples are serialized");
+        }
         if (serializeMetaData) {
-            setMetaData(gridBuilder, geotifFile, null);
+            Object event = CodecEvents.beginEncode();
+            org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder = org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder();
+            try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+                GridCoverage2D coverage = setHeader(gridBuilder, geoTiff, null);
+                setBands(gridBuilder, coverage, computeStatistics);
+            }
+            writeGrid(gridBuilder, new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.Grid.class), outputStream, event);
         } else {
-            transformGridToWorld(gridBuilder, geotifFile);
+            serialize(geotifFile, outputStream, GridToWorldEncoding.GRID_POINTS);
+        }
+    }
+
+    /**
+     * Serializes the world coordinates of the pixel centers of the coverage in the given encoding. Grid points and
+     * packed points are computed in parallel bands of grid columns and encoded band by band in point order. An
+     * Avro container file buffers a record before it writes its block, so the encoded points are held in memory
+     * once, but no {@code GridPoint} record is created.
+     */
+    public void serialize(File geotifFile, OutputStream outputStream, GridToWorldEncoding encoding) throws Exception {
+        Object event = CodecEvents.beginEncode();
+        org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder = org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder();
+        try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+            int w = geoTiff.getWidth();
+            int h = geoTiff.getHeight();
+            GridCoverage2D coverage = geoTiff.read();
+            setGridToWorldHeader(gridBuilder, coverage, w, h);
+            gridBuilder.setGridPoints(new ArrayList<>());
+
+            MathTransform2D gridToWorld = coverage.getGridGeometry().getGridToCRS2D(PixelOrientation.CENTER);
+            AffineTransform affine = WorldPoints.asAffine(gridToWorld);
+            DatumWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> datumWriter;
+            if (encoding == GridToWorldEncoding.AFFINE && affine != null) {
+                gridBuilder.setGridToWorld(new org.n52.tsf.serialization.avro.gen.raster.GridToWorld(affine.getScaleX(),
+                        affine.getShearX(), affine.getTranslateX(), affine.getShearY(), affine.getScaleY(), affine.getTranslateY()));
+                datumWriter = new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.Grid.class);
+            } else {
+                datumWriter = new WorldPointsDatumWriter(gridToWorld, w, h, encoding == GridToWorldEncoding.GRID_POINTS);
+            }
+            writeGrid(gridBuilder, datumWriter, outputStream, event);
         }
-        DatumWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> datumWriter =
-                new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.Grid.class);
-        DataFileWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> dataFileWriter = new DataFileWriter<>(datumWriter);
-        dataFileWriter.create(gridBuilder.build().getSchema(), outputStream);
-        dataFileWriter.append(gridBuilder.build());
-        dataFileWriter.close();
     }
 
     public void serialize(File geotifFile, File tfwfile, OutputStream outputStream) throws Exception {
+        Object event = CodecEvents.beginEncode();
         org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder = org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder();
         setMetaData(gridBuilder, geotifFile, tfwfile);
-        DatumWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> datumWriter =
-                new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.Grid.class);
+        writeGrid(gridBuilder, new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.Grid.class), outputStream, event);
+    }
+
+    private void writeGrid(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder,
+                           DatumWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> datumWriter, OutputStream outputStream,
+                           Object event) throws IOException {
+        CountingOutputStream countingStream = event == null ? null : new CountingOutputStream(outputStream);
+        org.n52.tsf.serialization.avro.gen.raster.Grid grid = gridBuilder.build();
         DataFileWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> dataFileWriter = new DataFileWriter<>(datumWriter);
-        dataFileWriter.create(gridBuilder.build().getSchema(), outputStream);
-        dataFileWriter.append(gridBuilder.build());
+        dataFileWriter.create(grid.getSchema(), countingStream == null ? outputStream : countingStream);
+        dataFileWriter.append(grid);
         dataFileWriter.close();
+        if (countingStream != null) {
+            long vertexCount = !grid.getGridPoints().isEmpty() ? grid.getGridPoints().size()
+                    : (long) grid.getMaxWidth() * grid.getMaxHight();
+            CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, vertexCount, countingStream.getCount());
+        }
+    }
+
+    /**
+     * Writes the {@code gridPoints} or the {@code world_points} of a grid from the transformed bands of grid
+     * columns instead of the values held by the record.
+     */
+    private class WorldPointsDatumWriter extends SpecificDatumWriter<org.n52.tsf.serialization.avro.gen.raster.Grid> {
+        private final MathTransform2D gridToWorld;
+        private final int width;
+        private final int height;
+        private final boolean gridPoints;
+
+        WorldPointsDatumWriter(MathTransform2D gridToWorld, int width, int height, boolean gridPoints) {
+            super(org.n52.tsf.serialization.avro.gen.raster.Grid.class);
+            this.gridToWorld = gridToWorld;
+            this.width = width;
+            this.height = height;
+            this.gridPoints = gridPoints;
+        }
+
+        @Override
+        protected void writeField(Object datum, Schema.Field f, Encoder out, Object state) throws IOException {
+            try {
+                if (gridPoints && GRID_POINTS_FIELD.equals(f.name())) {
+                    out.writeArrayStart();
+                    WorldPoints.transform(gridToWorld, width, height, executor, parallelism, (points, count) -> {
+                        out.setItemCount(count);
+                        for (int k = 0; k < count; k++) {
+                            out.startItem();
+                            out.writeDouble(points[2 * k + 1]);
+                            out.writeDouble(points[2 * k]);
+                        }
+                    });
+                    out.writeArrayEnd();
+                } else if (!gridPoints && WORLD_POINTS_FIELD.equals(f.name())) {
+                    out.writeLong((long) width * height * 2 * Double.BYTES);
+                    ByteBuffer bytes = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                    WorldPoints.transform(gridToWorld, width, height, executor, parallelism, (points, count) -> {
+                        for (int k = 0; k < 2 * count; k++) {
+                            if (!bytes.hasRemaining()) {
+                                out.writeFixed(bytes.array(), 0, bytes.position());
+                                bytes.clear();
+                            }
+                            bytes.putDouble(points[k]);
+                        }
+                    });
+                    out.writeFixed(bytes.array(), 0, bytes.position());
+                } else {
+                    super.writeField(datum, f, out, state);
+                }
+            } catch (TransformException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Serializes the coverage as an Avro container file of {@code Tile} records, one per tileWidth x tileHeight
+     * block of pixels in row major tile order. The {@code Grid} header, whose bands hold no samples, is stored in
+     * the {@value #GRID_META} file metadata. The source image is read one tile row at a time and every tile is
+     * written as it is encoded.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight) throws Exception {
+        serializeTiled(geotifFile, outputStream, tileWidth, tileHeight, TileCodec.NONE);
+    }
+
+    /**
+     * Writes the coverage as tiles whose band samples are encoded with the given predictor and compression. The
+     * codec is recorded in the header so that the deserializer can decode the tiles.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight,
+                               TileCodec codec) throws Exception {
+        serializeTiled(geotifFile, outputStream, tileWidth, tileHeight, codec, 0, Resampling.NEAREST, false);
+    }
+
+    /**
+     * Writes the coverage as tiles together with the given number of overview levels, each reduced from the previous
+     * one with the given resampling. The image is read once, in strips of one tile row: each strip is cut into the
+     * full resolution tiles and reduced into the overview levels, which hold only about one tile row each. The full
+     * resolution records come first and the overview levels follow, finest first, each level starting a new block of
+     * the container file. The overview tiles are built while the full resolution is written, so they are kept in a
+     * temporary tile store until it is complete.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight,
+                               TileCodec codec, int overviewLevels, Resampling resampling) throws Exception {
+        serializeTiled(geotifFile, outputStream, tileWidth, tileHeight, codec, overviewLevels, resampling, false);
+    }
+
+    /**
+     * Writes the coverage as tiles with overview levels like {@link #serializeTiled(File, OutputStream, int, int,
+     * TileCodec, int, Resampling)}. With computeStatistics the statistics and histograms of each full resolution tile
+     * are computed while its samples are packed and stored with the tile record, and the statistics of the whole
+     * bands, merged from those of the tiles, are stored with the bands of the header, so that
+     * {@link AvroCovDataDeserializationHandler#deserializeTiledStatistics(java.io.InputStream)} reads them without any
+     * record. Since they are only known once the last tile is packed, all tiles are kept in a temporary tile store
+     * until the header is written.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight,
+                               TileCodec codec, int overviewLevels, Resampling resampling,
+                               boolean computeStatistics) throws Exception {
+        checkTiling(tileWidth, tileHeight, overviewLevels);
+        Object event = CodecEvents.beginEncode();
+        CountingOutputStream countingStream = event == null ? null : new CountingOutputStream(outputStream);
+        DatumWriter<org.n52.tsf.serialization.avro.gen.raster.Tile> datumWriter =
+                new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.Tile.class);
+        DataFileWriter<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileWriter = new DataFileWriter<>(datumWriter);
+        long pixels;
+        try (StreamTileSink sink = new StreamTileSink(dataFileWriter, countingStream == null ? outputStream : countingStream,
+                computeStatistics)) {
+            pixels = writeTiled(geotifFile, tileWidth, tileHeight, codec, overviewLevels, resampling, computeStatistics, sink);
+        } finally {
+            dataFileWriter.close();
+        }
+        if (countingStream != null) {
+            CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, pixels, countingStream.getCount());
+        }
+    }
+
+    /**
+     * Writes the coverage as a tile store file with the default tile codec and neither overviews nor statistics.
+     */
+    public void serializeTileStore(File geotifFile, Path storeFile, int tileWidth, int tileHeight) throws Exception {
+        serializeTileStore(geotifFile, storeFile, tileWidth, tileHeight, TileCodec.NONE, 0, Resampling.NEAREST, false);
+    }
+
+    /**
+     * Writes the coverage as a tile store file instead of a container file. The store holds the {@code Grid} header
+     * and the {@code Tile} records of {@link #serializeTiled(File, OutputStream, int, int, TileCodec, int, Resampling,
+     * boolean)} in the Avro single object encoding and an index of the tile offsets at a fixed position behind the
+     * header, so that {@link AvroTileStore} can fetch any single tile through a memory mapping of the file. Every tile
+     * is written as soon as it is built. The statistics of the whole bands are kept in the footer of the store as a
+     * record of level -1 which holds no samples.
+     */
+    public void serializeTileStore(File geotifFile, Path storeFile, int tileWidth, int tileHeight, TileCodec codec,
+                                   int overviewLevels, Resampling resampling, boolean computeStatistics) throws Exception {
+        checkTiling(tileWidth, tileHeight, overviewLevels);
+        Object event = CodecEvents.beginEncode();
+        try (TileStoreWriter store = TileStoreWriter.create(storeFile)) {
+            long pixels = writeTiled(geotifFile, tileWidth, tileHeight, codec, overviewLevels, resampling, computeStatistics,
+                    new TileSink() {
+                        @Override
+                        public void writeHeader(org.n52.tsf.serialization.avro.gen.raster.Grid grid) throws IOException {
+                            store.writeHeader(grid.toByteBuffer(), AvroTileStore.layout(grid));
+                        }
+
+                        @Override
+                        public void writeTile(org.n52.tsf.serialization.avro.gen.raster.Tile tile) throws IOException {
+                            store.writeTile(tile.getLevel(), tile.getColumn(), tile.getRow(), tile.toByteBuffer());
+                        }
+
+                        @Override
+                        public void finish(List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> statistics)
+                                throws IOException {
+                            if (statistics != null) {
+                                store.writeFooter(new org.n52.tsf.serialization.avro.gen.raster.Tile(0, 0, 0, 0,
+                                        new ArrayList<ByteBuffer>(), -1, statistics).toByteBuffer());
+                            }
+                        }
+                    });
+            CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, pixels, store.finish());
+        }
+    }
+
+    /**
+     * Destination of the header and tiles of a tiled coverage. Tiles arrive level by level in row major order, except
+     * that the tile rows of the overview levels arrive in between the full resolution tile rows they are reduced from.
+     */
+    private interface TileSink {
+        void writeHeader(org.n52.tsf.serialization.avro.gen.raster.Grid grid) throws IOException;
+
+        void writeTile(org.n52.tsf.serialization.avro.gen.raster.Tile tile) throws IOException;
+
+        /**
+         * Called after the last tile with the statistics of the whole bands, or null without statistics.
+         */
+        void finish(List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> statistics) throws IOException;
+    }
+
+    /**
+     * Writes the header and tile records to a container file with all tiles of a level in row major order, the full
+     * resolution first, and every level starting a new block. The tiles which cannot be written yet when they arrive,
+     * those of the overview levels and, with statistics, all tiles, since the header holding the statistics is
+     * written when the container file is created, are kept in a temporary tile store until {@link #finish}.
+     */
+    private static final class StreamTileSink implements TileSink, Closeable {
+        private final DataFileWriter<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileWriter;
+        private final OutputStream outputStream;
+        private final boolean deferHeader;
+        private org.n52.tsf.serialization.avro.gen.raster.Grid header;
+        private Path spoolFile;
+        private TileStoreWriter spool;
+        private int firstSpooled;
+        private int level;
+
+        private StreamTileSink(DataFileWriter<org.n52.tsf.serialization.avro.gen.raster.Tile> dataFileWriter,
+                               OutputStream outputStream, boolean deferHeader) {
+            this.dataFileWriter = dataFileWriter;
+            this.outputStream = outputStream;
+            this.deferHeader = deferHeader;
+        }
+
+        @Override
+        public void writeHeader(org.n52.tsf.serialization.avro.gen.raster.Grid grid) throws IOException {
+            header = grid;
+            if (deferHeader || !grid.getOverviews().isEmpty()) {
+                TileStoreLayout layout = AvroTileStore.layout(grid);
+                spoolFile = Files.createTempFile("tsf-tiles", null);
+                spool = TileStoreWriter.create(spoolFile);
+                spool.writeHeader(ByteBuffer.allocate(0), layout);
+                firstSpooled = deferHeader ? 0 : layout.entry(1, 0, 0);
+            }
+            if (!deferHeader) {
+                create(grid);
+            }
+        }
+
+        @Override
+        public void writeTile(org.n52.tsf.serialization.avro.gen.raster.Tile tile) throws IOException {
+            if (spool != null && (deferHeader || tile.getLevel() > 0)) {
+                spool.writeTile(tile.getLevel(), tile.getColumn(), tile.getRow(), tile.toByteBuffer());
+            } else {
+                append(tile);
+            }
+        }
+
+        @Override
+        public void finish(List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> statistics) throws IOException {
+            if (deferHeader) {
+                List<org.n52.tsf.serialization.avro.gen.raster.Band> bands = new ArrayList<>(header.getBands().size());
+                for (int i = 0; i < header.getBands().size(); i++) {
+                    bands.add(org.n52.tsf.serialization.avro.gen.raster.Band.newBuilder(header.getBands().get(i))
+                            .setStatistics(statistics.get(i)).build());
+                }
+                create(org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder(header).setBands(bands).build());
+            }
+            if (spool != null) {
+                spool.finish();
+                spool.close();
+                spool = null;
+                try (TileStoreReader reader = TileStoreReader.open(spoolFile)) {
+                    for (int entry = firstSpooled; entry < reader.getEntryCount(); entry++) {
+                        append(org.n52.tsf.serialization.avro.gen.raster.Tile.fromByteBuffer(reader.getTile(entry)));
+                    }
+                }
+            }
+        }
+
+        private void create(org.n52.tsf.serialization.avro.gen.raster.Grid grid) throws IOException {
+            ByteBuffer encoded = grid.toByteBuffer();
+            byte[] headerBytes = new byte[encoded.remaining()];
+            encoded.get(headerBytes);
+            dataFileWriter.setMeta(GRID_META, headerBytes);
+            dataFileWriter.create(org.n52.tsf.serialization.avro.gen.raster.Tile.getClassSchema(), outputStream);
+        }
+
+        /**
+         * Appends a record, ending the current block first if it holds records of another level, so that a reader
+         * can skip the blocks of the levels it does not read without decoding them.
+         */
+        private void append(org.n52.tsf.serialization.avro.gen.raster.Tile tile) throws IOException {
+            if (tile.getLevel() != level) {
+                dataFileWriter.sync();
+                level = tile.getLevel();
+            }
+            dataFileWriter.append(tile);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (spool != null) {
+                    spool.close();
+                }
+            } finally {
+                if (spoolFile != null) {
+                    Files.deleteIfExists(spoolFile);
+                }
+            }
+        }
+    }
+
+    private static void checkTiling(int tileWidth, int tileHeight, int overviewLevels) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Invalid tile size " + tileWidth + "x" + tileHeight);
+        }
+        if (overviewLevels < 0) {
+            throw new IllegalArgumentException("Invalid overview level count " + overviewLevels);
+        }
+    }
+
+    /**
+     * Builds the header and writes it and the tiles of all levels to the sink, returns the pixel count of the coverage.
+     */
+    private long writeTiled(File geotifFile, int tileWidth, int tileHeight, TileCodec codec, int overviewLevels,
+                            Resampling resampling, boolean computeStatistics, TileSink sink) throws Exception {
+        org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder = org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder();
+        try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+            GridCoverage2D coverage = setHeader(gridBuilder, geoTiff, null);
+            RenderedImage image = coverage.getRenderedImage();
+            int transferType = image.getSampleModel().getTransferType();
+            org.n52.tsf.serialization.avro.gen.raster.DataType dataType = org.n52.tsf.serialization.avro.gen.raster.DataType.valueOf(
+                    RasterBands.dataTypeName(transferType));
+            gridBuilder.setSampleModel(createSampleModel(image.getSampleModel(), dataType, image.getWidth(), image.getHeight()));
+            List<org.n52.tsf.serialization.avro.gen.raster.Band> bands = new ArrayList<>(image.getSampleModel().getNumBands());
+            double[] noData = new double[image.getSampleModel().getNumBands()];
+            for (int i = 0; i < noData.length; i++) {
+                org.n52.tsf.serialization.avro.gen.raster.Band band =
+                        createBand(coverage, i, dataType).setSamples(ByteBuffer.allocate(0)).build();
+                bands.add(band);
+                noData[i] = band.getNoData() != null ? band.getNoData() : NaN;
+            }
+            gridBuilder.setBands(bands);
+            gridBuilder.setTileWidth(tileWidth);
+            gridBuilder.setTileHeight(tileHeight);
+            gridBuilder.setPredictor(org.n52.tsf.serialization.avro.gen.raster.Predictor.values()[codec.getPredictor().ordinal()]);
+            gridBuilder.setCompression(org.n52.tsf.serialization.avro.gen.raster.Compression.values()[codec.getCompression().ordinal()]);
+            List<org.n52.tsf.serialization.avro.gen.raster.Overview> avroOverviews = new ArrayList<>(overviewLevels);
+            for (int i = 1; i <= overviewLevels; i++) {
+                avroOverviews.add(new org.n52.tsf.serialization.avro.gen.raster.Overview(
+                        Overviews.levelSize(image.getWidth(), i), Overviews.levelSize(image.getHeight(), i)));
+            }
+            gridBuilder.setOverviews(avroOverviews);
+            gridBuilder.setResampling(org.n52.tsf.serialization.avro.gen.raster.Resampling.values()[resampling.ordinal()]);
+            sink.writeHeader(gridBuilder.build());
+
+            BandStatistics[] bandStatistics = null;
+            if (computeStatistics) {
+                bandStatistics = new BandStatistics[noData.length];
+                for (int i = 0; i < noData.length; i++) {
+                    bandStatistics[i] = new BandStatistics(isIntegral(transferType), noData[i]);
+                }
+            }
+            OverviewPyramid overviews = new OverviewPyramid(image.getWidth(), image.getHeight(), overviewLevels,
+                    tileHeight, resampling, noData,
+                    (level, row, tileRow) -> appendTileRow(tileRow, level, row, tileWidth, codec, null, null, sink));
+            int rows = (image.getHeight() + tileHeight - 1) / tileHeight;
+            for (int row = 0; row < rows; row++) {
+                int y = image.getMinY() + row * tileHeight;
+                Raster strip = image.getData(new Rectangle(image.getMinX(), y, image.getWidth(),
+                        Math.min(tileHeight, image.getMinY() + image.getHeight() - y)));
+                appendTileRow(strip, 0, row, tileWidth, codec, noData, bandStatistics, sink);
+                overviews.add(strip);
+            }
+            overviews.finish();
+            List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> statistics = null;
+            if (bandStatistics != null) {
+                statistics = new ArrayList<>(noData.length);
+                for (BandStatistics band : bandStatistics) {
+                    statistics.add(createStatistics(band));
+                }
+            }
+            sink.finish(statistics);
+            return (long) image.getWidth() * image.getHeight();
+        }
+    }
+
+    /**
+     * Appends the tiles of one tile row of a level, cut from a strip of its rows. Unless the band statistics are null,
+     * the statistics of each tile are computed while it is packed, stored with the tile and merged into the band
+     * statistics.
+     */
+    private void appendTileRow(Raster strip, int level, int row, int tileWidth, TileCodec codec, double[] noData,
+                               BandStatistics[] bandStatistics, TileSink sink) throws IOException {
+        int columns = (strip.getWidth() + tileWidth - 1) / tileWidth;
+        int h = strip.getHeight();
+        for (int column = 0; column < columns; column++) {
+            int x = strip.getMinX() + column * tileWidth;
+            int w = Math.min(tileWidth, strip.getMinX() + strip.getWidth() - x);
+            Raster tileRaster = strip.createChild(x, strip.getMinY(), w, h, x, strip.getMinY(), null);
+            List<ByteBuffer> samples = new ArrayList<>(tileRaster.getNumBands());
+            List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> tileStatistics = new ArrayList<>();
+            for (int i = 0; i < tileRaster.getNumBands(); i++) {
+                BandStatistics statistics = bandStatistics != null
+                        ? new BandStatistics(isIntegral(tileRaster.getTransferType()), noData[i]) : null;
+                samples.add(ByteBuffer.wrap(codec.encode(RasterBands.pack(tileRaster, i, statistics),
+                        tileRaster.getTransferType(), w, h)));
+                if (statistics != null) {
+                    bandStatistics[i].merge(statistics);
+                    tileStatistics.add(createStatistics(statistics));
+                }
+            }
+            sink.writeTile(new org.n52.tsf.serialization.avro.gen.raster.Tile(column, row, w, h, samples, level,
+                    tileStatistics));
+        }
+    }
+
+    /**
+     * Serializes a series of coverages with the time of each step being its index, deflated, and with every
+     * keyframeInterval-th step a keyframe.
+     */
+    public void serializeSeries(List<File> geotifFiles, OutputStream outputStream, int keyframeInterval) throws Exception {
+        serializeSeries(geotifFiles, CoverageSeries.indexTimes(geotifFiles.size()), outputStream, keyframeInterval,
+                new TileCodec(Predictor.NONE, Compression.DEFLATE));
+    }
+
+    /**
+     * Serializes a series of coverages sharing one grid as an Avro container file of {@code TimeStep} records, one
+     * per coverage. The {@code Grid} header of the first coverage, whose bands hold no samples, is stored in the
+     * {@value #GRID_META} file metadata. Every keyframeInterval-th step is a keyframe holding the packed samples of
+     * its bands, every other step holds their {@link TemporalDelta} against the previous step, so that the samples
+     * which did not change encode to runs of zeros. The samples are then encoded with the given codec. Only one
+     * coverage is read at a time.
+     */
+    public void serializeSeries(List<File> geotifFiles, long[] times, OutputStream outputStream, int keyframeInterval,
+                                TileCodec codec) throws Exception {
+        CoverageSeries.checkArguments(geotifFiles, times, keyframeInterval);
+        Object event = CodecEvents.beginEncode();
+        CountingOutputStream countingStream = event == null ? null : new CountingOutputStream(outputStream);
+        DatumWriter<org.n52.tsf.serialization.avro.gen.raster.TimeStep> datumWriter =
+                new SpecificDatumWriter<>(org.n52.tsf.serialization.avro.gen.raster.TimeStep.class);
+        DataFileWriter<org.n52.tsf.serialization.avro.gen.raster.TimeStep> dataFileWriter = new DataFileWriter<>(datumWriter);
+        long pixelCount = 0;
+        try {
+            CoverageSeries series = null;
+            byte[][] previous = null;
+            for (int step = 0; step < geotifFiles.size(); step++) {
+                try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFiles.get(step))) {
+                    GridCoverage2D coverage;
+                    if (series == null) {
+                        org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder =
+                                org.n52.tsf.serialization.avro.gen.raster.Grid.newBuilder();
+                        coverage = setHeader(gridBuilder, geoTiff, null);
+                        RenderedImage image = coverage.getRenderedImage();
+                        org.n52.tsf.serialization.avro.gen.raster.DataType dataType = org.n52.tsf.serialization.avro.gen.raster.DataType.valueOf(
+                                RasterBands.dataTypeName(image.getSampleModel().getTransferType()));
+                        gridBuilder.setSampleModel(createSampleModel(image.getSampleModel(), dataType, image.getWidth(), image.getHeight()));
+                        List<org.n52.tsf.serialization.avro.gen.raster.Band> bands = new ArrayList<>(image.getSampleModel().getNumBands());
+                        for (int i = 0; i < image.getSampleModel().getNumBands(); i++) {
+                            bands.add(createBand(coverage, i, dataType).setSamples(ByteBuffer.allocate(0)).build());
+                        }
+                        gridBuilder.setBands(bands);
+                        gridBuilder.setPredictor(org.n52.tsf.serialization.avro.gen.raster.Predictor.values()[codec.getPredictor().ordinal()]);
+                        gridBuilder.setCompression(org.n52.tsf.serialization.avro.gen.raster.Compression.values()[codec.getCompression().ordinal()]);
+                        gridBuilder.setKeyframeInterval(keyframeInterval);
+                        ByteBuffer header = gridBuilder.build().toByteBuffer();
+                        byte[] headerBytes = new byte[header.remaining()];
+                        header.get(headerBytes);
+                        dataFileWriter.setMeta(GRID_META, headerBytes);
+                        dataFileWriter.create(org.n52.tsf.serialization.avro.gen.raster.TimeStep.getClassSchema(),
+                                countingStream == null ? outputStream : countingStream);
+                        series = new CoverageSeries(coverage);
+                        previous = new byte[image.getSampleModel().getNumBands()][];
+                    } else {
+                        coverage = geoTiff.read();
+                        series.check(coverage, geotifFiles.get(step));
+                    }
+                    Raster raster = RasterBands.getRaster(coverage.getRenderedImage());
+                    boolean keyframe = CoverageSeries.isKeyframe(step, keyframeInterval);
+                    List<ByteBuffer> samples = new ArrayList<>(raster.getNumBands());
+                    for (int i = 0; i < raster.getNumBands(); i++) {
+                        byte[] packed = RasterBands.pack(raster, i);
+                        // the codec predicts in place, so it gets a copy of the samples kept for the next delta
+                        samples.add(ByteBuffer.wrap(codec.encode(keyframe ? packed.clone()
+                                        : TemporalDelta.encode(packed, previous[i], raster.getTransferType()),
+                                raster.getTransferType(), raster.getWidth(), raster.getHeight())));
+                        previous[i] = packed;
+                    }
+                    dataFileWriter.append(new org.n52.tsf.serialization.avro.gen.raster.TimeStep(times[step], keyframe, samples));
+                    pixelCount += (long) raster.getWidth() * raster.getHeight();
+                }
+            }
+        } finally {
+            dataFileWriter.close();
+        }
+        if (countingStream != null) {
+            CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, pixelCount, countingStream.getCount());
+        }
     }
 
     public void setMetaData(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder, File geotifFile, File tfwFile) throws IOException, FactoryException {
-        GeoTiffReader fileReader = new GeoTiffReader(geotifFile);
-        GeoTiffIIOMetadataDecoder metadata = fileReader.getMetadata();
-        AbstractGridFormat format = GridFormatFinder.findFormat(geotifFile);
-        GridCoverage2DReader reader = format.getReader(geotifFile);
-        GridEnvelope dimensions = reader.getOriginalGridRange();
-        GridCoordinates maxDimensions = dimensions.getHigh();
-        GridCoverage2D coverage = reader.read(null);
-        gridBuilder.setMaxWidth(maxDimensions.getCoordinateValue(0) + 1);
-        gridBuilder.setMaxHight(maxDimensions.getCoordinateValue(1) + 1);
-        gridBuilder.setSourceCrs(CRS.lookupIdentifier(coverage.getCoordinateReferenceSystem(), true));
+        try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+            GridCoverage2D coverage = setHeader(gridBuilder, geoTiff, tfwFile);
+            setBands(gridBuilder, coverage, false);
+        }
+    }
+
+    private GridCoverage2D setHeader(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder, GeoTiffSource geoTiff,
+                                     File tfwFile) throws IOException, FactoryException {
+        GeoTiffIIOMetadataDecoder metadata = geoTiff.getMetadata();
+        GridCoverage2D coverage = geoTiff.read();
+        gridBuilder.setMaxWidth(geoTiff.getWidth());
+        gridBuilder.setMaxHight(geoTiff.getHeight());
+        setSourceCrs(gridBuilder, geoTiff.getCoordinateReferenceSystem());
         gridBuilder.setColorSpace(coverage.getRenderedImage().getColorModel().getColorSpace().getType());
 
         List<org.n52.tsf.serialization.avro.gen.raster.GridPoint> gridPoints = new ArrayList<>();
@@ -123,38 +703,70 @@ public class AvroCovDataSerializationHandler {
         }
         gridBuilder.setPixelScale(pixelScale.build());
         setTFWData(gridBuilder, tfwFile);
+        return coverage;
     }
 
-    private void transformGridToWorld(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder, File geotifFile) throws IOException, TransformException, FactoryException {
-        AbstractGridFormat format = GridFormatFinder.findFormat(geotifFile);
-        GridCoverage2DReader reader = format.getReader(geotifFile);
-        GridEnvelope dimensions = reader.getOriginalGridRange();
-        GridCoordinates maxDimensions = dimensions.getHigh();
-        int w = maxDimensions.getCoordinateValue(0) + 1;
-        int h = maxDimensions.getCoordinateValue(1) + 1;
-        GridCoverage2D coverage = reader.read(null);
-        GridGeometry2D geometry = coverage.getGridGeometry();
-        List<org.n52.tsf.serialization.avro.gen.raster.GridPoint> gridPoints = new ArrayList<>();
-        for (int i = 0; i < w; i++) {
-            for (int j = 0; j < h; j++) {
-
-                org.geotools.geometry.Envelope2D pixelEnvelop =
-                        geometry.gridToWorld(new GridEnvelope2D(i, j, 1, 1));
+    private void setBands(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder, GridCoverage2D coverage,
+                          boolean computeStatistics) {
+        Raster raster = RasterBands.getRaster(coverage.getRenderedImage());
+        org.n52.tsf.serialization.avro.gen.raster.DataType dataType =
+                org.n52.tsf.serialization.avro.gen.raster.DataType.valueOf(RasterBands.dataTypeName(raster.getTransferType()));
+        gridBuilder.setSampleModel(createSampleModel(raster.getSampleModel(), dataType, raster.getWidth(), raster.getHeight()));
+        List<org.n52.tsf.serialization.avro.gen.raster.Band> bands = new ArrayList<>(raster.getNumBands());
+        for (int i = 0; i < raster.getNumBands(); i++) {
+            org.n52.tsf.serialization.avro.gen.raster.Band.Builder band = createBand(coverage, i, dataType);
+            BandStatistics statistics = computeStatistics ? new BandStatistics(isIntegral(raster.getTransferType()),
+                    band.getNoData() != null ? band.getNoData() : NaN) : null;
+            band.setSamples(ByteBuffer.wrap(RasterBands.pack(raster, i, statistics)));
+            if (statistics != null) {
+                band.setStatistics(createStatistics(statistics));
+            }
+            bands.add(band.build());
+        }
+        gridBuilder.setBands(bands);
+    }
 
-                double latitude = pixelEnvelop.getCenterX();
-                double longitude = pixelEnvelop.getCenterY();
+    private static boolean isIntegral(int dataType) {
+        return dataType != DataBuffer.TYPE_FLOAT && dataType != DataBuffer.TYPE_DOUBLE;
+    }
 
-                org.n52.tsf.serialization.avro.gen.raster.GridPoint.Builder gridPoint =
-                        org.n52.tsf.serialization.avro.gen.raster.GridPoint.newBuilder();
-                gridPoint.setLatitude(latitude);
-                gridPoint.setLongitude(longitude);
-                gridPoints.add(gridPoint.build());
-            }
+    private org.n52.tsf.serialization.avro.gen.raster.BandStatistics createStatistics(BandStatistics statistics) {
+        List<Long> histogram = new ArrayList<>(BandStatistics.HISTOGRAM_BINS);
+        for (long binCount : statistics.getHistogram()) {
+            histogram.add(binCount);
         }
+        return new org.n52.tsf.serialization.avro.gen.raster.BandStatistics(statistics.getCount(),
+                statistics.getNoDataCount(), statistics.getMin(), statistics.getMax(), statistics.getMean(),
+                statistics.getStdDev(), statistics.getHistogramMin(), statistics.getHistogramBinWidth(), histogram);
+    }
 
+    private org.n52.tsf.serialization.avro.gen.raster.SampleModel createSampleModel(
+            SampleModel sampleModel, org.n52.tsf.serialization.avro.gen.raster.DataType dataType, int width, int height) {
+        org.n52.tsf.serialization.avro.gen.raster.SampleModel.Builder avroSampleModel =
+                org.n52.tsf.serialization.avro.gen.raster.SampleModel.newBuilder();
+        avroSampleModel.setDataType(dataType);
+        avroSampleModel.setWidth(width);
+        avroSampleModel.setHeight(height);
+        avroSampleModel.setNumBands(sampleModel.getNumBands());
+        avroSampleModel.setType(org.n52.tsf.serialization.avro.gen.raster.SampleModelType.valueOf(
+                RasterBands.sampleModelTypeName(sampleModel)));
+        return avroSampleModel.build();
+    }
+
+    private org.n52.tsf.serialization.avro.gen.raster.Band.Builder createBand(
+            GridCoverage2D coverage, int index, org.n52.tsf.serialization.avro.gen.raster.DataType dataType) {
+        org.n52.tsf.serialization.avro.gen.raster.Band.Builder band = org.n52.tsf.serialization.avro.gen.raster.Band.newBuilder();
+        band.setDataType(dataType);
+        double[] noData = coverage.getSampleDimension(index).getNoDataValues();
+        band.setNoData(noData != null && noData.length > 0 ? noData[0] : null);
+        return band;
+    }
+
+    private void setGridToWorldHeader(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder,
+                                      GridCoverage2D coverage, int w, int h) throws IOException, FactoryException {
         gridBuilder.setMaxWidth(w);
         gridBuilder.setMaxHight(h);
-        gridBuilder.setSourceCrs(CRS.lookupIdentifier(coverage.getCoordinateReferenceSystem(), true));
+        setSourceCrs(gridBuilder, coverage.getCoordinateReferenceSystem());
         gridBuilder.setColorSpace(coverage.getRenderedImage().getColorModel().getColorSpace().getType());
 
         List<org.n52.tsf.serialization.avro.gen.raster.TiePoint> tiePoints = new ArrayList<>();
@@ -165,7 +777,6 @@ public class AvroCovDataSerializationHandler {
         pixelScale.setScaleY(NaN);
         pixelScale.setScaleZ(NaN);
         gridBuilder.setPixelScale(pixelScale.build());
-        gridBuilder.setGridPoints(gridPoints);
         setTFWData(gridBuilder, null);
     }
 
@@ -187,4 +798,11 @@ public class AvroCovDataSerializationHandler {
             avroBuilder.setYRotation(NaN);
         }
     }
+
+    private void setSourceCrs(org.n52.tsf.serialization.avro.gen.raster.Grid.Builder gridBuilder, CoordinateReferenceSystem crs) throws FactoryException {
+        gridBuilder.setSourceCrs(CrsCache.lookupIdentifier(crs));
+        if (embedCrsWkt) {
+            gridBuilder.setSourceCrsWkt(crs.toWKT());
+        }
+    }
 }
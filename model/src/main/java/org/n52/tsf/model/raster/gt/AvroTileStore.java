@@ -0,0 +1,112 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Random access to the tiles of a tile store written by {@link AvroCovDataSerializationHandler#serializeTileStore}.
+ * The store is memory mapped once on open, a tile is located with one lookup in the offset index and decoded from the
+ * mapping without touching any other tile. A store can be read from concurrent threads.
+ */
+public final class AvroTileStore implements Closeable {
+    private final TileStoreReader reader;
+    private final org.n52.tsf.serialization.avro.gen.raster.Grid grid;
+    private final TileStoreLayout layout;
+
+    private AvroTileStore(TileStoreReader reader, org.n52.tsf.serialization.avro.gen.raster.Grid grid) throws IOException {
+        this.reader = reader;
+        this.grid = grid;
+        this.layout = layout(grid);
+        if (layout.size() != reader.getEntryCount()) {
+            throw new IOException("Tile index of " + reader.getEntryCount() + " entries does not match the header");
+        }
+    }
+
+    public static AvroTileStore open(Path storeFile) throws IOException {
+        TileStoreReader reader = TileStoreReader.open(storeFile);
+        try {
+            return new AvroTileStore(reader, org.n52.tsf.serialization.avro.gen.raster.Grid.fromByteBuffer(reader.getHeader()));
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the tiled header of the coverage, whose bands hold no samples.
+     */
+    public org.n52.tsf.serialization.avro.gen.raster.Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Number of levels, the full resolution and its overviews.
+     */
+    public int getLevelCount() {
+        return layout.getLevelCount();
+    }
+
+    public int getColumns(int level) {
+        return layout.getColumns(level);
+    }
+
+    public int getRows(int level) {
+        return layout.getRows(level);
+    }
+
+    public org.n52.tsf.serialization.avro.gen.raster.Tile getTile(int level, int column, int row) throws IOException {
+        return org.n52.tsf.serialization.avro.gen.raster.Tile.fromByteBuffer(reader.getTile(layout.entry(level, column, row)));
+    }
+
+    /**
+     * Returns the statistics of the whole bands kept in the footer of a store written with statistics, or an empty list
+     * if the store has none. The statistics of a single tile are stored with the tile.
+     */
+    public List<org.n52.tsf.serialization.avro.gen.raster.BandStatistics> getStatistics() throws IOException {
+        ByteBuffer footer = reader.getFooter();
+        return footer == null ? Collections.<org.n52.tsf.serialization.avro.gen.raster.BandStatistics>emptyList()
+                : org.n52.tsf.serialization.avro.gen.raster.Tile.fromByteBuffer(footer).getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static TileStoreLayout layout(org.n52.tsf.serialization.avro.gen.raster.Grid grid) {
+        List<org.n52.tsf.serialization.avro.gen.raster.Overview> overviews = grid.getOverviews();
+        int[] widths = new int[overviews.size() + 1];
+        int[] heights = new int[widths.length];
+        widths[0] = grid.getSampleModel().getWidth();
+        heights[0] = grid.getSampleModel().getHeight();
+        for (int i = 1; i < widths.length; i++) {
+            widths[i] = overviews.get(i - 1).getWidth();
+            heights[i] = overviews.get(i - 1).getHeight();
+        }
+        return new TileStoreLayout(grid.getTileWidth(), grid.getTileHeight(), widths, heights);
+    }
+}
@@ -0,0 +1,86 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridGeometry2D;
+import org.geotools.referencing.CRS;
+
+import java.awt.image.SampleModel;
+import java.io.File;
+import java.util.List;
+
+/**
+ * The grid shared by the coverages of a series, taken from its first coverage. Every later coverage must match it,
+ * since only the header of the first one is written and the samples of a step are differenced against the previous.
+ */
+final class CoverageSeries {
+    private static final double ENVELOPE_TOLERANCE = 1e-9;
+
+    private final GridGeometry2D gridGeometry;
+    private final SampleModel sampleModel;
+
+    CoverageSeries(GridCoverage2D first) {
+        this.gridGeometry = first.getGridGeometry();
+        this.sampleModel = first.getRenderedImage().getSampleModel();
+    }
+
+    static void checkArguments(List<File> geotifFiles, long[] times, int keyframeInterval) {
+        if (geotifFiles.isEmpty()) {
+            throw new IllegalArgumentException("Empty coverage series");
+        }
+        if (times.length != geotifFiles.size()) {
+            throw new IllegalArgumentException(times.length + " times for " + geotifFiles.size() + " coverages");
+        }
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Invalid keyframe interval " + keyframeInterval);
+        }
+    }
+
+    static long[] indexTimes(int count) {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = i;
+        }
+        return times;
+    }
+
+    static boolean isKeyframe(int step, int keyframeInterval) {
+        return step % keyframeInterval == 0;
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} unless the coverage has the size, bands, data type, envelope and
+     * CRS of the first coverage of the series.
+     */
+    void check(GridCoverage2D coverage, File geotifFile) {
+        GridGeometry2D other = coverage.getGridGeometry();
+        SampleModel otherSampleModel = coverage.getRenderedImage().getSampleModel();
+        if (!gridGeometry.getGridRange2D().getBounds().equals(other.getGridRange2D().getBounds())
+                || sampleModel.getNumBands() != otherSampleModel.getNumBands()
+                || sampleModel.getTransferType() != otherSampleModel.getTransferType()
+                || !gridGeometry.getEnvelope2D().boundsEquals(other.getEnvelope2D(), 0, 1, ENVELOPE_TOLERANCE)
+                || !CRS.equalsIgnoreMetadata(gridGeometry.getCoordinateReferenceSystem2D(),
+                        other.getCoordinateReferenceSystem2D())) {
+            throw new IllegalArgumentException(geotifFile + " does not match the grid of the first coverage of the series");
+        }
+    }
+}
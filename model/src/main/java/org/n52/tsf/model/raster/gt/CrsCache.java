@@ -0,0 +1,225 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import org.apache.log4j.Logger;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.operation.matrix.GeneralMatrix;
+import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded caches of decoded coordinate reference systems, their identifiers and the grid to world transforms of
+ * the coverage codecs. {@link CRS#decode(String)} queries the EPSG database and
+ * {@link CRS#lookupIdentifier(org.opengis.referencing.IdentifiedObject, boolean)} scans it, which usually costs
+ * more than decoding the coverage itself. Each cache keeps about its {@link #MAX_ENTRIES} most recently used
+ * entries. A hit only reads a concurrent map, a miss computes its value once even if several threads miss the same
+ * key at the same time. The comma separated codes of the {@link #WARM_UP_PROPERTY} system property are decoded when the class is loaded.
+ */
+public final class CrsCache {
+    public static final int MAX_ENTRIES = 256;
+    public static final String WARM_UP_PROPERTY = "org.n52.tsf.crs.warmup";
+
+    private final static Logger logger = Logger.getLogger(CrsCache.class);
+
+    private static final Cache<String, CoordinateReferenceSystem> decoded = new Cache<>();
+    private static final Cache<String, CoordinateReferenceSystem> parsed = new Cache<>();
+    private static final Cache<CoordinateReferenceSystem, String> identifiers = new Cache<>();
+    private static final Cache<GeneralMatrix, MathTransform> transforms = new Cache<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    static {
+        String codes = System.getProperty(WARM_UP_PROPERTY);
+        if (codes != null) {
+            for (String code : codes.split(",")) {
+                try {
+                    warmUp(code.trim());
+                } catch (FactoryException e) {
+                    logger.warn("Unable to decode the warm up CRS " + code, e);
+                }
+            }
+        }
+    }
+
+    private CrsCache() {
+    }
+
+    /**
+     * Decodes the CRS codes and their identifiers ahead of the first coverage which uses them.
+     */
+    public static void warmUp(String... codes) throws FactoryException {
+        for (String code : codes) {
+            if (!code.isEmpty()) {
+                lookupIdentifier(decode(code));
+            }
+        }
+    }
+
+    /**
+     * Returns the CRS of the code like {@link CRS#decode(String)}.
+     */
+    public static CoordinateReferenceSystem decode(String code) throws FactoryException {
+        return decoded.get(code, CRS::decode);
+    }
+
+    /**
+     * Returns the CRS of the well known text like {@link CRS#parseWKT(String)}, without querying the EPSG database.
+     */
+    public static CoordinateReferenceSystem parse(String wkt) throws FactoryException {
+        return parsed.get(wkt, CRS::parseWKT);
+    }
+
+    /**
+     * Returns the full identifier of the CRS like {@link CRS#lookupIdentifier(org.opengis.referencing.IdentifiedObject,
+     * boolean)} with a full scan, null if none is found.
+     */
+    public static String lookupIdentifier(CoordinateReferenceSystem crs) throws FactoryException {
+        return identifiers.get(crs, key -> CRS.lookupIdentifier(key, true));
+    }
+
+    /**
+     * Returns the transform of the matrix like {@link ProjectiveTransform#create(org.opengis.referencing.operation.Matrix)}.
+     * The matrix must not be modified afterwards.
+     */
+    public static MathTransform transform(GeneralMatrix matrix) {
+        return transforms.get(matrix, ProjectiveTransform::create);
+    }
+
+    /**
+     * Number of lookups served from one of the caches.
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups which had to decode, parse, scan or create their result.
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    public static void clear() {
+        decoded.clear();
+        parsed.clear();
+        identifiers.clear();
+        transforms.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Computes the value of a key missing from a cache.
+     */
+    private interface Loader<K, V, E extends Exception> {
+        V load(K key) throws E;
+    }
+
+    /**
+     * Carries the checked exception of a loader out of {@link ConcurrentHashMap#computeIfAbsent}.
+     */
+    private static final class LoaderException extends RuntimeException {
+        LoaderException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Concurrent map of at most about {@link #MAX_ENTRIES} entries. Every hit stamps its entry with the time of the
+     * access and a miss which grows the map beyond the bound evicts the entries accessed longest ago. Null values are
+     * not cached.
+     */
+    private static final class Cache<K, V> {
+        private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+        <E extends Exception> V get(K key, Loader<K, V, E> loader) throws E {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                entry.lastAccess = System.nanoTime();
+                return entry.value;
+            }
+            boolean[] loaded = new boolean[1];
+            try {
+                entry = entries.computeIfAbsent(key, k -> {
+                    loaded[0] = true;
+                    misses.increment();
+                    try {
+                        V value = loader.load(k);
+                        return value == null ? null : new Entry<>(value);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new LoaderException(e);
+                    }
+                });
+            } catch (LoaderException e) {
+                @SuppressWarnings("unchecked")
+                E cause = (E) e.getCause();
+                throw cause;
+            }
+            if (!loaded[0]) {
+                // another thread loaded the value while this one waited for it
+                hits.increment();
+            } else if (entries.size() > MAX_ENTRIES) {
+                evict();
+            }
+            return entry == null ? null : entry.value;
+        }
+
+        void clear() {
+            entries.clear();
+        }
+
+        private void evict() {
+            while (entries.size() > MAX_ENTRIES) {
+                K eldest = null;
+                long eldestAccess = Long.MAX_VALUE;
+                for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+                    if (entry.getValue().lastAccess < eldestAccess) {
+                        eldest = entry.getKey();
+                        eldestAccess = entry.getValue().lastAccess;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                entries.remove(eldest);
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess = System.nanoTime();
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster.gt;
+
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.io.AbstractGridFormat;
+import org.geotools.coverage.grid.io.GridCoverage2DReader;
+import org.geotools.coverage.grid.io.GridFormatFinder;
+import org.geotools.coverage.grid.io.imageio.geotiff.GeoTiffIIOMetadataDecoder;
+import org.geotools.gce.geotiff.GeoTiffReader;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A GeoTIFF opened once for serialization. The metadata, grid dimensions, CRS and coverage all come from a single
+ * {@link GeoTiffReader}, which is disposed together with the coverage on close. The grid format found for a file
+ * extension is cached, so that the format probing is done once per extension rather than once per file.
+ */
+public final class GeoTiffSource implements Closeable {
+    private static final ConcurrentMap<String, AbstractGridFormat> FORMATS = new ConcurrentHashMap<>();
+
+    private final GeoTiffReader reader;
+    private GridCoverage2D coverage;
+
+    private GeoTiffSource(GeoTiffReader reader) {
+        this.reader = reader;
+    }
+
+    public static GeoTiffSource open(File geotifFile) throws IOException {
+        String extension = extension(geotifFile);
+        AbstractGridFormat format = FORMATS.get(extension);
+        GridCoverage2DReader reader = format != null ? format.getReader(geotifFile) : null;
+        if (reader == null) {
+            format = GridFormatFinder.findFormat(geotifFile);
+            reader = format.getReader(geotifFile);
+            if (reader instanceof GeoTiffReader) {
+                FORMATS.putIfAbsent(extension, format);
+            }
+        }
+        if (reader instanceof GeoTiffReader) {
+            return new GeoTiffSource((GeoTiffReader) reader);
+        }
+        if (reader != null) {
+            reader.dispose();
+        }
+        return new GeoTiffSource(new GeoTiffReader(geotifFile));
+    }
+
+    private static String extension(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    public GeoTiffIIOMetadataDecoder getMetadata() {
+        return reader.getMetadata();
+    }
+
+    public int getWidth() {
+        return reader.getOriginalGridRange().getHigh().getCoordinateValue(0) + 1;
+    }
+
+    public int getHeight() {
+        return reader.getOriginalGridRange().getHigh().getCoordinateValue(1) + 1;
+    }
+
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return reader.getCoordinateReferenceSystem();
+    }
+
+    /**
+     * Returns the coverage, reading it on the first call.
+     */
+    public GridCoverage2D read() throws IOException {
+        if (coverage == null) {
+            coverage = reader.read(null);
+        }
+        return coverage;
+    }
+
+    @Override
+    public void close() {
+        if (coverage != null) {
+            coverage.dispose(true);
+        }
+        reader.dispose();
+    }
+}
@@ -0,0 +1,70 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import org.geotools.geometry.GeneralEnvelope;
+import org.geotools.referencing.CRS;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+import java.awt.Rectangle;
+
+/**
+ * Converts the windows of windowed coverage reads into pixel rectangles of the full resolution grid.
+ */
+final class GridWindows {
+    // tolerance for window edges which fall on pixel edges up to rounding errors of the inverse transform
+    private static final double EDGE_TOLERANCE = 1e-6;
+
+    private GridWindows() {
+    }
+
+    /**
+     * Returns the pixels of the grid which the envelope touches. An envelope in a CRS other than the coverage CRS is
+     * transformed into the coverage CRS first.
+     */
+    static Rectangle toPixels(Envelope window, MathTransform gridToWorld, CoordinateReferenceSystem crs,
+                              Rectangle bounds) throws TransformException {
+        CoordinateReferenceSystem windowCrs = window.getCoordinateReferenceSystem();
+        if (windowCrs != null && crs != null && !CRS.equalsIgnoreMetadata(windowCrs, crs)) {
+            window = CRS.transform(window, crs);
+        }
+        GeneralEnvelope pixels = CRS.transform(gridToWorld.inverse(), window);
+        int minX = (int) Math.floor(pixels.getMinimum(0) + EDGE_TOLERANCE);
+        int minY = (int) Math.floor(pixels.getMinimum(1) + EDGE_TOLERANCE);
+        int maxX = (int) Math.ceil(pixels.getMaximum(0) - EDGE_TOLERANCE);
+        int maxY = (int) Math.ceil(pixels.getMaximum(1) - EDGE_TOLERANCE);
+        return clip(new Rectangle(minX, minY, Math.max(maxX - minX, 1), Math.max(maxY - minY, 1)), bounds);
+    }
+
+    /**
+     * Returns the part of the pixel window inside the grid bounds.
+     */
+    static Rectangle clip(Rectangle window, Rectangle bounds) {
+        Rectangle pixels = window.intersection(bounds);
+        if (pixels.isEmpty()) {
+            throw new IllegalArgumentException("Window " + window + " does not intersect the grid " + bounds);
+        }
+        return pixels;
+    }
+}
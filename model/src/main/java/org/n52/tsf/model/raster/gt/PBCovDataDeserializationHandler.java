@@ -19,46 +19,462 @@
 
 package org.n52.tsf.model.raster.gt;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import org.geotools.coverage.grid.GridCoverage2D;
 import org.geotools.coverage.grid.GridCoverageFactory;
 import org.geotools.geometry.GeneralEnvelope;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.operation.matrix.GeneralMatrix;
-import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.geotools.resources.coverage.CoverageUtilities;
+import org.n52.tsf.model.raster.BandStatistics;
+import org.n52.tsf.model.raster.RasterBands;
+import org.n52.tsf.model.raster.TemporalDelta;
+import org.n52.tsf.model.raster.TileCodec;
+import org.n52.tsf.model.raster.gt.beans.CoverageTimeStep;
 import org.n52.tsf.model.raster.gt.beans.GeoPoint;
+import org.n52.tsf.model.raster.gt.beans.GeoPointArray;
 import org.n52.tsf.serialization.protobuf.gen.GeoProtobufCov;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.operation.MathTransform;
 
+import javax.media.jai.TiledImage;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
  * This class provides the Geotools coverage data to ProtoBuf Deserialization functionality.
  */
 public class PBCovDataDeserializationHandler {
+    private final Executor executor;
+    private final int parallelism;
+
+    public PBCovDataDeserializationHandler() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a handler which decodes the tiles of tiled coverages on the given executor with at most parallelism
+     * tiles per worker in flight.
+     */
+    public PBCovDataDeserializationHandler(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
 
     public GridCoverage2D deserialize(String covName, InputStream inputStream) throws Exception {
         GeoProtobufCov.Grid pbGrid = GeoProtobufCov.Grid.parseFrom(inputStream);
+        RenderedImage image;
+        if (pbGrid.getBandsCount() > 0) {
+            List<ByteBuffer> bands = new ArrayList<>(pbGrid.getBandsCount());
+            for (GeoProtobufCov.Band band : pbGrid.getBandsList()) {
+                bands.add(band.getSamples().asReadOnlyByteBuffer());
+            }
+            image = createImage(pbGrid, bands);
+        } else {
+            image = new BufferedImage(pbGrid.getMaxWidth(), pbGrid.getMaxHight(), pbGrid.getColorSpace());
+        }
+        return createCoverage(covName, pbGrid, image);
+    }
+
+    /**
+     * Deserializes the full resolution of a coverage written by {@link PBCovDataSerializationHandler#serializeTiled}.
+     * Tiles are parsed one at a time, then decoded and unpacked into the matching tile of the coverage image on the
+     * executor.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream) throws Exception {
+        GeoProtobufCov.Grid pbGrid = readTiledHeader(inputStream);
+        return readLevel(covName, pbGrid, createEnvelope(pbGrid), 0, inputStream);
+    }
+
+    /**
+     * Deserializes the coarsest level of a tiled coverage whose resolution is at least the target resolution, given in
+     * units of the coverage CRS per pixel. The resolution of a level is the geometric mean of its pixel sizes along
+     * both axes. The full resolution is returned if no overview is fine enough. The tiles of the finer levels in front
+     * of it are skipped without being parsed and those of coarser levels are not read.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream, double targetResolution) throws Exception {
+        GeoProtobufCov.Grid pbGrid = readTiledHeader(inputStream);
+        GeneralEnvelope envelope = createEnvelope(pbGrid);
+        int level = 0;
+        for (int i = 0; i < pbGrid.getOverviewsCount(); i++) {
+            GeoProtobufCov.Overview overview = pbGrid.getOverviews(i);
+            if (resolution(envelope, overview.getWidth(), overview.getHeight()) > targetResolution) {
+                break;
+            }
+            level = i + 1;
+        }
+        return readLevel(covName, pbGrid, envelope, level, inputStream);
+    }
+
+    /**
+     * Deserializes the part of the full resolution of a tiled coverage which covers the window. The window is given
+     * in world coordinates and transformed into the coverage CRS if it has a different CRS. Only the tiles which
+     * intersect the window are decoded and reading stops after the last of them. The returned coverage spans the
+     * pixels touched by the window, its image keeps their position in the full grid.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream, Envelope window) throws Exception {
+        GeoProtobufCov.Grid pbGrid = readTiledHeader(inputStream);
+        Rectangle pixels = GridWindows.toPixels(window, createMathTransform(pbGrid), createCrs(pbGrid),
+                levelBounds(pbGrid, 0));
+        return readLevel(covName, pbGrid, createEnvelope(pbGrid, pixels), 0, pixels, inputStream);
+    }
+
+    /**
+     * Deserializes the part of the full resolution of a tiled coverage which covers the window, given in pixels of the
+     * full grid, like {@link #deserializeTiled(String, InputStream, Envelope)}.
+     */
+    public GridCoverage2D deserializeTiled(String covName, InputStream inputStream, Rectangle pixelWindow) throws Exception {
+        GeoProtobufCov.Grid pbGrid = readTiledHeader(inputStream);
+        Rectangle pixels = GridWindows.clip(pixelWindow, levelBounds(pbGrid, 0));
+        return readLevel(covName, pbGrid, createEnvelope(pbGrid, pixels), 0, pixels, inputStream);
+    }
+
+    /**
+     * Deserializes the part of the full resolution of a tile store which covers the window, given in pixels of the full
+     * grid. Only the tiles which intersect the window are fetched from the store.
+     */
+    public GridCoverage2D deserializeTiled(String covName, PBTileStore store, Rectangle pixelWindow) throws Exception {
+        return readWindow(covName, store, 0, GridWindows.clip(pixelWindow, levelBounds(store.getGrid(), 0)));
+    }
+
+    /**
+     * Deserializes a single tile of a tile store as a coverage of its pixels, level 0 being the full resolution and
+     * level n the n-th overview.
+     */
+    public GridCoverage2D deserializeTile(String covName, PBTileStore store, int level, int column, int row) throws Exception {
+        if (level < 0 || level >= store.getLevelCount()) {
+            throw new IllegalArgumentException("No level " + level + " in the tile store");
+        }
+        GeoProtobufCov.Grid pbGrid = store.getGrid();
+        Rectangle tile = new Rectangle(column * pbGrid.getTileWidth(), row * pbGrid.getTileHeight(), pbGrid.getTileWidth(),
+                pbGrid.getTileHeight());
+        return readWindow(covName, store, level, GridWindows.clip(tile, levelBounds(pbGrid, level)));
+    }
+
+    /**
+     * Deserializes all steps of a coverage series written by {@link PBCovDataSerializationHandler#serializeSeries}.
+     * Each step is restored from the samples of the previous step and returned as a coverage of its own.
+     */
+    public List<CoverageTimeStep> deserializeSeries(String covName, InputStream inputStream) throws Exception {
+        GeoProtobufCov.Grid pbGrid = readSeriesHeader(inputStream);
+        GeneralEnvelope envelope = createEnvelope(pbGrid);
+        List<CoverageTimeStep> steps = new ArrayList<>();
+        byte[][] samples = new byte[pbGrid.getBandsCount()][];
+        GeoProtobufCov.TimeStep timeStep;
+        while ((timeStep = GeoProtobufCov.TimeStep.parseDelimitedFrom(inputStream)) != null) {
+            decodeTimeStep(pbGrid, timeStep, samples);
+            steps.add(new CoverageTimeStep(timeStep.getTime(), createCoverage(covName, pbGrid, envelope,
+                    createImage(pbGrid, bands(samples)))));
+        }
+        return steps;
+    }
+
+    /**
+     * Deserializes a single step of a coverage series. The steps before the keyframe preceding it are parsed but not
+     * decoded, only the keyframe and the deltas up to the step are.
+     */
+    public CoverageTimeStep deserializeSeries(String covName, InputStream inputStream, int step) throws Exception {
+        if (step < 0) {
+            throw new IllegalArgumentException("Invalid series step " + step);
+        }
+        GeoProtobufCov.Grid pbGrid = readSeriesHeader(inputStream);
+        int keyframe = step - step % pbGrid.getKeyframeInterval();
+        byte[][] samples = new byte[pbGrid.getBandsCount()][];
+        for (int i = 0; ; i++) {
+            GeoProtobufCov.TimeStep timeStep = GeoProtobufCov.TimeStep.parseDelimitedFrom(inputStream);
+            if (timeStep == null) {
+                throw new IOException("Series ends before step " + step);
+            }
+            if (i >= keyframe) {
+                decodeTimeStep(pbGrid, timeStep, samples);
+            }
+            if (i == step) {
+                return new CoverageTimeStep(timeStep.getTime(), createCoverage(covName, pbGrid,
+                        createImage(pbGrid, bands(samples))));
+            }
+        }
+    }
+
+    /**
+     * Reads the statistics of the whole bands of a tiled coverage written with statistics from the bands of its header,
+     * without reading any tile. Bands without statistics are returned as null.
+     */
+    public List<BandStatistics> deserializeTiledStatistics(InputStream inputStream) throws IOException {
+        GeoProtobufCov.Grid pbGrid = readTiledHeader(inputStream);
+        List<BandStatistics> statistics = new ArrayList<>(pbGrid.getBandsCount());
+        for (GeoProtobufCov.Band band : pbGrid.getBandsList()) {
+            statistics.add(band.hasStatistics() ? createStatistics(band.getStatistics()) : null);
+        }
+        return statistics;
+    }
+
+    /**
+     * Reads the statistics of the whole bands from the footer of a tile store written with statistics. Bands without
+     * statistics are returned as null.
+     */
+    public List<BandStatistics> deserializeTiledStatistics(PBTileStore store) throws IOException {
+        return createStatistics(store.getGrid().getBandsCount(), store.getStatistics());
+    }
+
+    private static List<BandStatistics> createStatistics(int bandCount, List<GeoProtobufCov.BandStatistics> pbStatistics) {
+        List<BandStatistics> statistics = new ArrayList<>(bandCount);
+        for (int i = 0; i < bandCount; i++) {
+            statistics.add(i < pbStatistics.size() ? createStatistics(pbStatistics.get(i)) : null);
+        }
+        return statistics;
+    }
+
+    private static void skipDelimited(InputStream inputStream) throws IOException {
+        int firstByte = inputStream.read();
+        if (firstByte < 0) {
+            throw new EOFException("Tiled coverage ends before the requested level");
+        }
+        long length = CodedInputStream.readRawVarint32(firstByte, inputStream);
+        while (length > 0) {
+            long skipped = inputStream.skip(length);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    throw new EOFException("Tiled coverage ends before the requested level");
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Converts stored statistics, either of a band or of one band of a tile.
+     */
+    public static BandStatistics createStatistics(GeoProtobufCov.BandStatistics pbStatistics) {
+        long[] histogram = new long[pbStatistics.getHistogramCount()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = pbStatistics.getHistogram(i);
+        }
+        return BandStatistics.of(pbStatistics.getCount(), pbStatistics.getNoDataCount(), pbStatistics.getMin(),
+                pbStatistics.getMax(), pbStatistics.getMean(), pbStatistics.getStddev(), pbStatistics.getHistogramMin(),
+                pbStatistics.getHistogramBinWidth(), histogram);
+    }
+
+    private GeoProtobufCov.Grid readTiledHeader(InputStream inputStream) throws IOException {
+        GeoProtobufCov.Grid pbGrid = GeoProtobufCov.Grid.parseDelimitedFrom(inputStream);
+        if (pbGrid == null || pbGrid.getTileWidth() <= 0 || pbGrid.getTileHeight() <= 0) {
+            throw new IOException("Stream does not start with a tiled grid header");
+        }
+        return pbGrid;
+    }
+
+    private GeoProtobufCov.Grid readSeriesHeader(InputStream inputStream) throws IOException {
+        GeoProtobufCov.Grid pbGrid = GeoProtobufCov.Grid.parseDelimitedFrom(inputStream);
+        if (pbGrid == null || pbGrid.getKeyframeInterval() <= 0) {
+            throw new IOException("Stream does not start with a coverage series header");
+        }
+        return pbGrid;
+    }
+
+    /**
+     * Replaces the samples of the previous step with the samples of the given step, decoding its bands with the codec
+     * of the header and adding them to the previous samples unless the step is a keyframe.
+     */
+    private static void decodeTimeStep(GeoProtobufCov.Grid pbGrid, GeoProtobufCov.TimeStep timeStep,
+                                       byte[][] samples) throws IOException {
+        if (timeStep.getBandsCount() != pbGrid.getBandsCount()) {
+            throw new IOException("Series step with " + timeStep.getBandsCount() + " bands instead of " + pbGrid.getBandsCount());
+        }
+        if (!timeStep.getKeyframe() && samples[0] == null) {
+            throw new IOException("Series does not start with a keyframe");
+        }
+        TileCodec codec = TileDecoder.codec(pbGrid.getPredictorValue(), pbGrid.getCompressionValue());
+        int dataType = RasterBands.dataType(pbGrid.getBands(0).getDataType().name());
+        GeoProtobufCov.SampleModel pbSampleModel = pbGrid.getSampleModel();
+        for (int i = 0; i < timeStep.getBandsCount(); i++) {
+            ByteBuffer decoded = codec.decode(timeStep.getBands(i).asReadOnlyByteBuffer(), dataType,
+                    pbSampleModel.getWidth(), pbSampleModel.getHeight());
+            if (timeStep.getKeyframe()) {
+                samples[i] = new byte[decoded.remaining()];
+                decoded.get(samples[i]);
+            } else {
+                samples[i] = TemporalDelta.decode(decoded, samples[i], dataType);
+            }
+        }
+    }
+
+    private static List<ByteBuffer> bands(byte[][] samples) {
+        List<ByteBuffer> bands = new ArrayList<>(samples.length);
+        for (byte[] band : samples) {
+            bands.add(ByteBuffer.wrap(band));
+        }
+        return bands;
+    }
+
+    private GridCoverage2D readLevel(String covName, GeoProtobufCov.Grid pbGrid, GeneralEnvelope envelope, int level,
+                                     InputStream inputStream) throws Exception {
+        return readLevel(covName, pbGrid, envelope, level, levelBounds(pbGrid, level), inputStream);
+    }
+
+    /**
+     * Reads the tiles of one level which intersect the window, given in pixels of the level. Levels are written
+     * finest first and tiles in row major order, so the tiles of the finer levels are skipped by their count and
+     * reading stops at the first tile of a coarser level or below the window.
+     */
+    private GridCoverage2D readLevel(String covName, GeoProtobufCov.Grid pbGrid, GeneralEnvelope envelope, int level,
+                                     Rectangle window, InputStream inputStream) throws Exception {
+        int tileWidth = pbGrid.getTileWidth();
+        int tileHeight = pbGrid.getTileHeight();
+        TiledImage image = createTiledImage(pbGrid, window);
+        TileDecoder decoder = new TileDecoder(image,
+                TileDecoder.codec(pbGrid.getPredictorValue(), pbGrid.getCompressionValue()), executor, parallelism);
+        int minColumn = window.x / tileWidth;
+        int maxColumn = (window.x + window.width - 1) / tileWidth;
+        int minRow = window.y / tileHeight;
+        int maxRow = (window.y + window.height - 1) / tileHeight;
+        int skipped = level == 0 ? 0 : PBTileStore.layout(pbGrid).entry(level, 0, 0);
+        for (int i = 0; i < skipped; i++) {
+            skipDelimited(inputStream);
+        }
+        GeoProtobufCov.Tile tile;
+        while ((tile = GeoProtobufCov.Tile.parseDelimitedFrom(inputStream)) != null && tile.getLevel() == level) {
+            if (tile.getRow() > maxRow) {
+                break;
+            }
+            if (tile.getRow() < minRow || tile.getColumn() < minColumn || tile.getColumn() > maxColumn) {
+                continue;
+            }
+            decoder.submit(tile.getColumn(), tile.getRow(), tile.getWidth(), tile.getHeight(), bands(tile));
+        }
+        decoder.finish();
+        return createCoverage(covName, pbGrid, envelope, image);
+    }
+
+    /**
+     * Fetches the tiles of one level which intersect the window, given in pixels of the level, from the store.
+     */
+    private GridCoverage2D readWindow(String covName, PBTileStore store, int level, Rectangle window) throws Exception {
+        GeoProtobufCov.Grid pbGrid = store.getGrid();
+        int tileWidth = pbGrid.getTileWidth();
+        int tileHeight = pbGrid.getTileHeight();
+        TiledImage image = createTiledImage(pbGrid, window);
+        TileDecoder decoder = new TileDecoder(image,
+                TileDecoder.codec(pbGrid.getPredictorValue(), pbGrid.getCompressionValue()), executor, parallelism);
+        for (int row = window.y / tileHeight; row <= (window.y + window.height - 1) / tileHeight; row++) {
+            for (int column = window.x / tileWidth; column <= (window.x + window.width - 1) / tileWidth; column++) {
+                GeoProtobufCov.Tile tile = store.getTile(level, column, row);
+                decoder.submit(column, row, tile.getWidth(), tile.getHeight(), bands(tile));
+            }
+        }
+        decoder.finish();
+        return createCoverage(covName, pbGrid, createEnvelope(pbGrid, toFullResolution(pbGrid, level, window)), image);
+    }
+
+    /**
+     * Returns the pixels of the full resolution grid which are covered by the given pixels of a level.
+     */
+    private static Rectangle2D toFullResolution(GeoProtobufCov.Grid pbGrid, int level, Rectangle window) {
+        if (level == 0) {
+            return window;
+        }
+        Rectangle bounds = levelBounds(pbGrid, level);
+        double scaleX = (double) pbGrid.getMaxWidth() / bounds.width;
+        double scaleY = (double) pbGrid.getMaxHight() / bounds.height;
+        return new Rectangle2D.Double(window.x * scaleX, window.y * scaleY, window.width * scaleX, window.height * scaleY);
+    }
+
+    private static TiledImage createTiledImage(GeoProtobufCov.Grid pbGrid, Rectangle bounds) {
+        return RasterBands.createImage(RasterBands.createSampleModel(
+                RasterBands.dataType(pbGrid.getBands(0).getDataType().name()), pbGrid.getTileWidth(),
+                pbGrid.getTileHeight(), pbGrid.getBandsCount(), pbGrid.getSampleModel().getType().name()), bounds);
+    }
+
+    private static List<ByteBuffer> bands(GeoProtobufCov.Tile tile) {
+        List<ByteBuffer> bands = new ArrayList<>(tile.getBandsCount());
+        for (ByteString band : tile.getBandsList()) {
+            bands.add(band.asReadOnlyByteBuffer());
+        }
+        return bands;
+    }
+
+    private static Rectangle levelBounds(GeoProtobufCov.Grid pbGrid, int level) {
+        return level == 0 ? new Rectangle(pbGrid.getSampleModel().getWidth(), pbGrid.getSampleModel().getHeight())
+                : new Rectangle(pbGrid.getOverviews(level - 1).getWidth(), pbGrid.getOverviews(level - 1).getHeight());
+    }
+
+    private static double resolution(GeneralEnvelope envelope, int width, int height) {
+        return Math.sqrt(envelope.getSpan(0) * envelope.getSpan(1) / ((double) width * height));
+    }
+
+    private GridCoverage2D createCoverage(String covName, GeoProtobufCov.Grid pbGrid, RenderedImage image) throws Exception {
+        return createCoverage(covName, pbGrid, createEnvelope(pbGrid), image);
+    }
+
+    private GridCoverage2D createCoverage(String covName, GeoProtobufCov.Grid pbGrid, GeneralEnvelope envelope,
+                                          RenderedImage image) {
         GridCoverageFactory factory = new GridCoverageFactory();
-        BufferedImage image = new BufferedImage(pbGrid.getMaxWidth(), pbGrid.getMaxHight(), pbGrid.getColorSpace());
-        ReferencedEnvelope rEnvelope = new ReferencedEnvelope(0, pbGrid.getMaxWidth(), 0, pbGrid.getMaxHight(), null);
-        MathTransform mathTransform;
+        Map<String, Object> properties = new HashMap<>();
+        if (pbGrid.getBandsCount() > 0 && pbGrid.getBands(0).getHasNoData()) {
+            CoverageUtilities.setNoDataProperty(properties, pbGrid.getBands(0).getNoData());
+        }
+        return factory.create(covName, image, envelope, null, null, properties);
+    }
+
+    private GeneralEnvelope createEnvelope(GeoProtobufCov.Grid pbGrid) throws Exception {
+        return createEnvelope(pbGrid, new Rectangle(pbGrid.getMaxWidth(), pbGrid.getMaxHight()));
+    }
+
+    /**
+     * Returns the world envelope of the given pixels of the full resolution grid.
+     */
+    private GeneralEnvelope createEnvelope(GeoProtobufCov.Grid pbGrid, Rectangle2D pixels) throws Exception {
+        ReferencedEnvelope rEnvelope = new ReferencedEnvelope(pixels.getMinX(), pixels.getMaxX(), pixels.getMinY(),
+                pixels.getMaxY(), null);
+        GeneralEnvelope envelope = CRS.transform(createMathTransform(pbGrid), rEnvelope);
+        envelope.setCoordinateReferenceSystem(createCrs(pbGrid));
+        return envelope;
+    }
+
+    private MathTransform createMathTransform(GeoProtobufCov.Grid pbGrid) {
         //TODO add model transformation support
         if (Double.isNaN(pbGrid.getXulc())) {
-            mathTransform = createMathtransformFromMetaData(pbGrid.getTiePoints(0), pbGrid.getPixelScale());
+            return createMathtransformFromMetaData(pbGrid.getTiePoints(0), pbGrid.getPixelScale());
         } else {
-            mathTransform = createMathtransformFromTfw(pbGrid);
+            return createMathtransformFromTfw(pbGrid);
         }
-        CoordinateReferenceSystem crs = CRS.decode(pbGrid.getSourceCrs());
-        GeneralEnvelope envelope = CRS.transform(mathTransform, rEnvelope);
-        envelope.setCoordinateReferenceSystem(crs);
+    }
 
-        return factory.create(covName, image, envelope);
+    private CoordinateReferenceSystem createCrs(GeoProtobufCov.Grid pbGrid) throws FactoryException {
+        return pbGrid.getSourceCrsWkt().isEmpty() ? CrsCache.decode(pbGrid.getSourceCrs())
+                : CrsCache.parse(pbGrid.getSourceCrsWkt());
+    }
+
+    private RenderedImage createImage(GeoProtobufCov.Grid pbGrid, List<ByteBuffer> bands) {
+        GeoProtobufCov.SampleModel pbSampleModel = pbGrid.getSampleModel();
+        TiledImage image = RasterBands.createImage(RasterBands.createSampleModel(
+                RasterBands.dataType(pbGrid.getBands(0).getDataType().name()), pbSampleModel.getWidth(),
+                pbSampleModel.getHeight(), pbGrid.getBandsCount(), pbSampleModel.getType().name()));
+        WritableRaster raster = image.getWritableTile(0, 0);
+        for (int i = 0; i < pbGrid.getBandsCount(); i++) {
+            RasterBands.unpack(bands.get(i), raster, i);
+        }
+        image.releaseWritableTile(0, 0);
+        return image;
     }
 
     public List<GeoPoint> deserializeToWorld(InputStream inputStream) throws IOException {
@@ -67,11 +483,45 @@ public class PBCovDataDeserializationHandler {
         if (pbGrid.getGridPointsList().size() > 0) {
             return pbGrid.getGridPointsList().
                     stream().map(this::createGeoPoint).collect(Collectors.toList());
+        } else if (pbGrid.hasGridToWorld()) {
+            return WorldPoints.fromAffine(createAffineTransform(pbGrid.getGridToWorld()), pbGrid.getMaxWidth(), pbGrid.getMaxHight());
+        } else if (!pbGrid.getWorldPoints().isEmpty()) {
+            return WorldPoints.fromPacked(pbGrid.getWorldPoints().asReadOnlyByteBuffer());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Deserializes the world points of the pixel centers into a {@link GeoPointArray} instead of one
+     * {@link GeoPoint} per pixel. Packed points are wrapped without copying.
+     */
+    public GeoPointArray deserializeToWorldArray(InputStream inputStream) throws IOException {
+        GeoProtobufCov.Grid pbGrid = GeoProtobufCov.Grid.parseFrom(inputStream);
+
+        if (pbGrid.getGridPointsCount() > 0) {
+            double[] points = new double[pbGrid.getGridPointsCount() * 2];
+            for (int i = 0; i < pbGrid.getGridPointsCount(); i++) {
+                GeoProtobufCov.GridPoint gridPoint = pbGrid.getGridPoints(i);
+                points[2 * i] = gridPoint.getLatitude();
+                points[2 * i + 1] = gridPoint.getLongitude();
+            }
+            return new GeoPointArray(points);
+        } else if (pbGrid.hasGridToWorld()) {
+            return new GeoPointArray(WorldPoints.toArray(createAffineTransform(pbGrid.getGridToWorld()),
+                    pbGrid.getMaxWidth(), pbGrid.getMaxHight()));
+        } else if (!pbGrid.getWorldPoints().isEmpty()) {
+            return new GeoPointArray(pbGrid.getWorldPoints().asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer());
         } else {
             return null;
         }
     }
 
+    private AffineTransform createAffineTransform(GeoProtobufCov.GridToWorld gridToWorld) {
+        return new AffineTransform(gridToWorld.getScaleX(), gridToWorld.getShearY(), gridToWorld.getShearX(),
+                gridToWorld.getScaleY(), gridToWorld.getTranslateX(), gridToWorld.getTranslateY());
+    }
+
     private MathTransform createMathtransformFromTfw(GeoProtobufCov.Grid pbGrid) {
         GeneralMatrix gm = new GeneralMatrix(3);
         gm.setElement(0, 0, pbGrid.getXPixelSize());
@@ -80,7 +530,7 @@ public class PBCovDataDeserializationHandler {
         gm.setElement(1, 0, pbGrid.getYRotation());
         gm.setElement(0, 2, pbGrid.getXulc());
         gm.setElement(1, 2, pbGrid.getYulc());
-        return ProjectiveTransform.create(gm);
+        return CrsCache.transform(gm);
     }
 
     public static MathTransform createMathtransformFromMetaData(GeoProtobufCov.TiePoint tiePoints, GeoProtobufCov.PixelScale pixScales) {
@@ -91,7 +541,7 @@ public class PBCovDataDeserializationHandler {
         gm.setElement(1, 0, 0);
         gm.setElement(0, 2, tiePoints.getValue(3));
         gm.setElement(1, 2, tiePoints.getValue(4));
-        return ProjectiveTransform.create(gm);
+        return CrsCache.transform(gm);
     }
 
     private GeoPoint createGeoPoint(GeoProtobufCov.GridPoint gridPoint) {
@@ -19,26 +19,49 @@
 
 package org.n52.tsf.model.raster.gt;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
 import org.geotools.coverage.grid.GridCoverage2D;
-import org.geotools.coverage.grid.GridEnvelope2D;
-import org.geotools.coverage.grid.GridGeometry2D;
-import org.geotools.coverage.grid.io.AbstractGridFormat;
-import org.geotools.coverage.grid.io.GridCoverage2DReader;
-import org.geotools.coverage.grid.io.GridFormatFinder;
 import org.geotools.coverage.grid.io.imageio.geotiff.GeoTiffIIOMetadataDecoder;
 import org.geotools.coverage.grid.io.imageio.geotiff.TiePoint;
 import org.geotools.data.WorldFileReader;
-import org.geotools.gce.geotiff.GeoTiffReader;
-import org.geotools.referencing.CRS;
+import org.n52.tsf.model.jfr.CodecEvents;
+import org.n52.tsf.model.raster.BandStatistics;
+import org.n52.tsf.model.raster.Compression;
+import org.n52.tsf.model.raster.OverviewPyramid;
+import org.n52.tsf.model.raster.Overviews;
+import org.n52.tsf.model.raster.Predictor;
+import org.n52.tsf.model.raster.RasterBands;
+import org.n52.tsf.model.raster.Resampling;
+import org.n52.tsf.model.raster.TemporalDelta;
+import org.n52.tsf.model.raster.TileCodec;
 import org.n52.tsf.serialization.protobuf.gen.GeoProtobufCov;
-import org.opengis.coverage.grid.GridCoordinates;
-import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.metadata.spatial.PixelOrientation;
 import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform2D;
 import org.opengis.referencing.operation.TransformException;
 
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.Double.NaN;
 
@@ -46,35 +69,488 @@ import static java.lang.Double.NaN;
  * This class provides the Geotools coverage data to ProtoBuf Serialization functionality.
  */
 public class PBCovDataSerializationHandler {
+    private static final String CODEC = "PROTOBUF_COVERAGE_SERIALIZER";
+    private static final String COVERAGE_TYPE = "GridCoverage2D";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean embedCrsWkt;
+
+    public PBCovDataSerializationHandler() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a handler which computes dense world coordinates on the given executor with at most parallelism
+     * bands of grid columns per worker in flight.
+     */
+    public PBCovDataSerializationHandler(Executor executor, int parallelism) {
+        this(executor, parallelism, false);
+    }
+
+    /**
+     * Creates a handler which, with embedCrsWkt, also stores the well known text of the source CRS so that the
+     * deserializer can parse it instead of decoding the CRS code from the EPSG database.
+     */
+    public PBCovDataSerializationHandler(Executor executor, int parallelism, boolean embedCrsWkt) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.embedCrsWkt = embedCrsWkt;
+    }
 
     public void serialize(File geotifFile, OutputStream outputStream, boolean serializeMetaData) throws Exception {
-        GeoProtobufCov.Grid.Builder gridBuilder = GeoProtobufCov.Grid.newBuilder();
+        serialize(geotifFile, outputStream, serializeMetaData, false);
+    }
+
+    /**
+     * Serializes the coverage like {@link #serialize(File, OutputStream, boolean)}. With computeStatistics the
+     * statistics and histogram of each band are computed while its samples are packed and stored with the band.
+     * Statistics need the band samples, so they cannot be computed without serializeMetaData.
+     */
+    public void serialize(File geotifFile, OutputStream outputStream, boolean serializeMetaData,
+                          boolean computeStatistics) throws Exception {
+        if (computeStatistics && !serializeMetaData) {
+            throw new IllegalArgumentException("Statistics are only computed when the metadata and samples are serialized");
+        }
         if (serializeMetaData) {
-            setMetaData(gridBuilder, geotifFile, null);
+            Object event = CodecEvents.beginEncode();
+            GeoProtobufCov.Grid.Builder gridBuilder = GeoProtobufCov.Grid.newBuilder();
+            try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+                GridCoverage2D coverage = setHeader(gridBuilder, geoTiff, null);
+                setBands(gridBuilder, coverage, computeStatistics);
+            }
+            writeGrid(gridBuilder, outputStream, event);
         } else {
-            transformGridToWorld(gridBuilder, geotifFile);
+            serialize(geotifFile, outputStream, GridToWorldEncoding.GRID_POINTS);
+        }
+    }
+
+    /**
+     * Serializes the world coordinates of the pixel centers of the coverage in the given encoding. Grid points and
+     * packed points are computed in parallel bands of grid columns and streamed to the output in point order.
+     */
+    public void serialize(File geotifFile, OutputStream outputStream, GridToWorldEncoding encoding) throws Exception {
+        Object event = CodecEvents.beginEncode();
+        GeoProtobufCov.Grid.Builder gridBuilder = GeoProtobufCov.Grid.newBuilder();
+        try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+            GridCoverage2D coverage = setGridToWorldHeader(gridBuilder, geoTiff);
+            MathTransform2D gridToWorld = coverage.getGridGeometry().getGridToCRS2D(PixelOrientation.CENTER);
+            AffineTransform affine = WorldPoints.asAffine(gridToWorld);
+            if (encoding == GridToWorldEncoding.AFFINE && affine != null) {
+                GeoProtobufCov.GridToWorld.Builder pbGridToWorld = GeoProtobufCov.GridToWorld.newBuilder();
+                pbGridToWorld.setScaleX(affine.getScaleX());
+                pbGridToWorld.setShearX(affine.getShearX());
+                pbGridToWorld.setTranslateX(affine.getTranslateX());
+                pbGridToWorld.setShearY(affine.getShearY());
+                pbGridToWorld.setScaleY(affine.getScaleY());
+                pbGridToWorld.setTranslateY(affine.getTranslateY());
+                gridBuilder.setGridToWorld(pbGridToWorld.build());
+                writeGrid(gridBuilder, outputStream, event);
+            } else {
+                writeWorldPoints(gridBuilder.build(), gridToWorld, encoding == GridToWorldEncoding.GRID_POINTS, outputStream, event);
+            }
         }
-        gridBuilder.build().writeTo(outputStream);
     }
 
     public void serialize(File geotifFile, File tfwfile, OutputStream outputStream) throws Exception {
+        Object event = CodecEvents.beginEncode();
         GeoProtobufCov.Grid.Builder gridBuilder = GeoProtobufCov.Grid.newBuilder();
         setMetaData(gridBuilder, geotifFile, tfwfile);
-        gridBuilder.build().writeTo(outputStream);
+        writeGrid(gridBuilder, outputStream, event);
+    }
+
+    private void writeGrid(GeoProtobufCov.Grid.Builder gridBuilder, OutputStream outputStream, Object event) throws IOException {
+        GeoProtobufCov.Grid grid = gridBuilder.build();
+        grid.writeTo(outputStream);
+        long vertexCount = grid.getGridPointsCount() > 0 ? grid.getGridPointsCount()
+                : (long) grid.getMaxWidth() * grid.getMaxHight();
+        CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, vertexCount, grid.getSerializedSize());
+    }
+
+
+    /**
+     * Serializes the coverage as a delimited {@code Grid} header followed by one delimited {@code Tile} per
+     * tileWidth x tileHeight block of pixels in row major tile order. The source image is read one tile row at a
+     * time, so neither side has to hold a single message covering the whole raster.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight) throws Exception {
+        serializeTiled(geotifFile, outputStream, tileWidth, tileHeight, TileCodec.NONE);
+    }
+
+    /**
+     * Writes the coverage as tiles whose band samples are encoded with the given predictor and compression. The
+     * codec is recorded in the header so that the deserializer can decode the tiles.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight,
+                               TileCodec codec) throws Exception {
+        serializeTiled(geotifFile, outputStream, tileWidth, tileHeight, codec, 0, Resampling.NEAREST, false);
+    }
+
+    /**
+     * Writes the coverage as tiles together with the given number of overview levels, each reduced from the previous
+     * one with the given resampling. The image is read once, in strips of one tile row: each strip is cut into the
+     * full resolution tiles and reduced into the overview levels, which hold only about one tile row each. The full
+     * resolution tiles come first and the overview levels follow, finest first. The overview tiles are built while
+     * the full resolution is written, so they are kept in a temporary tile store until it is complete.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight,
+                               TileCodec codec, int overviewLevels, Resampling resampling) throws Exception {
+        serializeTiled(geotifFile, outputStream, tileWidth, tileHeight, codec, overviewLevels, resampling, false);
+    }
+
+    /**
+     * Writes the coverage as tiles with overview levels like {@link #serializeTiled(File, OutputStream, int, int,
+     * TileCodec, int, Resampling)}. With computeStatistics the statistics and histograms of each full resolution tile
+     * are computed while its samples are packed and stored with the tile, and the statistics of the whole bands,
+     * merged from those of the tiles, are stored with the bands of the header, so that
+     * {@link PBCovDataDeserializationHandler#deserializeTiledStatistics(java.io.InputStream)} reads them without any
+     * tile. Since they are only known once the last tile is packed, all tiles are kept in a temporary tile store
+     * until the header is written.
+     */
+    public void serializeTiled(File geotifFile, OutputStream outputStream, int tileWidth, int tileHeight,
+                               TileCodec codec, int overviewLevels, Resampling resampling,
+                               boolean computeStatistics) throws Exception {
+        checkTiling(tileWidth, tileHeight, overviewLevels);
+        Object event = CodecEvents.beginEncode();
+        try (StreamTileSink sink = new StreamTileSink(outputStream, computeStatistics)) {
+            writeTiled(geotifFile, tileWidth, tileHeight, codec, overviewLevels, resampling, computeStatistics, sink, event);
+        }
+    }
+
+    /**
+     * Writes the coverage as a tile store file with the default tile codec and neither overviews nor statistics.
+     */
+    public void serializeTileStore(File geotifFile, Path storeFile, int tileWidth, int tileHeight) throws Exception {
+        serializeTileStore(geotifFile, storeFile, tileWidth, tileHeight, TileCodec.NONE, 0, Resampling.NEAREST, false);
     }
 
+    /**
+     * Writes the coverage as a tile store file instead of a stream. The store holds the header and tiles of
+     * {@link #serializeTiled(File, OutputStream, int, int, TileCodec, int, Resampling, boolean)} and an index of the
+     * tile offsets at a fixed position behind the header, so that {@link PBTileStore} can fetch any single tile
+     * through a memory mapping of the file. Every tile is written as soon as it is built. The statistics of the whole
+     * bands are kept in the footer of the store as a tile of level -1 which holds no samples.
+     */
+    public void serializeTileStore(File geotifFile, Path storeFile, int tileWidth, int tileHeight, TileCodec codec,
+                                   int overviewLevels, Resampling resampling, boolean computeStatistics) throws Exception {
+        checkTiling(tileWidth, tileHeight, overviewLevels);
+        Object event = CodecEvents.beginEncode();
+        try (TileStoreWriter store = TileStoreWriter.create(storeFile)) {
+            writeTiled(geotifFile, tileWidth, tileHeight, codec, overviewLevels, resampling, computeStatistics, new TileSink() {
+                @Override
+                public long writeHeader(GeoProtobufCov.Grid grid) throws IOException {
+                    return store.writeHeader(ByteBuffer.wrap(grid.toByteArray()), PBTileStore.layout(grid));
+                }
+
+                @Override
+                public long writeTile(GeoProtobufCov.Tile tile) throws IOException {
+                    return store.writeTile(tile.getLevel(), tile.getColumn(), tile.getRow(), ByteBuffer.wrap(tile.toByteArray()));
+                }
+
+                @Override
+                public long finish(List<GeoProtobufCov.BandStatistics> statistics) throws IOException {
+                    if (statistics == null) {
+                        return 0;
+                    }
+                    return store.writeFooter(ByteBuffer.wrap(GeoProtobufCov.Tile.newBuilder().setLevel(-1)
+                            .addAllStatistics(statistics).build().toByteArray()));
+                }
+            }, event);
+            store.finish();
+        }
+    }
+
+    /**
+     * Destination of the header and tiles of a tiled coverage. Tiles arrive level by level in row major order, except
+     * that the tile rows of the overview levels arrive in between the full resolution tile rows they are reduced from.
+     */
+    private interface TileSink {
+        long writeHeader(GeoProtobufCov.Grid grid) throws IOException;
+
+        long writeTile(GeoProtobufCov.Tile tile) throws IOException;
+
+        /**
+         * Called after the last tile with the statistics of the whole bands, or null without statistics.
+         */
+        long finish(List<GeoProtobufCov.BandStatistics> statistics) throws IOException;
+    }
+
+    /**
+     * Writes the header and delimited tiles to a stream with all tiles of a level in row major order, the full
+     * resolution first. The tiles which cannot be written yet when they arrive, those of the overview levels and,
+     * with statistics, all tiles, since the header holding the statistics precedes them, are kept in a temporary tile
+     * store until {@link #finish}.
+     */
+    private static final class StreamTileSink implements TileSink, Closeable {
+        private final OutputStream outputStream;
+        private final boolean deferHeader;
+        private GeoProtobufCov.Grid header;
+        private Path spoolFile;
+        private TileStoreWriter spool;
+        private int firstSpooled;
+
+        private StreamTileSink(OutputStream outputStream, boolean deferHeader) {
+            this.outputStream = outputStream;
+            this.deferHeader = deferHeader;
+        }
+
+        @Override
+        public long writeHeader(GeoProtobufCov.Grid grid) throws IOException {
+            header = grid;
+            if (deferHeader || grid.getOverviewsCount() > 0) {
+                TileStoreLayout layout = PBTileStore.layout(grid);
+                spoolFile = Files.createTempFile("tsf-tiles", null);
+                spool = TileStoreWriter.create(spoolFile);
+                spool.writeHeader(ByteBuffer.allocate(0), layout);
+                firstSpooled = deferHeader ? 0 : layout.entry(1, 0, 0);
+            }
+            return deferHeader ? 0 : writeDelimited(grid, outputStream);
+        }
+
+        @Override
+        public long writeTile(GeoProtobufCov.Tile tile) throws IOException {
+            if (spool != null && (deferHeader || tile.getLevel() > 0)) {
+                spool.writeTile(tile.getLevel(), tile.getColumn(), tile.getRow(), ByteBuffer.wrap(tile.toByteArray()));
+                return 0;
+            }
+            return writeDelimited(tile, outputStream);
+        }
+
+        @Override
+        public long finish(List<GeoProtobufCov.BandStatistics> statistics) throws IOException {
+            long size = 0;
+            if (deferHeader) {
+                GeoProtobufCov.Grid.Builder gridBuilder = header.toBuilder();
+                for (int i = 0; i < gridBuilder.getBandsCount(); i++) {
+                    gridBuilder.setBands(i, gridBuilder.getBands(i).toBuilder().setStatistics(statistics.get(i)));
+                }
+                size += writeDelimited(gridBuilder.build(), outputStream);
+            }
+            if (spool != null) {
+                spool.finish();
+                spool.close();
+                spool = null;
+                try (TileStoreReader reader = TileStoreReader.open(spoolFile)) {
+                    CodedOutputStream codedOutput = CodedOutputStream.newInstance(outputStream, OUTPUT_BUFFER_SIZE);
+                    for (int entry = firstSpooled; entry < reader.getEntryCount(); entry++) {
+                        ByteBuffer tile = reader.getTile(entry);
+                        size += CodedOutputStream.computeUInt32SizeNoTag(tile.remaining()) + tile.remaining();
+                        codedOutput.writeUInt32NoTag(tile.remaining());
+                        codedOutput.writeRawBytes(tile);
+                    }
+                    codedOutput.flush();
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (spool != null) {
+                    spool.close();
+                }
+            } finally {
+                if (spoolFile != null) {
+                    Files.deleteIfExists(spoolFile);
+                }
+            }
+        }
+    }
+
+    private static void checkTiling(int tileWidth, int tileHeight, int overviewLevels) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Invalid tile size " + tileWidth + "x" + tileHeight);
+        }
+        if (overviewLevels < 0) {
+            throw new IllegalArgumentException("Invalid overview level count " + overviewLevels);
+        }
+    }
+
+    private void writeTiled(File geotifFile, int tileWidth, int tileHeight, TileCodec codec, int overviewLevels,
+                            Resampling resampling, boolean computeStatistics, TileSink sink, Object event) throws Exception {
+        GeoProtobufCov.Grid.Builder gridBuilder = GeoProtobufCov.Grid.newBuilder();
+        try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+            GridCoverage2D coverage = setHeader(gridBuilder, geoTiff, null);
+            RenderedImage image = coverage.getRenderedImage();
+            int transferType = image.getSampleModel().getTransferType();
+            GeoProtobufCov.DataType dataType = GeoProtobufCov.DataType.valueOf(RasterBands.dataTypeName(transferType));
+            gridBuilder.setSampleModel(createSampleModel(image.getSampleModel(), dataType, image.getWidth(), image.getHeight()));
+            double[] noData = new double[image.getSampleModel().getNumBands()];
+            for (int i = 0; i < noData.length; i++) {
+                GeoProtobufCov.Band band = createBand(coverage, i, dataType).build();
+                gridBuilder.addBands(band);
+                noData[i] = band.getHasNoData() ? band.getNoData() : NaN;
+            }
+            gridBuilder.setTileWidth(tileWidth);
+            gridBuilder.setTileHeight(tileHeight);
+            gridBuilder.setPredictorValue(codec.getPredictor().ordinal());
+            gridBuilder.setCompressionValue(codec.getCompression().ordinal());
+            for (int i = 1; i <= overviewLevels; i++) {
+                gridBuilder.addOverviews(GeoProtobufCov.Overview.newBuilder()
+                        .setWidth(Overviews.levelSize(image.getWidth(), i))
+                        .setHeight(Overviews.levelSize(image.getHeight(), i)));
+            }
+            if (overviewLevels > 0) {
+                gridBuilder.setResamplingValue(resampling.ordinal());
+            }
+            long size = sink.writeHeader(gridBuilder.build());
+
+            BandStatistics[] bandStatistics = null;
+            if (computeStatistics) {
+                bandStatistics = new BandStatistics[noData.length];
+                for (int i = 0; i < noData.length; i++) {
+                    bandStatistics[i] = new BandStatistics(isIntegral(transferType), noData[i]);
+                }
+            }
+            long[] overviewSize = new long[1];
+            OverviewPyramid overviews = new OverviewPyramid(image.getWidth(), image.getHeight(), overviewLevels,
+                    tileHeight, resampling, noData, (level, row, tileRow) -> overviewSize[0] +=
+                            writeTileRow(tileRow, level, row, tileWidth, codec, null, null, sink));
+            int rows = (image.getHeight() + tileHeight - 1) / tileHeight;
+            for (int row = 0; row < rows; row++) {
+                int y = image.getMinY() + row * tileHeight;
+                Raster strip = image.getData(new Rectangle(image.getMinX(), y, image.getWidth(),
+                        Math.min(tileHeight, image.getMinY() + image.getHeight() - y)));
+                size += writeTileRow(strip, 0, row, tileWidth, codec, noData, bandStatistics, sink);
+                overviews.add(strip);
+            }
+            overviews.finish();
+            List<GeoProtobufCov.BandStatistics> statistics = null;
+            if (bandStatistics != null) {
+                statistics = new ArrayList<>(bandStatistics.length);
+                for (BandStatistics band : bandStatistics) {
+                    statistics.add(createStatistics(band));
+                }
+            }
+            size += overviewSize[0] + sink.finish(statistics);
+            CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, (long) image.getWidth() * image.getHeight(), size);
+        }
+    }
+
+    /**
+     * Writes the tiles of one tile row of a level, cut from a strip of its rows. Unless the band statistics are null,
+     * the statistics of each tile are computed while it is packed, stored with the tile and merged into the band
+     * statistics.
+     */
+    private long writeTileRow(Raster strip, int level, int row, int tileWidth, TileCodec codec, double[] noData,
+                              BandStatistics[] bandStatistics, TileSink sink) throws IOException {
+        int columns = (strip.getWidth() + tileWidth - 1) / tileWidth;
+        int h = strip.getHeight();
+        long size = 0;
+        for (int column = 0; column < columns; column++) {
+            int x = strip.getMinX() + column * tileWidth;
+            int w = Math.min(tileWidth, strip.getMinX() + strip.getWidth() - x);
+            Raster tileRaster = strip.createChild(x, strip.getMinY(), w, h, x, strip.getMinY(), null);
+            GeoProtobufCov.Tile.Builder tile = GeoProtobufCov.Tile.newBuilder();
+            tile.setColumn(column);
+            tile.setRow(row);
+            tile.setWidth(w);
+            tile.setHeight(h);
+            tile.setLevel(level);
+            for (int i = 0; i < tileRaster.getNumBands(); i++) {
+                BandStatistics statistics = bandStatistics != null
+                        ? new BandStatistics(isIntegral(tileRaster.getTransferType()), noData[i]) : null;
+                byte[] samples = codec.encode(RasterBands.pack(tileRaster, i, statistics), tileRaster.getTransferType(), w, h);
+                tile.addBands(UnsafeByteOperations.unsafeWrap(samples));
+                if (statistics != null) {
+                    bandStatistics[i].merge(statistics);
+                    tile.addStatistics(createStatistics(statistics));
+                }
+            }
+            size += sink.writeTile(tile.build());
+        }
+        return size;
+    }
+
+    /**
+     * Serializes a series of coverages with the time of each step being its index, deflated, and with every
+     * keyframeInterval-th step a keyframe.
+     */
+    public void serializeSeries(List<File> geotifFiles, OutputStream outputStream, int keyframeInterval) throws Exception {
+        serializeSeries(geotifFiles, CoverageSeries.indexTimes(geotifFiles.size()), outputStream, keyframeInterval,
+                new TileCodec(Predictor.NONE, Compression.DEFLATE));
+    }
+
+    /**
+     * Serializes a series of coverages sharing one grid as a delimited {@code Grid} header, taken from the first
+     * coverage with bands holding no samples, followed by one delimited {@code TimeStep} per coverage. Every
+     * keyframeInterval-th step is a keyframe holding the packed samples of its bands, every other step holds their
+     * {@link TemporalDelta} against the previous step, so that the samples which did not change encode to runs of
+     * zeros. The samples are then encoded with the given codec. Only one coverage is read at a time.
+     */
+    public void serializeSeries(List<File> geotifFiles, long[] times, OutputStream outputStream, int keyframeInterval,
+                                TileCodec codec) throws Exception {
+        CoverageSeries.checkArguments(geotifFiles, times, keyframeInterval);
+        Object event = CodecEvents.beginEncode();
+        CoverageSeries series = null;
+        byte[][] previous = null;
+        long size = 0;
+        long pixelCount = 0;
+        for (int step = 0; step < geotifFiles.size(); step++) {
+            try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFiles.get(step))) {
+                GridCoverage2D coverage;
+                if (series == null) {
+                    GeoProtobufCov.Grid.Builder gridBuilder = GeoProtobufCov.Grid.newBuilder();
+                    coverage = setHeader(gridBuilder, geoTiff, null);
+                    RenderedImage image = coverage.getRenderedImage();
+                    GeoProtobufCov.DataType dataType = GeoProtobufCov.DataType.valueOf(
+                            RasterBands.dataTypeName(image.getSampleModel().getTransferType()));
+                    gridBuilder.setSampleModel(createSampleModel(image.getSampleModel(), dataType, image.getWidth(), image.getHeight()));
+                    for (int i = 0; i < image.getSampleModel().getNumBands(); i++) {
+                        gridBuilder.addBands(createBand(coverage, i, dataType));
+                    }
+                    gridBuilder.setPredictorValue(codec.getPredictor().ordinal());
+                    gridBuilder.setCompressionValue(codec.getCompression().ordinal());
+                    gridBuilder.setKeyframeInterval(keyframeInterval);
+                    size += writeDelimited(gridBuilder.build(), outputStream);
+                    series = new CoverageSeries(coverage);
+                    previous = new byte[image.getSampleModel().getNumBands()][];
+                } else {
+                    coverage = geoTiff.read();
+                    series.check(coverage, geotifFiles.get(step));
+                }
+                Raster raster = RasterBands.getRaster(coverage.getRenderedImage());
+                boolean keyframe = CoverageSeries.isKeyframe(step, keyframeInterval);
+                GeoProtobufCov.TimeStep.Builder timeStep = GeoProtobufCov.TimeStep.newBuilder();
+                timeStep.setTime(times[step]);
+                timeStep.setKeyframe(keyframe);
+                for (int i = 0; i < raster.getNumBands(); i++) {
+                    byte[] samples = RasterBands.pack(raster, i);
+                    // the codec predicts in place, so it gets a copy of the samples kept for the next delta
+                    byte[] encoded = codec.encode(keyframe ? samples.clone()
+                                    : TemporalDelta.encode(samples, previous[i], raster.getTransferType()),
+                            raster.getTransferType(), raster.getWidth(), raster.getHeight());
+                    timeStep.addBands(UnsafeByteOperations.unsafeWrap(encoded));
+                    previous[i] = samples;
+                }
+                size += writeDelimited(timeStep.build(), outputStream);
+                pixelCount += (long) raster.getWidth() * raster.getHeight();
+            }
+        }
+        CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, pixelCount, size);
+    }
+
+    private static long writeDelimited(MessageLite message, OutputStream outputStream) throws IOException {
+        int size = message.getSerializedSize();
+        message.writeDelimitedTo(outputStream);
+        return CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
 
     public void setMetaData(GeoProtobufCov.Grid.Builder gridBuilder, File geotifFile, File tfwFile) throws IOException, FactoryException {
-        GeoTiffReader fileReader = new GeoTiffReader(geotifFile);
-        GeoTiffIIOMetadataDecoder metadata = fileReader.getMetadata();
-        AbstractGridFormat format = GridFormatFinder.findFormat(geotifFile);
-        GridCoverage2DReader reader = format.getReader(geotifFile);
-        GridEnvelope dimensions = reader.getOriginalGridRange();
-        GridCoordinates maxDimensions = dimensions.getHigh();
-        GridCoverage2D coverage = reader.read(null);
-        gridBuilder.setMaxWidth(maxDimensions.getCoordinateValue(0) + 1);
-        gridBuilder.setMaxHight(maxDimensions.getCoordinateValue(1) + 1);
-        gridBuilder.setSourceCrs(CRS.lookupIdentifier(coverage.getCoordinateReferenceSystem(), true));
+        try (GeoTiffSource geoTiff = GeoTiffSource.open(geotifFile)) {
+            GridCoverage2D coverage = setHeader(gridBuilder, geoTiff, tfwFile);
+            setBands(gridBuilder, coverage, false);
+        }
+    }
+
+    private GridCoverage2D setHeader(GeoProtobufCov.Grid.Builder gridBuilder, GeoTiffSource geoTiff, File tfwFile) throws IOException, FactoryException {
+        GeoTiffIIOMetadataDecoder metadata = geoTiff.getMetadata();
+        GridCoverage2D coverage = geoTiff.read();
+        gridBuilder.setMaxWidth(geoTiff.getWidth());
+        gridBuilder.setMaxHight(geoTiff.getHeight());
+        setSourceCrs(gridBuilder, geoTiff.getCoordinateReferenceSystem());
         gridBuilder.setColorSpace(coverage.getRenderedImage().getColorModel().getColorSpace().getType());
 
         if (metadata.hasTiePoints()) {
@@ -95,34 +571,129 @@ public class PBCovDataSerializationHandler {
             gridBuilder.setPixelScale(pixelScale.build());
         }
         setTFWData(gridBuilder, tfwFile);
+        return coverage;
     }
 
-    private void transformGridToWorld(GeoProtobufCov.Grid.Builder gridBuilder, File geotifFile) throws IOException, TransformException {
-        AbstractGridFormat format = GridFormatFinder.findFormat(geotifFile);
-        GridCoverage2DReader reader = format.getReader(geotifFile);
-        GridEnvelope dimensions = reader.getOriginalGridRange();
-        GridCoordinates maxDimensions = dimensions.getHigh();
-        int w = maxDimensions.getCoordinateValue(0) + 1;
-        int h = maxDimensions.getCoordinateValue(1) + 1;
-        GridCoverage2D coverage = reader.read(null);
-        GridGeometry2D geometry = coverage.getGridGeometry();
+    private void setBands(GeoProtobufCov.Grid.Builder gridBuilder, GridCoverage2D coverage, boolean computeStatistics) {
+        Raster raster = RasterBands.getRaster(coverage.getRenderedImage());
+        GeoProtobufCov.DataType dataType = GeoProtobufCov.DataType.valueOf(RasterBands.dataTypeName(raster.getTransferType()));
+        gridBuilder.setSampleModel(createSampleModel(raster.getSampleModel(), dataType, raster.getWidth(), raster.getHeight()));
+        for (int i = 0; i < raster.getNumBands(); i++) {
+            GeoProtobufCov.Band.Builder band = createBand(coverage, i, dataType);
+            BandStatistics statistics = computeStatistics ? new BandStatistics(isIntegral(raster.getTransferType()),
+                    band.getHasNoData() ? band.getNoData() : NaN) : null;
+            band.setSamples(UnsafeByteOperations.unsafeWrap(RasterBands.pack(raster, i, statistics)));
+            if (statistics != null) {
+                band.setStatistics(createStatistics(statistics));
+            }
+            gridBuilder.addBands(band.build());
+        }
+    }
 
-        for (int i = 0; i < w; i++) {
-            for (int j = 0; j < h; j++) {
+    private static boolean isIntegral(int dataType) {
+        return dataType != DataBuffer.TYPE_FLOAT && dataType != DataBuffer.TYPE_DOUBLE;
+    }
 
-                org.geotools.geometry.Envelope2D pixelEnvelop =
-                        geometry.gridToWorld(new GridEnvelope2D(i, j, 1, 1));
+    private GeoProtobufCov.BandStatistics createStatistics(BandStatistics statistics) {
+        GeoProtobufCov.BandStatistics.Builder pbStatistics = GeoProtobufCov.BandStatistics.newBuilder();
+        pbStatistics.setCount(statistics.getCount());
+        pbStatistics.setNoDataCount(statistics.getNoDataCount());
+        pbStatistics.setMin(statistics.getMin());
+        pbStatistics.setMax(statistics.getMax());
+        pbStatistics.setMean(statistics.getMean());
+        pbStatistics.setStddev(statistics.getStdDev());
+        pbStatistics.setHistogramMin(statistics.getHistogramMin());
+        pbStatistics.setHistogramBinWidth(statistics.getHistogramBinWidth());
+        for (long binCount : statistics.getHistogram()) {
+            pbStatistics.addHistogram(binCount);
+        }
+        return pbStatistics.build();
+    }
 
-                double latitude = pixelEnvelop.getCenterX();
-                double longitude = pixelEnvelop.getCenterY();
+    private GeoProtobufCov.SampleModel createSampleModel(SampleModel sampleModel, GeoProtobufCov.DataType dataType,
+                                                         int width, int height) {
+        GeoProtobufCov.SampleModel.Builder pbSampleModel = GeoProtobufCov.SampleModel.newBuilder();
+        pbSampleModel.setDataType(dataType);
+        pbSampleModel.setWidth(width);
+        pbSampleModel.setHeight(height);
+        pbSampleModel.setNumBands(sampleModel.getNumBands());
+        pbSampleModel.setType(GeoProtobufCov.SampleModelType.valueOf(RasterBands.sampleModelTypeName(sampleModel)));
+        return pbSampleModel.build();
+    }
 
-                GeoProtobufCov.GridPoint.Builder gridPoint = GeoProtobufCov.GridPoint.newBuilder();
-                gridPoint.setLatitude(latitude);
-                gridPoint.setLongitude(longitude);
-                gridBuilder.addGridPoints(gridPoint.build());
-            }
+    private GeoProtobufCov.Band.Builder createBand(GridCoverage2D coverage, int index, GeoProtobufCov.DataType dataType) {
+        GeoProtobufCov.Band.Builder band = GeoProtobufCov.Band.newBuilder();
+        band.setDataType(dataType);
+        double[] noData = coverage.getSampleDimension(index).getNoDataValues();
+        if (noData != null && noData.length > 0) {
+            band.setHasNoData(true);
+            band.setNoData(noData[0]);
         }
+        return band;
+    }
+
+    private GridCoverage2D setGridToWorldHeader(GeoProtobufCov.Grid.Builder gridBuilder, GeoTiffSource geoTiff)
+            throws IOException, FactoryException {
+        GridCoverage2D coverage = geoTiff.read();
+        gridBuilder.setMaxWidth(geoTiff.getWidth());
+        gridBuilder.setMaxHight(geoTiff.getHeight());
+        setSourceCrs(gridBuilder, geoTiff.getCoordinateReferenceSystem());
+        gridBuilder.setColorSpace(coverage.getRenderedImage().getColorModel().getColorSpace().getType());
         setTFWData(gridBuilder, null);
+        return coverage;
+    }
+
+    /**
+     * Writes the header fields of the grid followed by its world points. A protobuf message may hold its fields
+     * in any order, so the points are appended as repeated {@code gridPoints} or as the {@code world_points}
+     * bytes band by band without building them into the message.
+     */
+    private void writeWorldPoints(GeoProtobufCov.Grid header, MathTransform2D gridToWorld, boolean gridPoints,
+                                  OutputStream outputStream, Object event) throws IOException, TransformException {
+        int w = header.getMaxWidth();
+        int h = header.getMaxHight();
+        long pointCount = (long) w * h;
+        CodedOutputStream codedOutput = CodedOutputStream.newInstance(outputStream, OUTPUT_BUFFER_SIZE);
+        header.writeTo(codedOutput);
+        long size = header.getSerializedSize();
+        if (gridPoints) {
+            int gridPointSize = CodedOutputStream.computeDoubleSize(GeoProtobufCov.GridPoint.LONGITUDE_FIELD_NUMBER, 0)
+                    + CodedOutputStream.computeDoubleSize(GeoProtobufCov.GridPoint.LATITUDE_FIELD_NUMBER, 0);
+            WorldPoints.transform(gridToWorld, w, h, executor, parallelism, (points, count) -> {
+                for (int k = 0; k < count; k++) {
+                    codedOutput.writeTag(GeoProtobufCov.Grid.GRIDPOINTS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                    codedOutput.writeUInt32NoTag(gridPointSize);
+                    codedOutput.writeDouble(GeoProtobufCov.GridPoint.LONGITUDE_FIELD_NUMBER, points[2 * k + 1]);
+                    codedOutput.writeDouble(GeoProtobufCov.GridPoint.LATITUDE_FIELD_NUMBER, points[2 * k]);
+                }
+            });
+            size += pointCount * (CodedOutputStream.computeTagSize(GeoProtobufCov.Grid.GRIDPOINTS_FIELD_NUMBER)
+                    + CodedOutputStream.computeUInt32SizeNoTag(gridPointSize) + gridPointSize);
+        } else {
+            long length = pointCount * 2 * Double.BYTES;
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Packed world points of a " + w + "x" + h + " grid exceed the protobuf size limit");
+            }
+            codedOutput.writeTag(GeoProtobufCov.Grid.WORLD_POINTS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            codedOutput.writeUInt32NoTag((int) length);
+            ByteBuffer bytes = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            WorldPoints.transform(gridToWorld, w, h, executor, parallelism, (points, count) -> {
+                for (int k = 0; k < 2 * count; k++) {
+                    if (!bytes.hasRemaining()) {
+                        bytes.flip();
+                        codedOutput.writeRawBytes(bytes);
+                        bytes.clear();
+                    }
+                    bytes.putDouble(points[k]);
+                }
+            });
+            bytes.flip();
+            codedOutput.writeRawBytes(bytes);
+            size += CodedOutputStream.computeTagSize(GeoProtobufCov.Grid.WORLD_POINTS_FIELD_NUMBER)
+                    + CodedOutputStream.computeUInt32SizeNoTag((int) length) + length;
+        }
+        codedOutput.flush();
+        CodecEvents.commitEncode(event, CODEC, COVERAGE_TYPE, pointCount, size);
     }
 
     private void setTFWData(GeoProtobufCov.Grid.Builder avroBuilder, File tfwFile) throws IOException {
@@ -143,4 +714,11 @@ public class PBCovDataSerializationHandler {
             avroBuilder.setYRotation(NaN);
         }
     }
+
+    private void setSourceCrs(GeoProtobufCov.Grid.Builder gridBuilder, CoordinateReferenceSystem crs) throws FactoryException {
+        gridBuilder.setSourceCrs(CrsCache.lookupIdentifier(crs));
+        if (embedCrsWkt) {
+            gridBuilder.setSourceCrsWkt(crs.toWKT());
+        }
+    }
 }
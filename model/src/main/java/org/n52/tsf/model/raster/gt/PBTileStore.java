@@ -0,0 +1,117 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import com.google.protobuf.CodedInputStream;
+import org.n52.tsf.serialization.protobuf.gen.GeoProtobufCov;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Random access to the tiles of a tile store written by {@link PBCovDataSerializationHandler#serializeTileStore}.
+ * The store is memory mapped once on open, a tile is located with one lookup in the offset index and parsed from the
+ * mapping without touching any other tile. The band samples of a returned tile alias the mapping. A store can be read
+ * from concurrent threads.
+ */
+public final class PBTileStore implements Closeable {
+    private final TileStoreReader reader;
+    private final GeoProtobufCov.Grid grid;
+    private final TileStoreLayout layout;
+
+    private PBTileStore(TileStoreReader reader, GeoProtobufCov.Grid grid) throws IOException {
+        this.reader = reader;
+        this.grid = grid;
+        this.layout = layout(grid);
+        if (layout.size() != reader.getEntryCount()) {
+            throw new IOException("Tile index of " + reader.getEntryCount() + " entries does not match the header");
+        }
+    }
+
+    public static PBTileStore open(Path storeFile) throws IOException {
+        TileStoreReader reader = TileStoreReader.open(storeFile);
+        try {
+            return new PBTileStore(reader, GeoProtobufCov.Grid.parseFrom(CodedInputStream.newInstance(reader.getHeader())));
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the tiled header of the coverage, whose bands hold no samples.
+     */
+    public GeoProtobufCov.Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Number of levels, the full resolution and its overviews.
+     */
+    public int getLevelCount() {
+        return layout.getLevelCount();
+    }
+
+    public int getColumns(int level) {
+        return layout.getColumns(level);
+    }
+
+    public int getRows(int level) {
+        return layout.getRows(level);
+    }
+
+    public GeoProtobufCov.Tile getTile(int level, int column, int row) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(reader.getTile(layout.entry(level, column, row)));
+        input.enableAliasing(true);
+        return GeoProtobufCov.Tile.parseFrom(input);
+    }
+
+    /**
+     * Returns the statistics of the whole bands kept in the footer of a store written with statistics, or an empty list
+     * if the store has none. The statistics of a single tile are stored with the tile.
+     */
+    public List<GeoProtobufCov.BandStatistics> getStatistics() throws IOException {
+        ByteBuffer footer = reader.getFooter();
+        return footer == null ? Collections.<GeoProtobufCov.BandStatistics>emptyList()
+                : GeoProtobufCov.Tile.parseFrom(CodedInputStream.newInstance(footer)).getStatisticsList();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static TileStoreLayout layout(GeoProtobufCov.Grid grid) {
+        int[] widths = new int[grid.getOverviewsCount() + 1];
+        int[] heights = new int[widths.length];
+        widths[0] = grid.getSampleModel().getWidth();
+        heights[0] = grid.getSampleModel().getHeight();
+        for (int i = 1; i < widths.length; i++) {
+            widths[i] = grid.getOverviews(i - 1).getWidth();
+            heights[i] = grid.getOverviews(i - 1).getHeight();
+        }
+        return new TileStoreLayout(grid.getTileWidth(), grid.getTileHeight(), widths, heights);
+    }
+}
@@ -0,0 +1,117 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster.gt;
+
+import org.n52.tsf.model.raster.Compression;
+import org.n52.tsf.model.raster.Predictor;
+import org.n52.tsf.model.raster.RasterBands;
+import org.n52.tsf.model.raster.TileCodec;
+
+import javax.media.jai.TiledImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Decodes the tiles of a tiled coverage into its image on an executor. Tiles are submitted in stream order and at
+ * most two tiles per unit of parallelism are in flight, so a slow decoder holds back the reader instead of buffering
+ * the whole stream.
+ */
+final class TileDecoder {
+    private final TiledImage image;
+    private final TileCodec codec;
+    private final int dataType;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Deque<CompletableFuture<Void>> inFlight;
+
+    TileDecoder(TiledImage image, TileCodec codec, Executor executor, int parallelism) {
+        this.image = image;
+        this.codec = codec;
+        this.dataType = image.getSampleModel().getDataType();
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, parallelism) * 2;
+        this.inFlight = new ArrayDeque<>(maxInFlight);
+    }
+
+    /**
+     * Submits the encoded bands of one tile. The buffers must not be modified until {@link #finish()} returns.
+     */
+    void submit(int column, int row, int width, int height, List<ByteBuffer> bands) throws IOException {
+        if (inFlight.size() >= maxInFlight) {
+            join(inFlight.poll());
+        }
+        inFlight.add(CompletableFuture.runAsync(() -> decode(column, row, width, height, bands), executor));
+    }
+
+    /**
+     * Waits until all submitted tiles are written into the image.
+     */
+    void finish() throws IOException {
+        try {
+            while (!inFlight.isEmpty()) {
+                join(inFlight.poll());
+            }
+        } finally {
+            for (CompletableFuture<Void> pending : inFlight) {
+                pending.cancel(false);
+            }
+        }
+    }
+
+    private void decode(int column, int row, int width, int height, List<ByteBuffer> bands) {
+        List<ByteBuffer> samples = new ArrayList<>(bands.size());
+        try {
+            for (ByteBuffer band : bands) {
+                samples.add(codec.decode(band, dataType, width, height));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        RasterBands.unpackTile(image, column, row, width, height, samples);
+    }
+
+    private static void join(CompletableFuture<Void> tile) throws IOException {
+        try {
+            tile.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    static TileCodec codec(int predictor, int compression) throws IOException {
+        if (predictor < 0 || predictor >= Predictor.values().length
+                || compression < 0 || compression >= Compression.values().length) {
+            throw new IOException("Unsupported tile codec " + predictor + "/" + compression);
+        }
+        return new TileCodec(Predictor.values()[predictor],
+                Compression.values()[compression]);
+    }
+}
@@ -0,0 +1,98 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+/**
+ * Layout of a tile store file, the random access form of a tiled coverage. All numbers are little endian.
+ * <pre>
+ * 0   magic "TSFT"
+ * 4   format version
+ * 8   header length
+ * 12  index entry count
+ * 16  index offset
+ * 24  footer offset, 0 without footer
+ * 32  footer length
+ * 36  grid header, the codec's encoding of its tiled header
+ *     tile index, one entry of tile offset (8 bytes) and tile length (4 bytes) per tile
+ *     tiles, each the codec's encoding of one tile record
+ *     footer, the codec's encoding of the record holding the band statistics
+ * </pre>
+ * Index entries are ordered by level, full resolution first, and by row and column within a level, so the entry of
+ * any tile is computed from the tile size and the level sizes of the header.
+ */
+final class TileStoreLayout {
+    static final int MAGIC = 0x54465354;
+    static final int VERSION = 2;
+    static final int PRELUDE_SIZE = 36;
+    static final int ENTRY_SIZE = 12;
+
+    private final int[] columns;
+    private final int[] rows;
+    private final int[] firstEntry;
+    private final int size;
+
+    /**
+     * Creates the layout of tileWidth x tileHeight tiles over levels of the given widths and heights, the full
+     * resolution being level 0.
+     */
+    TileStoreLayout(int tileWidth, int tileHeight, int[] widths, int[] heights) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Invalid tile size " + tileWidth + "x" + tileHeight);
+        }
+        columns = new int[widths.length];
+        rows = new int[widths.length];
+        firstEntry = new int[widths.length];
+        int entries = 0;
+        for (int level = 0; level < widths.length; level++) {
+            columns[level] = (widths[level] + tileWidth - 1) / tileWidth;
+            rows[level] = (heights[level] + tileHeight - 1) / tileHeight;
+            firstEntry[level] = entries;
+            entries = Math.addExact(entries, Math.multiplyExact(columns[level], rows[level]));
+        }
+        size = entries;
+    }
+
+    int getLevelCount() {
+        return columns.length;
+    }
+
+    int getColumns(int level) {
+        return columns[level];
+    }
+
+    int getRows(int level) {
+        return rows[level];
+    }
+
+    /**
+     * Number of index entries, one per tile of all levels.
+     */
+    int size() {
+        return size;
+    }
+
+    int entry(int level, int column, int row) {
+        if (level < 0 || level >= columns.length || column < 0 || column >= columns[level] || row < 0 || row >= rows[level]) {
+            throw new IllegalArgumentException("No tile " + column + "/" + row + " at level " + level);
+        }
+        return firstEntry[level] + row * columns[level] + column;
+    }
+}
@@ -0,0 +1,145 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a tile store file as laid out by {@link TileStoreLayout} through a read only memory mapping of the whole
+ * file. The file is mapped in segments of 1 GiB, a tile which crosses a segment boundary is read with a positional
+ * read instead. All methods are safe to call from concurrent threads, which share the mapping. The mapping is
+ * released by the garbage collector once the reader is closed and no returned buffer is referenced anymore.
+ */
+final class TileStoreReader implements Closeable {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+    private final ByteBuffer header;
+    private final ByteBuffer index;
+    private final int entryCount;
+    private final ByteBuffer footer;
+
+    private TileStoreReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        size = channel.size();
+        if (size < TileStoreLayout.PRELUDE_SIZE) {
+            throw new IOException("File is too short for a tile store");
+        }
+        segments = new MappedByteBuffer[(int) ((size - 1 >> SEGMENT_SHIFT) + 1)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+        ByteBuffer prelude = slice(0, TileStoreLayout.PRELUDE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (prelude.getInt(0) != TileStoreLayout.MAGIC) {
+            throw new IOException("File is not a tile store");
+        }
+        if (prelude.getInt(4) != TileStoreLayout.VERSION) {
+            throw new IOException("Unsupported tile store version " + prelude.getInt(4));
+        }
+        header = slice(TileStoreLayout.PRELUDE_SIZE, prelude.getInt(8));
+        entryCount = prelude.getInt(12);
+        index = slice(prelude.getLong(16), Math.multiplyExact(entryCount, TileStoreLayout.ENTRY_SIZE))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        footer = prelude.getLong(24) == 0 ? null : slice(prelude.getLong(24), prelude.getInt(32));
+    }
+
+    static TileStoreReader open(Path storeFile) throws IOException {
+        FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ);
+        try {
+            return new TileStoreReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the encoded grid header.
+     */
+    ByteBuffer getHeader() {
+        return header.duplicate();
+    }
+
+    /**
+     * Returns the encoded footer, or null if the store has none.
+     */
+    ByteBuffer getFooter() {
+        return footer == null ? null : footer.duplicate();
+    }
+
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the encoded tile of an index entry, a view of the mapping unless the tile crosses a segment boundary.
+     */
+    ByteBuffer getTile(int entry) throws IOException {
+        if (entry < 0 || entry >= entryCount) {
+            throw new IllegalArgumentException("No tile index entry " + entry);
+        }
+        long offset = index.getLong(entry * TileStoreLayout.ENTRY_SIZE);
+        int length = index.getInt(entry * TileStoreLayout.ENTRY_SIZE + Long.BYTES);
+        if (offset == 0) {
+            throw new IOException("Tile index entry " + entry + " was not written");
+        }
+        return slice(offset, length);
+    }
+
+    private ByteBuffer slice(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new EOFException("Truncated tile store at offset " + offset);
+        }
+        MappedByteBuffer segment = segments[(int) (offset >> SEGMENT_SHIFT)];
+        int start = (int) (offset & (SEGMENT_SIZE - 1));
+        if ((long) start + length <= segment.capacity()) {
+            ByteBuffer view = segment.duplicate();
+            view.position(start);
+            view.limit(start + length);
+            return view.slice();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Truncated tile store at offset " + offset);
+            }
+        }
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,129 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a tile store file as laid out by {@link TileStoreLayout}. The index is reserved behind the header and filled
+ * in by {@link #finish()} once all tiles are written, so the tiles can be written in any order. A store which is closed
+ * without being finished has no valid prelude and is rejected by the reader.
+ */
+final class TileStoreWriter implements Closeable {
+    private final FileChannel channel;
+    private TileStoreLayout layout;
+    private ByteBuffer index;
+    private int headerLength;
+    private long indexOffset;
+    private long footerOffset;
+    private int footerLength;
+
+    private TileStoreWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static TileStoreWriter create(Path storeFile) throws IOException {
+        return new TileStoreWriter(FileChannel.open(storeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Writes the encoded grid header and reserves the index of the given layout, returns the bytes taken by both.
+     */
+    long writeHeader(ByteBuffer header, TileStoreLayout layout) throws IOException {
+        this.layout = layout;
+        headerLength = header.remaining();
+        channel.position(TileStoreLayout.PRELUDE_SIZE);
+        write(header);
+        indexOffset = channel.position();
+        index = ByteBuffer.allocate(Math.multiplyExact(layout.size(), TileStoreLayout.ENTRY_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(indexOffset + index.capacity());
+        return headerLength + index.capacity();
+    }
+
+    /**
+     * Appends one encoded tile and records its offset and length in the index, returns the bytes written.
+     */
+    long writeTile(int level, int column, int row, ByteBuffer tile) throws IOException {
+        int entry = layout.entry(level, column, row) * TileStoreLayout.ENTRY_SIZE;
+        long offset = channel.position();
+        int length = tile.remaining();
+        write(tile);
+        index.putLong(entry, offset);
+        index.putInt(entry + Long.BYTES, length);
+        return length;
+    }
+
+    /**
+     * Appends the encoded footer behind the tiles, returns the bytes written.
+     */
+    long writeFooter(ByteBuffer footer) throws IOException {
+        footerOffset = channel.position();
+        footerLength = footer.remaining();
+        write(footer);
+        return footerLength;
+    }
+
+    /**
+     * Writes the index and the prelude, after which the store can be opened, returns the size of the store.
+     */
+    long finish() throws IOException {
+        if (index == null) {
+            throw new IllegalStateException("No header written");
+        }
+        index.clear();
+        writeAt(index, indexOffset);
+        ByteBuffer prelude = ByteBuffer.allocate(TileStoreLayout.PRELUDE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        prelude.putInt(TileStoreLayout.MAGIC);
+        prelude.putInt(TileStoreLayout.VERSION);
+        prelude.putInt(headerLength);
+        prelude.putInt(layout.size());
+        prelude.putLong(indexOffset);
+        prelude.putLong(footerOffset);
+        prelude.putInt(footerLength);
+        prelude.flip();
+        writeAt(prelude, 0);
+        return channel.size();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void writeAt(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,201 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster.gt;
+
+import org.n52.tsf.model.raster.gt.beans.GeoPoint;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+
+import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Computes and reconstructs the world coordinates of the pixel centers of a width x height grid. Points are
+ * ordered column by column like the {@code GridPoint} encoding, so the point of pixel (i, j) has the index
+ * i * height + j. As in that encoding a {@link GeoPoint} holds the world x as latitude and the world y as
+ * longitude.
+ */
+public final class WorldPoints {
+    private static final int BAND_POINTS = 1 << 16;
+
+    private WorldPoints() {
+    }
+
+    /**
+     * Receives the transformed points of consecutive bands of grid columns.
+     */
+    public interface BandConsumer {
+        /**
+         * Accepts the x, y pairs of the first pointCount points of the array. The array is reused once this
+         * method returns.
+         */
+        void accept(double[] points, int pointCount) throws IOException;
+    }
+
+    /**
+     * Transforms the pixel centers of the grid band by band and hands the bands to the consumer in point order.
+     * Each band of grid columns is transformed with one bulk call on the executor. At most two bands per unit of
+     * parallelism are in flight and their arrays are reused, so the memory used does not depend on the grid size.
+     */
+    public static void transform(MathTransform2D gridToWorld, int width, int height, Executor executor, int parallelism,
+                                 BandConsumer consumer) throws IOException, TransformException {
+        int bandColumns = Math.max(1, BAND_POINTS / Math.max(1, height));
+        int bands = (width + bandColumns - 1) / bandColumns;
+        int maxInFlight = Math.max(1, parallelism) * 2;
+        Deque<CompletableFuture<double[]>> inFlight = new ArrayDeque<>(maxInFlight);
+        Deque<double[]> freeBuffers = new ArrayDeque<>(maxInFlight);
+        int nextBand = 0;
+        try {
+            for (int band = 0; band < bands; band++) {
+                while (nextBand < bands && inFlight.size() < maxInFlight) {
+                    double[] buffer = freeBuffers.isEmpty() ? new double[bandColumns * height * 2] : freeBuffers.pop();
+                    int firstColumn = nextBand * bandColumns;
+                    int columns = Math.min(bandColumns, width - firstColumn);
+                    inFlight.add(CompletableFuture.supplyAsync(
+                            () -> transformColumns(gridToWorld, firstColumn, columns, height, buffer), executor));
+                    nextBand++;
+                }
+                double[] points = join(inFlight.poll());
+                consumer.accept(points, Math.min(bandColumns, width - band * bandColumns) * height);
+                freeBuffers.push(points);
+            }
+        } finally {
+            for (CompletableFuture<double[]> pending : inFlight) {
+                pending.cancel(false);
+            }
+        }
+    }
+
+    private static double[] transformColumns(MathTransform2D gridToWorld, int firstColumn, int columns, int height,
+                                             double[] points) {
+        int index = 0;
+        for (int i = firstColumn; i < firstColumn + columns; i++) {
+            for (int j = 0; j < height; j++) {
+                points[index++] = i;
+                points[index++] = j;
+            }
+        }
+        try {
+            gridToWorld.transform(points, 0, points, 0, columns * height);
+        } catch (TransformException e) {
+            throw new CompletionException(e);
+        }
+        return points;
+    }
+
+    private static double[] join(CompletableFuture<double[]> band) throws TransformException {
+        try {
+            return band.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TransformException) {
+                throw (TransformException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the grid to world transform as an {@link AffineTransform}, or null if it is not affine.
+     */
+    public static AffineTransform asAffine(MathTransform2D gridToWorld) {
+        return gridToWorld instanceof AffineTransform ? (AffineTransform) gridToWorld : null;
+    }
+
+    /**
+     * Returns the points of an affine grid to world transform. Points are computed on access.
+     */
+    public static List<GeoPoint> fromAffine(AffineTransform gridToWorld, int width, int height) {
+        double scaleX = gridToWorld.getScaleX();
+        double shearX = gridToWorld.getShearX();
+        double translateX = gridToWorld.getTranslateX();
+        double shearY = gridToWorld.getShearY();
+        double scaleY = gridToWorld.getScaleY();
+        double translateY = gridToWorld.getTranslateY();
+        return new PointList(width * height) {
+            @Override
+            public GeoPoint get(int index) {
+                checkIndex(index);
+                int i = index / height;
+                int j = index % height;
+                return new GeoPoint(shearY * i + scaleY * j + translateY, scaleX * i + shearX * j + translateX);
+            }
+        };
+    }
+
+    /**
+     * Computes the points of an affine grid to world transform into an array of x, y pairs with one bulk call.
+     */
+    public static double[] toArray(AffineTransform gridToWorld, int width, int height) {
+        double[] points = new double[width * height * 2];
+        int index = 0;
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                points[index++] = i;
+                points[index++] = j;
+            }
+        }
+        gridToWorld.transform(points, 0, points, 0, width * height);
+        return points;
+    }
+
+    /**
+     * Returns the points of a packed array of little endian x, y double pairs. Points are read on access.
+     */
+    public static List<GeoPoint> fromPacked(ByteBuffer packed) {
+        DoubleBuffer points = packed.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        return new PointList(points.remaining() / 2) {
+            @Override
+            public GeoPoint get(int index) {
+                checkIndex(index);
+                return new GeoPoint(points.get(2 * index + 1), points.get(2 * index));
+            }
+        };
+    }
+
+    private abstract static class PointList extends AbstractList<GeoPoint> implements RandomAccess {
+        private final int size;
+
+        PointList(int size) {
+            this.size = size;
+        }
+
+        void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
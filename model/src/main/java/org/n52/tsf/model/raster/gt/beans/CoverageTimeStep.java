@@ -0,0 +1,44 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.raster.gt.beans;
+
+import org.geotools.coverage.grid.GridCoverage2D;
+
+/**
+ * One coverage of a coverage series together with the time of its step.
+ */
+public class CoverageTimeStep {
+    private final long time;
+    private final GridCoverage2D coverage;
+
+    public CoverageTimeStep(long time, GridCoverage2D coverage) {
+        this.time = time;
+        this.coverage = coverage;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public GridCoverage2D getCoverage() {
+        return coverage;
+    }
+}
@@ -0,0 +1,146 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package org.n52.tsf.model.raster.gt.beans;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Grid to world points held as x, y double pairs in a heap array or a (possibly direct) {@link DoubleBuffer}
+ * instead of one {@link GeoPoint} per point. As in {@link GeoPoint} the world x is the latitude and the world y
+ * the longitude of a point.
+ */
+public final class GeoPointArray {
+
+    private final DoubleBuffer points;
+    private final int size;
+
+    /**
+     * Wraps x, y pairs starting at the current position of the buffer. The buffer is not copied.
+     */
+    public GeoPointArray(DoubleBuffer points) {
+        this.points = points.slice();
+        this.size = this.points.remaining() / 2;
+    }
+
+    /**
+     * Wraps an array of x, y pairs. The array is not copied.
+     */
+    public GeoPointArray(double[] points) {
+        this(DoubleBuffer.wrap(points));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getLongitude(int index) {
+        return points.get(2 * checkIndex(index) + 1);
+    }
+
+    public double getLatitude(int index) {
+        return points.get(2 * checkIndex(index));
+    }
+
+    /**
+     * Returns a new {@link GeoPoint} for the point at the index.
+     */
+    public GeoPoint get(int index) {
+        return new GeoPoint(getLongitude(index), getLatitude(index));
+    }
+
+    /**
+     * Copies length points starting at fromIndex into the arrays, starting at offset.
+     */
+    public void copyTo(int fromIndex, double[] longitudes, double[] latitudes, int offset, int length) {
+        checkRange(fromIndex, length);
+        for (int i = 0; i < length; i++) {
+            latitudes[offset + i] = points.get(2 * (fromIndex + i));
+            longitudes[offset + i] = points.get(2 * (fromIndex + i) + 1);
+        }
+    }
+
+    /**
+     * Copies length points starting at fromIndex as x, y pairs into the array, starting at offset.
+     */
+    public void copyTo(int fromIndex, double[] xyPairs, int offset, int length) {
+        checkRange(fromIndex, length);
+        DoubleBuffer source = points.duplicate();
+        source.position(2 * fromIndex);
+        source.get(xyPairs, offset, 2 * length);
+    }
+
+    /**
+     * Returns a cursor positioned before the first point.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return index;
+    }
+
+    private void checkRange(int fromIndex, int length) {
+        if (fromIndex < 0 || length < 0 || fromIndex + length > size) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + " + " + length + ", size " + size);
+        }
+    }
+
+    /**
+     * Flyweight over the points of the array, moved from point to point without allocating.
+     */
+    public final class Cursor {
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next point and returns false once all points have been visited.
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public void moveTo(int index) {
+            this.index = checkIndex(index);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getLongitude() {
+            return points.get(2 * checkIndex(index) + 1);
+        }
+
+        public double getLatitude() {
+            return points.get(2 * checkIndex(index));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector;
+
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Spliterator} over an avro geometry object container file which splits on sync marker block
+ * boundaries. A split covers the blocks whose sync marker lies within its byte range, and every split reads
+ * through its own {@link DataFileReader}.
+ */
+public class AvroBlockSpliterator<T> implements Spliterator<T>, Closeable {
+    private final static Logger logger = Logger.getLogger(AvroBlockSpliterator.class);
+    private static final long MIN_SPLIT_SIZE = 256 * 1024;
+
+    private final File avroFile;
+    private final Function<org.n52.tsf.serialization.avro.gen.vector.Geometry, T> geometryDecoder;
+    private final Queue<DataFileReader<?>> openReaders;
+    private DataFileReader<org.n52.tsf.serialization.avro.gen.vector.Geometry> dataFileReader;
+    private long start;
+    private final long end;
+
+    public AvroBlockSpliterator(File avroFile, Function<org.n52.tsf.serialization.avro.gen.vector.Geometry, T> geometryDecoder) {
+        this(avroFile, geometryDecoder, new ConcurrentLinkedQueue<>(), 0, avroFile.length());
+    }
+
+    private AvroBlockSpliterator(File avroFile, Function<org.n52.tsf.serialization.avro.gen.vector.Geometry, T> geometryDecoder,
+                                 Queue<DataFileReader<?>> openReaders, long start, long end) {
+        this.avroFile = avroFile;
+        this.geometryDecoder = geometryDecoder;
+        this.openReaders = openReaders;
+        this.start = start;
+        this.end = end;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            if (dataFileReader == null) {
+                dataFileReader = new DataFileReader<>(avroFile,
+                        new SpecificDatumReader<>(org.n52.tsf.serialization.avro.gen.vector.Geometry.class));
+                openReaders.add(dataFileReader);
+                dataFileReader.sync(start);
+            }
+            if (!dataFileReader.hasNext() || dataFileReader.pastSync(end)) {
+                return false;
+            }
+            action.accept(geometryDecoder.apply(dataFileReader.next()));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Spliterator<T> trySplit() {
+        long mid = (start + end) >>> 1;
+        if (dataFileReader != null || mid - start < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        AvroBlockSpliterator<T> prefix = new AvroBlockSpliterator<>(avroFile, geometryDecoder, openReaders, start, mid);
+        start = mid;
+        return prefix;
+    }
+
+    public long estimateSize() {
+        return end - start;
+    }
+
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * Closes the readers opened by this spliterator and all splits derived from it.
+     */
+    public void close() {
+        DataFileReader<?> reader;
+        while ((reader = openReaders.poll()) != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close avro reader of " + avroFile, e);
+            }
+        }
+    }
+}
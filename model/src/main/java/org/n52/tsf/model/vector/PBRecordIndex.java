@@ -0,0 +1,86 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Offsets and sizes of the length delimited records of a protobuf geometry file. The index is built by walking
+ * the length prefixes only, without parsing any of the records.
+ */
+public class PBRecordIndex {
+    private long[] offsets = new long[1024];
+    private int[] sizes = new int[1024];
+    private int count;
+
+    public static PBRecordIndex build(File pbFile) throws IOException {
+        PBRecordIndex recordIndex = new PBRecordIndex();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(pbFile)))) {
+            long position = 0;
+            int firstByte;
+            while ((firstByte = input.read()) != -1) {
+                int size = CodedInputStream.readRawVarint32(firstByte, input);
+                position += CodedOutputStream.computeUInt32SizeNoTag(size);
+                recordIndex.add(position, size);
+                int skipped = input.skipBytes(size);
+                if (skipped < size) {
+                    throw new EOFException("Truncated protobuf record at offset " + position);
+                }
+                position += size;
+            }
+        }
+        return recordIndex;
+    }
+
+    private void add(long offset, int size) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            sizes = Arrays.copyOf(sizes, count * 2);
+        }
+        offsets[count] = offset;
+        sizes[count] = size;
+        count++;
+    }
+
+    public int getRecordCount() {
+        return count;
+    }
+
+    /**
+     * File offset of the record payload, just behind its length prefix.
+     */
+    public long getOffset(int record) {
+        return offsets[record];
+    }
+
+    public int getSize(int record) {
+        return sizes[record];
+    }
+}
@@ -0,0 +1,106 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector;
+
+import org.n52.tsf.model.pool.BufferPool;
+import org.n52.tsf.serialization.protobuf.gen.GeoProtobuf;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Spliterator} over the records of a protobuf geometry file which splits on the record offsets of a
+ * {@link PBRecordIndex}. All splits read from one shared {@link FileChannel} with positional reads.
+ */
+public class PBRecordSpliterator<T> implements Spliterator<T> {
+    private static final int MIN_SPLIT_RECORDS = 16;
+
+    private final FileChannel channel;
+    private final PBRecordIndex recordIndex;
+    private final Function<GeoProtobuf.Geometry, T> geometryDecoder;
+    private int position;
+    private final int fence;
+
+    public PBRecordSpliterator(FileChannel channel, PBRecordIndex recordIndex, Function<GeoProtobuf.Geometry, T> geometryDecoder) {
+        this(channel, recordIndex, geometryDecoder, 0, recordIndex.getRecordCount());
+    }
+
+    private PBRecordSpliterator(FileChannel channel, PBRecordIndex recordIndex, Function<GeoProtobuf.Geometry, T> geometryDecoder,
+                                int position, int fence) {
+        this.channel = channel;
+        this.recordIndex = recordIndex;
+        this.geometryDecoder = geometryDecoder;
+        this.position = position;
+        this.fence = fence;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (position >= fence) {
+            return false;
+        }
+        action.accept(geometryDecoder.apply(readRecord(position++)));
+        return true;
+    }
+
+    public Spliterator<T> trySplit() {
+        int mid = (position + fence) >>> 1;
+        if (mid - position < MIN_SPLIT_RECORDS) {
+            return null;
+        }
+        PBRecordSpliterator<T> prefix = new PBRecordSpliterator<>(channel, recordIndex, geometryDecoder, position, mid);
+        position = mid;
+        return prefix;
+    }
+
+    public long estimateSize() {
+        return fence - position;
+    }
+
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private GeoProtobuf.Geometry readRecord(int record) {
+        int size = recordIndex.getSize(record);
+        long offset = recordIndex.getOffset(record);
+        BufferPool bufferPool = BufferPool.get();
+        ByteBuffer buffer = bufferPool.borrowHeapBuffer(size);
+        try {
+            buffer.limit(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Truncated protobuf record at offset " + offset);
+                }
+            }
+            return GeoProtobuf.Geometry.parser().parseFrom(buffer.array(), buffer.arrayOffset(), size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            bufferPool.releaseBuffer(buffer);
+        }
+    }
+}
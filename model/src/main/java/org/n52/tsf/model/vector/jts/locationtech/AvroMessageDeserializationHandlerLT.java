@@ -0,0 +1,62 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.locationtech;
+
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.SchemaStore;
+import org.n52.tsf.model.DeserializerType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * This class provides the Avro to JTS deserialization functionality with locationtech JTS library for streams
+ * written with the avro single object encoding. The writer schema of each message is resolved from its
+ * fingerprint, first against the current geometry schema and then against the given {@link SchemaStore}.
+ */
+public class AvroMessageDeserializationHandlerLT extends AvroDeserializationHandlerLT {
+    private BinaryMessageDecoder<org.n52.tsf.serialization.avro.gen.vector.Geometry> messageDecoder;
+    private PushbackInputStream inputStream;
+
+    public AvroMessageDeserializationHandlerLT(InputStream inputStream) {
+        this(inputStream, null);
+    }
+
+    public AvroMessageDeserializationHandlerLT(InputStream inputStream, SchemaStore schemaStore) {
+        super(DeserializerType.AVRO_MESSAGE_DESERIALIZER_LT);
+        this.messageDecoder = org.n52.tsf.serialization.avro.gen.vector.Geometry.createDecoder(schemaStore);
+        this.inputStream = new PushbackInputStream(inputStream);
+    }
+
+    public Object deserialize() throws IOException {
+        int nextByte = inputStream.read();
+        if (nextByte == -1) {
+            return null;
+        }
+        inputStream.unread(nextByte);
+        return createJtsGeometry(messageDecoder.decode(inputStream));
+    }
+
+    public void close() throws IOException {
+        inputStream.close();
+    }
+}
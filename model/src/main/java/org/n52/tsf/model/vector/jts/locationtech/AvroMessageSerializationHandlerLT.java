@@ -0,0 +1,53 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.locationtech;
+
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.specific.SpecificData;
+import org.n52.tsf.model.SerializerType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class provides the JTS to avro Serialization functionality with locationtech JTS library using the avro
+ * single object encoding. Every geometry is written as a self contained message carrying only a schema
+ * fingerprint header instead of the object container file header, schema and sync markers.
+ */
+public class AvroMessageSerializationHandlerLT extends AvroSerializationHandlerLT {
+    private BinaryMessageEncoder<org.n52.tsf.serialization.avro.gen.vector.Geometry> messageEncoder;
+    private OutputStream output;
+
+    public AvroMessageSerializationHandlerLT(OutputStream outputStream) {
+        super(SerializerType.AVRO_MESSAGE_SERIALIZER_LT);
+        messageEncoder = new BinaryMessageEncoder<>(SpecificData.get(),
+                org.n52.tsf.serialization.avro.gen.vector.Geometry.getClassSchema());
+        output = outputStream;
+    }
+
+    public void serialize(Object jtsGeometry) throws IOException {
+        messageEncoder.encode(createAvroGeometry(jtsGeometry), output);
+    }
+
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -30,6 +30,7 @@ import org.n52.tsf.model.SerializerType;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static java.lang.Double.NaN;
@@ -51,7 +52,19 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         dataFileWriter.create(org.n52.tsf.serialization.avro.gen.vector.Geometry.getClassSchema(), outputStream);
     }
 
+    protected AvroSerializationHandlerLT(SerializerType serializerType) {
+        super(serializerType);
+    }
+
     public void serialize(Object jtsGeometry) throws IOException {
+        dataFileWriter.append(createAvroGeometry(jtsGeometry));
+    }
+
+    public void close() throws IOException {
+        dataFileWriter.close();
+    }
+
+    protected org.n52.tsf.serialization.avro.gen.vector.Geometry createAvroGeometry(Object jtsGeometry) throws IOException {
         org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry;
         if (jtsGeometry instanceof Point) {
             avroGeometry = serializePoint((Point) jtsGeometry);
@@ -76,19 +89,15 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         } else {
             throw new IllegalArgumentException("Unsupported Geometric type for Avro Serialization");
         }
-        dataFileWriter.append(avroGeometry);
-    }
-
-    public void close() throws IOException {
-        dataFileWriter.close();
+        return avroGeometry;
     }
 
     private org.n52.tsf.serialization.avro.gen.vector.Geometry serializePoint(Point jtsPoint) {
         if (jtsPoint.getCoordinates().length == 0) {
             throw new IllegalArgumentException("No Coordinate data available");
         } else {
-            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>();
-            coordinateList.add(createCoordinate(jtsPoint.getCoordinate()));
+            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList =
+                    Collections.singletonList(createCoordinate(jtsPoint.getCoordinate()));
             return createGeometry(coordinateList, null, org.n52.tsf.serialization.avro.gen.vector.Type.POINT);
         }
     }
@@ -97,16 +106,13 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         if (jtsLineString.getCoordinates().length < 2) {
             throw new IllegalArgumentException("Insufficient Coordinates");
         } else {
-            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>();
-            for (Coordinate coord : jtsLineString.getCoordinates()) {
-                coordinateList.add(createCoordinate(coord));
-            }
+            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = createCoordinates(jtsLineString.getCoordinates());
             return createGeometry(coordinateList, null, org.n52.tsf.serialization.avro.gen.vector.Type.LINESTRING);
         }
     }
 
     private org.n52.tsf.serialization.avro.gen.vector.Geometry serializeMultiPoint(MultiPoint jtsMultiPoint) throws IOException {
-        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>();
+        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>(jtsMultiPoint.getNumGeometries());
         for (int i = 0; i < jtsMultiPoint.getNumGeometries(); i++) {
             geometries.add(serializePoint((Point) jtsMultiPoint.getGeometryN(i)));
         }
@@ -114,7 +120,7 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
     }
 
     private org.n52.tsf.serialization.avro.gen.vector.Geometry serializeMultiLineString(MultiLineString jtsMultiLineString) throws IOException {
-        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>();
+        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>(jtsMultiLineString.getNumGeometries());
         for (int i = 0; i < jtsMultiLineString.getNumGeometries(); i++) {
             geometries.add(serializeLineString((LineString) jtsMultiLineString.getGeometryN(i)));
         }
@@ -125,16 +131,13 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         if (jtsLinearRing.getCoordinates().length < 2) {
             throw new IllegalArgumentException("Insufficient Coordinates");
         } else {
-            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>();
-            for (Coordinate coord : jtsLinearRing.getCoordinates()) {
-                coordinateList.add(createCoordinate(coord));
-            }
+            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = createCoordinates(jtsLinearRing.getCoordinates());
             return createGeometry(coordinateList, null, org.n52.tsf.serialization.avro.gen.vector.Type.LINEARRING);
         }
     }
 
     public org.n52.tsf.serialization.avro.gen.vector.Geometry serializeMultiPolygon(MultiPolygon jtsMultiPolygon) throws IOException {
-        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>();
+        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>(jtsMultiPolygon.getNumGeometries());
         for (int i = 0; i < jtsMultiPolygon.getNumGeometries(); i++) {
             geometries.add(serializePolygon((Polygon) jtsMultiPolygon.getGeometryN(i)));
         }
@@ -145,18 +148,12 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         LineString externalLS = jtsPolygon.getExteriorRing();
         int noOfInteriorRings = jtsPolygon.getNumInteriorRing();
 
-        List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> exCoordinateList = new ArrayList<>();
-        for (Coordinate coord : externalLS.getCoordinates()) {
-            exCoordinateList.add(createCoordinate(coord));
-        }
-        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> interiorGeos = new ArrayList<>();
+        List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> exCoordinateList = createCoordinates(externalLS.getCoordinates());
+        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> interiorGeos = new ArrayList<>(noOfInteriorRings);
         if (noOfInteriorRings > 0) {
             for (int i = 0; i < noOfInteriorRings; i++) {
                 LineString interiorLS = jtsPolygon.getInteriorRingN(i);
-                List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> inCoordinateList = new ArrayList<>();
-                for (Coordinate coord : interiorLS.getCoordinates()) {
-                    inCoordinateList.add(createCoordinate(coord));
-                }
+                List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> inCoordinateList = createCoordinates(interiorLS.getCoordinates());
                 interiorGeos.add(createGeometry(inCoordinateList, null, org.n52.tsf.serialization.avro.gen.vector.Type.LINEARRING));
             }
         }
@@ -169,7 +166,7 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         if (p0 == null || p1 == null) {
             throw new IllegalArgumentException("Insufficient Coordinates");
         } else {
-            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>();
+            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>(2);
             coordinateList.add(createCoordinate(p0));
             coordinateList.add(createCoordinate(p1));
             return createGeometry(coordinateList, null, org.n52.tsf.serialization.avro.gen.vector.Type.LINE);
@@ -183,7 +180,7 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         if (p0 == null || p1 == null || p2 == null) {
             throw new IllegalArgumentException("Insufficient Coordinates");
         } else {
-            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>();
+            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>(3);
             coordinateList.add(createCoordinate(p0));
             coordinateList.add(createCoordinate(p1));
             coordinateList.add(createCoordinate(p2));
@@ -191,38 +188,32 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
         }
     }
 
+    private List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> createCoordinates(Coordinate[] jtsCoordinates) {
+        List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>(jtsCoordinates.length);
+        for (Coordinate coord : jtsCoordinates) {
+            coordinateList.add(createCoordinate(coord));
+        }
+        return coordinateList;
+    }
+
     private org.n52.tsf.serialization.avro.gen.vector.Coordinate createCoordinate(Coordinate jtsCoordinate) {
-        org.n52.tsf.serialization.avro.gen.vector.Coordinate.Builder coordinate = org.n52.tsf.serialization.avro.gen.vector.Coordinate.newBuilder();
-        coordinate.setX(jtsCoordinate.x);
-        coordinate.setY(jtsCoordinate.y);
-        coordinate.setZ(NaN);
-        return coordinate.build();
+        return new org.n52.tsf.serialization.avro.gen.vector.Coordinate(jtsCoordinate.x, jtsCoordinate.y, NaN);
     }
 
     private org.n52.tsf.serialization.avro.gen.vector.Geometry createGeometry(List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinates,
                                                                               List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries,
                                                                               org.n52.tsf.serialization.avro.gen.vector.Type type) {
-        org.n52.tsf.serialization.avro.gen.vector.Geometry.Builder geometry = org.n52.tsf.serialization.avro.gen.
-                vector.Geometry.newBuilder();
         if (coordinates == null) {
-            List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinateList = new ArrayList<>();
-            geometry.setCoordinates(coordinateList);
-        } else {
-            geometry.setCoordinates(coordinates);
+            coordinates = Collections.emptyList();
         }
         if (geometries == null) {
-            List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometryList = new ArrayList<>();
-            geometry.setGeometries(geometryList);
-        } else {
-            geometry.setGeometries(geometries);
+            geometries = Collections.emptyList();
         }
-
-        geometry.setType(type);
-        return geometry.build();
+        return new org.n52.tsf.serialization.avro.gen.vector.Geometry(type, geometries, coordinates);
     }
 
     private org.n52.tsf.serialization.avro.gen.vector.Geometry serializeGeometryCollection(GeometryCollection jtsGeoCollection) throws IOException {
-        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>();
+        List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = new ArrayList<>(jtsGeoCollection.getNumGeometries());
         for (int i = 0; i < jtsGeoCollection.getNumGeometries(); i++) {
             Geometry jtsGeometry = jtsGeoCollection.getGeometryN(i);
             if (jtsGeometry instanceof Point) {
@@ -239,6 +230,8 @@ public class AvroSerializationHandlerLT extends SerializationHandler {
                 geometries.add(serializeMultiLineString((MultiLineString) jtsGeometry));
             }else if (jtsGeometry instanceof MultiPolygon) {
                 geometries.add(serializeMultiPolygon((MultiPolygon) jtsGeometry));
+            } else if (jtsGeometry instanceof GeometryCollection) {
+                geometries.add(serializeGeometryCollection((GeometryCollection) jtsGeometry));
             } else {
                 throw new IllegalArgumentException("Unsupported Geometric type for Avro Serialization");
             }
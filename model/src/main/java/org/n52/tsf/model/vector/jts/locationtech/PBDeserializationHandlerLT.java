@@ -19,17 +19,28 @@
 
 package org.n52.tsf.model.vector.jts.locationtech;
 
+import com.google.protobuf.CodedInputStream;
 import org.apache.log4j.Logger;
 import org.locationtech.jts.geom.*;
 import org.n52.tsf.model.DeserializationHandler;
 import org.n52.tsf.model.DeserializerType;
+import org.n52.tsf.model.pool.BufferPool;
+import org.n52.tsf.model.vector.PBRecordIndex;
+import org.n52.tsf.model.vector.PBRecordSpliterator;
 import org.n52.tsf.serialization.protobuf.gen.GeoProtobuf;
 
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class provides the JTS to ProtoBuf Deserialization functionality.
@@ -37,18 +48,56 @@ import java.util.stream.Collectors;
 public class PBDeserializationHandlerLT extends DeserializationHandler {
     private final static Logger logger = Logger.getLogger(PBDeserializationHandlerLT.class);
     private GeometryFactory geometryFactory;
-    private InputStream inputStream;
+    private DataInputStream inputStream;
+    private File pbFile;
 
 
     public PBDeserializationHandlerLT(InputStream inputStream) {
-        super(DeserializerType.PROTOBUF_DESERIALIZER_VS);
+        super(DeserializerType.PROTOBUF_DESERIALIZER_LT);
         this.geometryFactory = new GeometryFactory();
-        this.inputStream = inputStream;
+        this.inputStream = new DataInputStream(inputStream);
 
     }
 
+    public PBDeserializationHandlerLT(File pbFile) throws IOException {
+        this(new FileInputStream(pbFile));
+        this.pbFile = pbFile;
+    }
+
     public Object deserialize() throws IOException {
-        GeoProtobuf.Geometry pbGeometry = GeoProtobuf.Geometry.parseDelimitedFrom(inputStream);
+        GeoProtobuf.Geometry pbGeometry = readDelimited();
+        if (pbGeometry == null) {
+            return null;
+        }
+        return createJtsGeometry(pbGeometry);
+    }
+
+    /**
+     * Streams the geometries of the handler. For handlers created from a file the stream covers the whole file and
+     * splits on the record offsets for parallel decoding.
+     */
+    public Stream<Object> stream() {
+        if (pbFile == null) {
+            return super.stream();
+        }
+        try {
+            PBRecordIndex recordIndex = PBRecordIndex.build(pbFile);
+            FileChannel channel = FileChannel.open(pbFile.toPath(), StandardOpenOption.READ);
+            return StreamSupport.stream(new PBRecordSpliterator<>(channel, recordIndex, this::createJtsGeometry), false)
+                    .onClose(() -> {
+                        try {
+                            channel.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .onClose(this::closeUnchecked);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Object createJtsGeometry(GeoProtobuf.Geometry pbGeometry) {
         Object jtsGeometry = null;
         switch (pbGeometry.getType()) {
             case POINT:
@@ -91,6 +140,22 @@ public class PBDeserializationHandlerLT extends DeserializationHandler {
         inputStream.close();
     }
 
+    private GeoProtobuf.Geometry readDelimited() throws IOException {
+        int firstByte = inputStream.read();
+        if (firstByte == -1) {
+            return null;
+        }
+        int size = CodedInputStream.readRawVarint32(firstByte, inputStream);
+        BufferPool bufferPool = BufferPool.get();
+        byte[] buffer = bufferPool.borrowBytes(size);
+        try {
+            inputStream.readFully(buffer, 0, size);
+            return GeoProtobuf.Geometry.parser().parseFrom(buffer, 0, size);
+        } finally {
+            bufferPool.releaseBytes(buffer);
+        }
+    }
+
     private Point deserializePoint(GeoProtobuf.Geometry pbGeometry) {
         Coordinate jtsCoordinate = createJtsCoordinate(pbGeometry.getCoordinates(0));
         Point point = geometryFactory.createPoint(jtsCoordinate);
@@ -99,42 +164,38 @@ public class PBDeserializationHandlerLT extends DeserializationHandler {
 
     private MultiPoint deserializeMultiPoint(GeoProtobuf.Geometry pbGeometry) {
         Point[] jtsPoints = pbGeometry.getGeometriesList().
-                stream().map(this::deserializePoint).collect(Collectors.toList()).stream().toArray(Point[]::new);
+                stream().map(this::deserializePoint).toArray(Point[]::new);
         MultiPoint multiPoint = geometryFactory.createMultiPoint(jtsPoints);
         return multiPoint;
     }
 
     private LineString deserializeLineString(GeoProtobuf.Geometry pbGeometry) {
-        Coordinate[] jtsCoordinates = pbGeometry.getCoordinatesList().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+        Coordinate[] jtsCoordinates = createJtsCoordinates(pbGeometry.getCoordinatesList());
         LineString lineString = geometryFactory.createLineString(jtsCoordinates);
         return lineString;
     }
 
-    public LineSegment deserializeLine(GeoProtobuf.Geometry pbGeometry) throws IOException {
-        Coordinate[] jtsCoordinates = pbGeometry.getCoordinatesList().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+    public LineSegment deserializeLine(GeoProtobuf.Geometry pbGeometry) {
+        Coordinate[] jtsCoordinates = createJtsCoordinates(pbGeometry.getCoordinatesList());
         LineSegment lineSegment = new LineSegment(jtsCoordinates[0], jtsCoordinates[1]);
         return lineSegment;
     }
 
-    public Triangle deserializeTriangle(GeoProtobuf.Geometry pbGeometry) throws IOException {
-        Coordinate[] jtsCoordinates = pbGeometry.getCoordinatesList().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+    public Triangle deserializeTriangle(GeoProtobuf.Geometry pbGeometry) {
+        Coordinate[] jtsCoordinates = createJtsCoordinates(pbGeometry.getCoordinatesList());
         Triangle triangle = new Triangle(jtsCoordinates[0], jtsCoordinates[1], jtsCoordinates[2]);
         return triangle;
     }
 
     private LinearRing deserializeLinearRing(GeoProtobuf.Geometry pbGeometry) {
-        Coordinate[] jtsCoordinates = pbGeometry.getCoordinatesList().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+        Coordinate[] jtsCoordinates = createJtsCoordinates(pbGeometry.getCoordinatesList());
         LinearRing linearRing = geometryFactory.createLinearRing(jtsCoordinates);
         return linearRing;
     }
 
     private MultiLineString deserializeMultiLineString(GeoProtobuf.Geometry pbGeometry) {
         LineString[] jtsLineStrings = pbGeometry.getGeometriesList().
-                stream().map(this::deserializeLineString).collect(Collectors.toList()).stream().toArray(LineString[]::new);
+                stream().map(this::deserializeLineString).toArray(LineString[]::new);
         MultiLineString multiLineString = geometryFactory.createMultiLineString(jtsLineStrings);
         return multiLineString;
     }
@@ -143,23 +204,20 @@ public class PBDeserializationHandlerLT extends DeserializationHandler {
         Polygon polygon;
         if (pbGeometry.getGeometriesCount() == 1) {
             GeoProtobuf.Geometry exteriorLS = pbGeometry.getGeometries(0);
-            Coordinate[] jtsCoordinates = exteriorLS.getCoordinatesList().
-                    stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+            Coordinate[] jtsCoordinates = createJtsCoordinates(exteriorLS.getCoordinatesList());
             polygon = geometryFactory.createPolygon(jtsCoordinates);
 
         } else {
             GeoProtobuf.Geometry exteriorLS = pbGeometry.getGeometries(0);
             List<GeoProtobuf.Geometry> interiorLSs = pbGeometry.getGeometries(1).getGeometriesList();
 
-            Coordinate[] exCoordinates = exteriorLS.getCoordinatesList().
-                    stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+            Coordinate[] exCoordinates = createJtsCoordinates(exteriorLS.getCoordinatesList());
 
             LinearRing exteriorLR = geometryFactory.createLinearRing(exCoordinates);
 
             List<LinearRing> jtsInteriorLRs = new ArrayList();
             for (GeoProtobuf.Geometry geo : interiorLSs) {
-                Coordinate[] inCoordinates = geo.getCoordinatesList().
-                        stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+                Coordinate[] inCoordinates = createJtsCoordinates(geo.getCoordinatesList());
                 jtsInteriorLRs.add(geometryFactory.createLinearRing(inCoordinates));
             }
             polygon = geometryFactory.createPolygon(exteriorLR, jtsInteriorLRs.stream().toArray(LinearRing[]::new));
@@ -169,11 +227,19 @@ public class PBDeserializationHandlerLT extends DeserializationHandler {
 
     private MultiPolygon deserializeMultiPolygon(GeoProtobuf.Geometry pbGeometry) {
         Polygon[] jtsPolygons = pbGeometry.getGeometriesList().
-                stream().map(this::deserializePolygon).collect(Collectors.toList()).stream().toArray(Polygon[]::new);
+                stream().map(this::deserializePolygon).toArray(Polygon[]::new);
         MultiPolygon multiPolygon = geometryFactory.createMultiPolygon(jtsPolygons);
         return multiPolygon;
     }
 
+    private Coordinate[] createJtsCoordinates(List<GeoProtobuf.Coordinate> pbCoordinates) {
+        Coordinate[] jtsCoordinates = new Coordinate[pbCoordinates.size()];
+        for (int i = 0; i < jtsCoordinates.length; i++) {
+            jtsCoordinates[i] = createJtsCoordinate(pbCoordinates.get(i));
+        }
+        return jtsCoordinates;
+    }
+
     private Coordinate createJtsCoordinate(GeoProtobuf.Coordinate pbCoordinate) {
         Coordinate jtsCoordinate = new Coordinate(pbCoordinate.getX(), pbCoordinate.getY());
         return jtsCoordinate;
@@ -181,7 +247,7 @@ public class PBDeserializationHandlerLT extends DeserializationHandler {
 
     private GeometryCollection deserializeGeoCollection(GeoProtobuf.Geometry pbGeometry) {
         Geometry[] jtsGeometries = pbGeometry.getGeometriesList().
-                stream().map(this::deserializeGeometry).collect(Collectors.toList()).stream().toArray(Geometry[]::new);
+                stream().map(this::deserializeGeometry).toArray(Geometry[]::new);
         return geometryFactory.createGeometryCollection(jtsGeometries);
     }
 
@@ -201,6 +267,8 @@ public class PBDeserializationHandlerLT extends DeserializationHandler {
                 return deserializeLinearRing(pbGeometry);
             case MULTIPOLYGON:
                 return deserializeMultiPolygon(pbGeometry);
+            case GEOMETRYCOLLECTION:
+                return deserializeGeoCollection(pbGeometry);
             default:
                 logger.error("Unsupported Geometric type for Protobuf deserialization");
                 return null;
@@ -19,6 +19,7 @@
 
 package org.n52.tsf.model.vector.jts.vividsolutions;
 
+import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.DataFileStream;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.specific.SpecificDatumReader;
@@ -26,12 +27,15 @@ import org.apache.log4j.Logger;
 import com.vividsolutions.jts.geom.*;
 import org.n52.tsf.model.DeserializationHandler;
 import org.n52.tsf.model.DeserializerType;
+import org.n52.tsf.model.vector.AvroBlockSpliterator;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class provides the  Avro to JTS deserialization functionality.
@@ -40,6 +44,7 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
     private final static Logger logger = Logger.getLogger(AvroDeserializationHandlerVS.class);
     private GeometryFactory geometryFactory;
     private DataFileStream<org.n52.tsf.serialization.avro.gen.vector.Geometry> dataFileReader;
+    private File avroFile;
 
     public AvroDeserializationHandlerVS(InputStream inputStream) throws IOException {
         super(DeserializerType.AVRO_DESERIALIZER_VS);
@@ -49,53 +54,83 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
         this.geometryFactory = new GeometryFactory();
     }
 
-    public Object deserialize() {
-        org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry;
+    public AvroDeserializationHandlerVS(File avroFile) throws IOException {
+        super(DeserializerType.AVRO_DESERIALIZER_VS);
+        DatumReader<org.n52.tsf.serialization.avro.gen.vector.Geometry> datumReader =
+                new SpecificDatumReader<>(org.n52.tsf.serialization.avro.gen.vector.Geometry.class);
+        dataFileReader = new DataFileReader<>(avroFile, datumReader);
+        this.geometryFactory = new GeometryFactory();
+        this.avroFile = avroFile;
+    }
+
+    protected AvroDeserializationHandlerVS(DeserializerType deserializerType) {
+        super(deserializerType);
+        this.geometryFactory = new GeometryFactory();
+    }
+
+    public Object deserialize() throws IOException {
         Object jtsGeometry = null;
         if (dataFileReader.hasNext()) {
-            avroGeometry = dataFileReader.next();
-            switch (avroGeometry.getType()) {
-                case POINT:
-                    jtsGeometry = deserializePoint(avroGeometry);
-                    break;
-                case LINESTRING:
-                    jtsGeometry = deserializeLineString(avroGeometry);
-                    break;
-                case POLYGON:
-                    jtsGeometry = deserializePolygon(avroGeometry);
-                    break;
-                case MULTIPOINT:
-                    jtsGeometry = deserializeMultiPoint(avroGeometry);
-                    break;
-                case MULTILINESTRING:
-                    jtsGeometry = deserializeMultiLineString(avroGeometry);
-                    break;
-                case LINEARRING:
-                    jtsGeometry = deserializeLinearRing(avroGeometry);
-                    break;
-                case MULTIPOLYGON:
-                    jtsGeometry = deserializeMultiPolygon(avroGeometry);
-                    break;
-                case GEOMETRYCOLLECTION:
-                    jtsGeometry = deserializeGeoCollection(avroGeometry);
-                    break;
-                case TRIANGLE:
-                    jtsGeometry = deserializeTriangle(avroGeometry);
-                    break;
-                case LINE:
-                    jtsGeometry = deserializeLine(avroGeometry);
-                    break;
-                default:
-                    logger.error("Unsupported Geometric type for Avro deserialization");
-            }
+            jtsGeometry = createJtsGeometry(dataFileReader.next());
         }
         return jtsGeometry;
     }
 
+    /**
+     * Streams the geometries of the handler. For handlers created from a file the stream covers the whole file and
+     * splits on sync marker block boundaries for parallel decoding.
+     */
+    public Stream<Object> stream() {
+        if (avroFile == null) {
+            return super.stream();
+        }
+        AvroBlockSpliterator<Object> spliterator = new AvroBlockSpliterator<>(avroFile, this::createJtsGeometry);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close).onClose(this::closeUnchecked);
+    }
+
     public void close() throws IOException {
         dataFileReader.close();
     }
 
+    protected Object createJtsGeometry(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
+        Object jtsGeometry = null;
+        switch (avroGeometry.getType()) {
+            case POINT:
+                jtsGeometry = deserializePoint(avroGeometry);
+                break;
+            case LINESTRING:
+                jtsGeometry = deserializeLineString(avroGeometry);
+                break;
+            case POLYGON:
+                jtsGeometry = deserializePolygon(avroGeometry);
+                break;
+            case MULTIPOINT:
+                jtsGeometry = deserializeMultiPoint(avroGeometry);
+                break;
+            case MULTILINESTRING:
+                jtsGeometry = deserializeMultiLineString(avroGeometry);
+                break;
+            case LINEARRING:
+                jtsGeometry = deserializeLinearRing(avroGeometry);
+                break;
+            case MULTIPOLYGON:
+                jtsGeometry = deserializeMultiPolygon(avroGeometry);
+                break;
+            case GEOMETRYCOLLECTION:
+                jtsGeometry = deserializeGeoCollection(avroGeometry);
+                break;
+            case TRIANGLE:
+                jtsGeometry = deserializeTriangle(avroGeometry);
+                break;
+            case LINE:
+                jtsGeometry = deserializeLine(avroGeometry);
+                break;
+            default:
+                logger.error("Unsupported Geometric type for Avro deserialization");
+        }
+        return jtsGeometry;
+    }
+
     private Point deserializePoint(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
         List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> coordinates = avroGeometry.getCoordinates();
         Coordinate jtsCoordinate = createJtsCoordinate(coordinates.get(0));
@@ -107,34 +142,38 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
         if (dataFileReader.hasNext()) {
             avroGeometry = dataFileReader.next();
         }
-        Coordinate[] jtsCoordinates = avroGeometry.getCoordinates().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+        Coordinate[] jtsCoordinates = createJtsCoordinates(avroGeometry.getCoordinates());
         LineSegment lineSegment = new LineSegment(jtsCoordinates[0], jtsCoordinates[1]);
         return lineSegment;
     }
 
     private Triangle deserializeTriangle(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
-        Coordinate[] jtsCoordinates = avroGeometry.getCoordinates().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+        Coordinate[] jtsCoordinates = createJtsCoordinates(avroGeometry.getCoordinates());
         Triangle triangle = new Triangle(jtsCoordinates[0], jtsCoordinates[1], jtsCoordinates[2]);
         return triangle;
     }
 
+    private Coordinate[] createJtsCoordinates(List<org.n52.tsf.serialization.avro.gen.vector.Coordinate> avroCoordinates) {
+        Coordinate[] jtsCoordinates = new Coordinate[avroCoordinates.size()];
+        for (int i = 0; i < jtsCoordinates.length; i++) {
+            jtsCoordinates[i] = createJtsCoordinate(avroCoordinates.get(i));
+        }
+        return jtsCoordinates;
+    }
+
     private Coordinate createJtsCoordinate(org.n52.tsf.serialization.avro.gen.vector.Coordinate avroCoordinate) {
         Coordinate jtsCoordinate = new Coordinate(avroCoordinate.getX(), avroCoordinate.getY());
         return jtsCoordinate;
     }
 
     private LineString deserializeLineString(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
-        Coordinate[] jtsCoordinates = avroGeometry.getCoordinates().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+        Coordinate[] jtsCoordinates = createJtsCoordinates(avroGeometry.getCoordinates());
         LineString lineString = geometryFactory.createLineString(jtsCoordinates);
         return lineString;
     }
 
     private LinearRing deserializeLinearRing(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
-        Coordinate[] jtsCoordinates = avroGeometry.getCoordinates().
-                stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+        Coordinate[] jtsCoordinates = createJtsCoordinates(avroGeometry.getCoordinates());
         LinearRing linearRing = geometryFactory.createLinearRing(jtsCoordinates);
         return linearRing;
     }
@@ -143,20 +182,17 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
         List<org.n52.tsf.serialization.avro.gen.vector.Geometry> geometries = avroGeometry.getGeometries();
         Polygon polygon;
         if (geometries.size() == 0) {
-            Coordinate[] jtsCoordinates = avroGeometry.getCoordinates().
-                    stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+            Coordinate[] jtsCoordinates = createJtsCoordinates(avroGeometry.getCoordinates());
             polygon = geometryFactory.createPolygon(jtsCoordinates);
 
         } else {
-            Coordinate[] exCoordinates = avroGeometry.getCoordinates().
-                    stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+            Coordinate[] exCoordinates = createJtsCoordinates(avroGeometry.getCoordinates());
 
             LinearRing exteriorLR = geometryFactory.createLinearRing(exCoordinates);
 
             List<LinearRing> jtsInteriorLRs = new ArrayList();
             for (org.n52.tsf.serialization.avro.gen.vector.Geometry geo : geometries) {
-                Coordinate[] inCoordinates = geo.getCoordinates().
-                        stream().map(this::createJtsCoordinate).collect(Collectors.toList()).stream().toArray(Coordinate[]::new);
+                Coordinate[] inCoordinates = createJtsCoordinates(geo.getCoordinates());
                 jtsInteriorLRs.add(geometryFactory.createLinearRing(inCoordinates));
             }
             polygon = geometryFactory.createPolygon(exteriorLR, jtsInteriorLRs.stream().toArray(LinearRing[]::new));
@@ -166,21 +202,21 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
 
     private MultiPolygon deserializeMultiPolygon(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
         Polygon[] jtsPolygons = avroGeometry.getGeometries().
-                stream().map(this::deserializePolygon).collect(Collectors.toList()).stream().toArray(Polygon[]::new);
+                stream().map(this::deserializePolygon).toArray(Polygon[]::new);
         MultiPolygon multiPolygon = geometryFactory.createMultiPolygon(jtsPolygons);
         return multiPolygon;
     }
 
     private MultiPoint deserializeMultiPoint(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
         Point[] jtsPoints = avroGeometry.getGeometries().
-                stream().map(this::deserializePoint).collect(Collectors.toList()).stream().toArray(Point[]::new);
+                stream().map(this::deserializePoint).toArray(Point[]::new);
         MultiPoint multiPoint = geometryFactory.createMultiPoint(jtsPoints);
         return multiPoint;
     }
 
     private MultiLineString deserializeMultiLineString(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
         LineString[] jtsLineStrings = avroGeometry.getGeometries().
-                stream().map(this::deserializeLineString).collect(Collectors.toList()).stream().toArray(LineString[]::new);
+                stream().map(this::deserializeLineString).toArray(LineString[]::new);
         MultiLineString multiLineString = geometryFactory.createMultiLineString(jtsLineStrings);
         return multiLineString;
     }
@@ -188,7 +224,7 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
 
     private GeometryCollection deserializeGeoCollection(org.n52.tsf.serialization.avro.gen.vector.Geometry avroGeometry) {
         Geometry[] jtsGeometries = avroGeometry.getGeometries().
-                stream().map(this::deserializeGeometry).collect(Collectors.toList()).stream().toArray(Geometry[]::new);
+                stream().map(this::deserializeGeometry).toArray(Geometry[]::new);
         return geometryFactory.createGeometryCollection(jtsGeometries);
     }
 
@@ -208,6 +244,8 @@ public class AvroDeserializationHandlerVS extends DeserializationHandler{
                 return deserializeLinearRing(avroGeometry);
             case MULTIPOLYGON:
                 return deserializeMultiPolygon(avroGeometry);
+            case GEOMETRYCOLLECTION:
+                return deserializeGeoCollection(avroGeometry);
             default:
                 logger.error("Unsupported Geometric type for Avro deserialization");
                 return null;
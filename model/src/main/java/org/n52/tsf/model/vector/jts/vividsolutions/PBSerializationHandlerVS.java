@@ -19,10 +19,12 @@
 
 package org.n52.tsf.model.vector.jts.vividsolutions;
 
+import com.google.protobuf.CodedOutputStream;
 import org.apache.log4j.Logger;
 import com.vividsolutions.jts.geom.*;
 import org.n52.tsf.model.SerializationHandler;
 import org.n52.tsf.model.SerializerType;
+import org.n52.tsf.model.pool.BufferPool;
 import org.n52.tsf.serialization.protobuf.gen.GeoProtobuf;
 
 import java.io.IOException;
@@ -65,13 +67,29 @@ public class PBSerializationHandlerVS extends SerializationHandler {
         } else {
             throw new IllegalArgumentException("Unsupported Geometric type for Protobuf Serialization");
         }
-        pbGeometry.writeDelimitedTo(output);
+        writeDelimited(pbGeometry);
     }
 
     public void close() throws IOException {
         output.close();
     }
 
+    private void writeDelimited(GeoProtobuf.Geometry pbGeometry) throws IOException {
+        int size = pbGeometry.getSerializedSize();
+        int delimitedSize = CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        BufferPool bufferPool = BufferPool.get();
+        byte[] buffer = bufferPool.borrowBytes(delimitedSize);
+        try {
+            CodedOutputStream codedOutput = CodedOutputStream.newInstance(buffer, 0, delimitedSize);
+            codedOutput.writeUInt32NoTag(size);
+            pbGeometry.writeTo(codedOutput);
+            codedOutput.checkNoSpaceLeft();
+            output.write(buffer, 0, delimitedSize);
+        } finally {
+            bufferPool.releaseBytes(buffer);
+        }
+    }
+
     private GeoProtobuf.Geometry serializePoint(Point jtsPoint) throws IOException {
         if (jtsPoint.getCoordinates().length == 0) {
             throw new IllegalArgumentException("No Coordinate data available");
@@ -220,6 +238,8 @@ public class PBSerializationHandlerVS extends SerializationHandler {
                 geoCollection.addGeometries(serializeMultiLineString((MultiLineString) jtsGeometry));
             }else if (jtsGeometry instanceof MultiPolygon) {
                 geoCollection.addGeometries(serializeMultiPolygon((MultiPolygon) jtsGeometry));
+            } else if (jtsGeometry instanceof GeometryCollection) {
+                geoCollection.addGeometries(serializeGeometryCollection((GeometryCollection) jtsGeometry));
             } else {
                 throw new IllegalArgumentException("Unsupported Geometric type for Protobuf Serialization");
             }
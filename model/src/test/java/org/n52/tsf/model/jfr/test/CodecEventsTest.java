@@ -0,0 +1,100 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.jfr.test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.tsf.model.*;
+import org.n52.tsf.model.jfr.CodecEvents;
+import org.n52.tsf.model.vector.jts.test.Utils;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class CodecEventsTest {
+    private static final int GEOMETRY_COUNT = 5;
+    private Path recordingLocation;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(CodecEvents.isAvailable());
+        recordingLocation = Files.createTempFile("tsf", ".jfr");
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.createFile(filePath);
+    }
+
+    @Test
+    public void testEncodeAndDecodeEvents() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable("org.n52.tsf.Encode").withThreshold(Duration.ZERO);
+            recording.enable("org.n52.tsf.Decode").withThreshold(Duration.ZERO);
+            recording.start();
+            GeometryFactory geometryFactory = new GeometryFactory();
+            SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), SerializerType.PROTOBUF_SERIALIZER_LT);
+            for (int i = 0; i < GEOMETRY_COUNT; i++) {
+                serializer.serialize(geometryFactory.createLineString(new Coordinate[]{
+                        new Coordinate(i, 0), new Coordinate(0, i), new Coordinate(i, i)}));
+            }
+            serializer.close();
+            DeserializationHandler deserializer = DeserializationFactory.createDeserializer(new FileInputStream(Utils.TEST_FILE_LOCATION), DeserializerType.PROTOBUF_DESERIALIZER_LT);
+            while (deserializer.deserialize() != null) {
+            }
+            deserializer.close();
+            recording.stop();
+            recording.dump(recordingLocation);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingLocation);
+        List<RecordedEvent> encodeEvents = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.n52.tsf.Encode")).collect(Collectors.toList());
+        List<RecordedEvent> decodeEvents = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.n52.tsf.Decode")).collect(Collectors.toList());
+        assertEquals(GEOMETRY_COUNT, encodeEvents.size());
+        assertEquals(GEOMETRY_COUNT, decodeEvents.size());
+        RecordedEvent encodeEvent = encodeEvents.get(0);
+        assertEquals(SerializerType.PROTOBUF_SERIALIZER_LT.name(), encodeEvent.getString("codec"));
+        assertEquals("LineString", encodeEvent.getString("geometryType"));
+        assertEquals(3, encodeEvent.getLong("vertexCount"));
+        assertEquals(DeserializerType.PROTOBUF_DESERIALIZER_LT.name(), decodeEvents.get(0).getString("codec"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (recordingLocation != null) {
+            Files.deleteIfExists(recordingLocation);
+        }
+        Files.deleteIfExists(Paths.get(Utils.TEST_FILE_LOCATION));
+    }
+}
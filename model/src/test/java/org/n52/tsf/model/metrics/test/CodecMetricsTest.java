@@ -0,0 +1,134 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.metrics.test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.n52.tsf.model.*;
+import org.n52.tsf.model.metrics.*;
+import org.n52.tsf.model.vector.jts.test.Utils;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CodecMetricsTest {
+    private static final int GEOMETRY_COUNT = 10;
+
+    @Before
+    public void setUp() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.createFile(filePath);
+    }
+
+    @Test
+    public void testNoopMetricsLeaveHandlersUninstrumented() throws Exception {
+        Metrics.set(CodecMetrics.NOOP);
+        SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), SerializerType.PROTOBUF_SERIALIZER_LT);
+        assertFalse(serializer instanceof MeteredSerializationHandler);
+        serializer.close();
+    }
+
+    @Test
+    public void testRecordingMetrics() throws Exception {
+        RecordingCodecMetrics metrics = new RecordingCodecMetrics();
+        Metrics.set(metrics);
+        roundTrip();
+        assertEquals(GEOMETRY_COUNT, metrics.getGeometryCount(SerializerType.PROTOBUF_SERIALIZER_LT.name()));
+        assertEquals(GEOMETRY_COUNT, metrics.getGeometryCount(DeserializerType.PROTOBUF_DESERIALIZER_LT.name()));
+        assertEquals(Long.valueOf(GEOMETRY_COUNT), metrics.getGeometryCounts(SerializerType.PROTOBUF_SERIALIZER_LT.name()).get("LineString"));
+        long fileSize = Files.size(Paths.get(Utils.TEST_FILE_LOCATION));
+        assertEquals(fileSize, metrics.getBytes(SerializerType.PROTOBUF_SERIALIZER_LT.name()));
+        assertEquals(fileSize, metrics.getBytes(DeserializerType.PROTOBUF_DESERIALIZER_LT.name()));
+        assertEquals(GEOMETRY_COUNT, metrics.getLatencyHistogram(SerializerType.PROTOBUF_SERIALIZER_LT.name()).getTotalCount());
+
+        SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), SerializerType.PROTOBUF_SERIALIZER_LT);
+        try {
+            serializer.serialize("not a geometry");
+            fail("Expected an unsupported geometry");
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, metrics.getErrorCount(SerializerType.PROTOBUF_SERIALIZER_LT.name()));
+        }
+        serializer.close();
+    }
+
+    @Test
+    public void testJmxMetrics() throws Exception {
+        JmxCodecMetrics metrics = new JmxCodecMetrics();
+        metrics.register();
+        try {
+            Metrics.set(metrics);
+            roundTrip();
+            CodecMetricsMXBean mxBean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                    new ObjectName(JmxCodecMetrics.OBJECT_NAME), CodecMetricsMXBean.class);
+            Map<String, Long> counts = mxBean.getGeometryCounts();
+            assertEquals(Long.valueOf(GEOMETRY_COUNT), counts.get(SerializerType.PROTOBUF_SERIALIZER_LT.name()));
+            assertTrue(mxBean.getP99Latencies().get(SerializerType.PROTOBUF_SERIALIZER_LT.name()) > 0);
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    @Test
+    public void testMicrometerMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.set(new MicrometerCodecMetrics(registry));
+        roundTrip();
+        assertEquals(GEOMETRY_COUNT, registry.get("tsf.codec.latency")
+                .tag("codec", SerializerType.PROTOBUF_SERIALIZER_LT.name()).timer().count());
+        assertEquals(GEOMETRY_COUNT, registry.get("tsf.codec.bytes")
+                .tag("codec", DeserializerType.PROTOBUF_DESERIALIZER_LT.name()).summary().count());
+    }
+
+    private void roundTrip() throws Exception {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), SerializerType.PROTOBUF_SERIALIZER_LT);
+        for (int i = 0; i < GEOMETRY_COUNT; i++) {
+            LineString lineString = geometryFactory.createLineString(new Coordinate[]{new Coordinate(i, 0), new Coordinate(0, i)});
+            serializer.serialize(lineString);
+        }
+        serializer.close();
+        DeserializationHandler deserializer = DeserializationFactory.createDeserializer(new FileInputStream(Utils.TEST_FILE_LOCATION), DeserializerType.PROTOBUF_DESERIALIZER_LT);
+        while (deserializer.deserialize() != null) {
+        }
+        deserializer.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Metrics.set(CodecMetrics.NOOP);
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.deleteIfExists(filePath);
+    }
+}
@@ -0,0 +1,78 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.pool.test;
+
+import org.junit.Test;
+import org.n52.tsf.model.pool.BufferPool;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BufferPoolTest {
+
+    @Test
+    public void testBorrowedBufferIsReused() throws Exception {
+        BufferPool bufferPool = BufferPool.get();
+        byte[] bytes = bufferPool.borrowBytes(100);
+        bufferPool.releaseBytes(bytes);
+        long hits = BufferPool.getHitCount();
+        long misses = BufferPool.getMissCount();
+        assertSame(bytes, bufferPool.borrowBytes(50));
+        assertNotSame(bytes, bufferPool.borrowBytes(50));
+        assertEquals(hits + 1, BufferPool.getHitCount());
+        assertEquals(misses + 1, BufferPool.getMissCount());
+    }
+
+    @Test
+    public void testSmallerBufferIsNotPooledOverLarger() throws Exception {
+        BufferPool bufferPool = BufferPool.get();
+        byte[] large = bufferPool.borrowBytes(10000);
+        byte[] small = bufferPool.borrowBytes(10);
+        bufferPool.releaseBytes(large);
+        bufferPool.releaseBytes(small);
+        assertSame(large, bufferPool.borrowBytes(5000));
+    }
+
+    @Test
+    public void testHeapBufferIsClearedAndDirectBufferIsNotPooled() throws Exception {
+        BufferPool bufferPool = BufferPool.get();
+        ByteBuffer heap = bufferPool.borrowHeapBuffer(64);
+        heap.putInt(42);
+        bufferPool.releaseBuffer(heap);
+        bufferPool.releaseBuffer(ByteBuffer.allocateDirect(1 << 12));
+        ByteBuffer heapReused = bufferPool.borrowHeapBuffer(64);
+        assertSame(heap, heapReused);
+        assertEquals(0, heapReused.position());
+        assertFalse(bufferPool.borrowHeapBuffer(64).isDirect());
+    }
+
+    @Test
+    public void testOversizedBufferIsNotRetained() throws Exception {
+        BufferPool bufferPool = BufferPool.get();
+        byte[] oversized = bufferPool.borrowBytes(BufferPool.MAX_POOLED_SIZE + 1);
+        bufferPool.releaseBytes(oversized);
+        assertNotSame(oversized, bufferPool.borrowBytes(BufferPool.MAX_POOLED_SIZE + 1));
+    }
+}
@@ -20,29 +20,74 @@
 package org.n52.tsf.model.raster.gt.test;
 
 import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridEnvelope2D;
+import org.geotools.coverage.grid.GridGeometry2D;
+import org.geotools.gce.geotiff.GeoTiffReader;
+import org.geotools.geometry.Envelope2D;
 import org.geotools.referencing.CRS;
+import org.geotools.referencing.operation.matrix.GeneralMatrix;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.n52.tsf.model.raster.BandStatistics;
+import org.n52.tsf.model.raster.Compression;
+import org.n52.tsf.model.raster.OverviewPyramid;
+import org.n52.tsf.model.raster.Overviews;
+import org.n52.tsf.model.raster.Predictor;
+import org.n52.tsf.model.raster.Resampling;
+import org.n52.tsf.model.raster.TileCodec;
 import org.n52.tsf.model.raster.gt.AvroCovDataDeserializationHandler;
 import org.n52.tsf.model.raster.gt.AvroCovDataSerializationHandler;
+import org.n52.tsf.model.raster.gt.AvroTileStore;
+import org.n52.tsf.model.raster.gt.CrsCache;
+import org.n52.tsf.model.raster.gt.GeoTiffSource;
+import org.n52.tsf.model.raster.gt.GridToWorldEncoding;
 import org.n52.tsf.model.raster.gt.PBCovDataDeserializationHandler;
 import org.n52.tsf.model.raster.gt.PBCovDataSerializationHandler;
+import org.n52.tsf.model.raster.gt.PBTileStore;
+import org.n52.tsf.model.raster.gt.beans.CoverageTimeStep;
 import org.n52.tsf.model.raster.gt.beans.GeoPoint;
+import org.n52.tsf.model.raster.gt.beans.GeoPointArray;
 import org.n52.tsf.model.vector.jts.test.Utils;
+import org.n52.tsf.serialization.protobuf.gen.GeoProtobufCov;
 import org.opengis.coverage.grid.GridCoordinates;
 import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
 
+import java.awt.Rectangle;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class GTModelCovDataTest {
 
@@ -268,6 +313,1029 @@ public class GTModelCovDataTest {
         System.out.println("Successfully Deserialized....");
     }
 
+    @Test
+    public void testDeserializeGeoTifPixels() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif coverage pixels via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            pbCovDataSerializationHandler.serialize(tifFile, output, true);
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserialize("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertSamplesEqual(tifFile, gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifPixelsWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif coverage pixels via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            avroCovDataSerializationHandler.serialize(tifFile, output, true);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserialize("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertSamplesEqual(tifFile, gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTif() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing tiled Geotif coverage via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            pbCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50);
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertEquals(9, gridCoverage.getRenderedImage().getNumXTiles() * gridCoverage.getRenderedImage().getNumYTiles());
+            assertEquals("EPSG:4301", CRS.lookupIdentifier(gridCoverage.getCoordinateReferenceSystem(), true));
+            assertSamplesEqual(tifFile, gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing tiled Geotif coverage via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            avroCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertEquals(9, gridCoverage.getRenderedImage().getNumXTiles() * gridCoverage.getRenderedImage().getNumYTiles());
+            assertEquals("EPSG:4301", CRS.lookupIdentifier(gridCoverage.getCoordinateReferenceSystem(), true));
+            assertSamplesEqual(tifFile, gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeCompressedTiledGeoTif() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing compressed tiled Geotif coverage via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (TileCodec codec : new TileCodec[]{new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE),
+                    new TileCodec(Predictor.FLOATING_POINT, Compression.DEFLATE)}) {
+                FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+                try {
+                    pbCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50, codec);
+                } finally {
+                    output.close();
+                }
+                PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler(executor, 4);
+                GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+                assertEquals(9, gridCoverage.getRenderedImage().getNumXTiles() * gridCoverage.getRenderedImage().getNumYTiles());
+                assertSamplesEqual(tifFile, gridCoverage);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeCompressedTiledGeoTifWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing compressed tiled Geotif coverage via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (TileCodec codec : new TileCodec[]{new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE),
+                    new TileCodec(Predictor.FLOATING_POINT, Compression.DEFLATE)}) {
+                FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+                try {
+                    avroCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50, codec);
+                } finally {
+                    output.close();
+                }
+                AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler(executor, 4);
+                GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+                assertEquals(9, gridCoverage.getRenderedImage().getNumXTiles() * gridCoverage.getRenderedImage().getNumYTiles());
+                assertSamplesEqual(tifFile, gridCoverage);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifOverviews() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif overviews via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            pbCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50, TileCodec.NONE, 2, Resampling.NEAREST);
+            // the full resolution tiles come first, then the overview levels finest first, row major within a level
+            try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                assertEquals(2, GeoProtobufCov.Grid.parseDelimitedFrom(input).getOverviewsCount());
+                long previous = -1;
+                for (GeoProtobufCov.Tile tile; (tile = GeoProtobufCov.Tile.parseDelimitedFrom(input)) != null; ) {
+                    long order = ((long) tile.getLevel() << 40) + ((long) tile.getRow() << 20) + tile.getColumn();
+                    assertTrue(order > previous);
+                    previous = order;
+                }
+                assertEquals(2, previous >> 40);
+            }
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            GridCoverage2D fullCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertSamplesEqual(tifFile, fullCoverage);
+            double resolution = resolution(fullCoverage);
+            GridCoverage2D overview = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), 2.5 * resolution);
+            assertEquals(60, overview.getRenderedImage().getWidth());
+            assertEquals(60, overview.getRenderedImage().getHeight());
+            assertEquals(2 * resolution, resolution(overview), 1e-9);
+            Raster expected = fullCoverage.getRenderedImage().getData();
+            Raster actual = overview.getRenderedImage().getData();
+            for (int y = 0; y < actual.getHeight(); y++) {
+                for (int x = 0; x < actual.getWidth(); x++) {
+                    assertEquals(expected.getSampleDouble(2 * x, 2 * y, 0), actual.getSampleDouble(x, y, 0), 0);
+                }
+            }
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifOverviewsWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif overviews via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            avroCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50, TileCodec.NONE, 2, Resampling.AVERAGE);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            GridCoverage2D fullCoverage = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertSamplesEqual(tifFile, fullCoverage);
+            double resolution = resolution(fullCoverage);
+            GridCoverage2D overview = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), 10 * resolution);
+            assertEquals(30, overview.getRenderedImage().getWidth());
+            assertEquals(30, overview.getRenderedImage().getHeight());
+            GridCoverage2D finest = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), resolution);
+            assertSamplesEqual(tifFile, finest);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifStatistics() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif statistics via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            pbCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50, TileCodec.NONE, 0, Resampling.NEAREST, true);
+            // the statistics of the bands are stored with the header, the stream holds no tile of level -1
+            try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                for (GeoProtobufCov.Band band : GeoProtobufCov.Grid.parseDelimitedFrom(input).getBandsList()) {
+                    assertTrue(band.hasStatistics());
+                }
+                for (GeoProtobufCov.Tile tile; (tile = GeoProtobufCov.Tile.parseDelimitedFrom(input)) != null; ) {
+                    assertEquals(0, tile.getLevel());
+                }
+            }
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            List<BandStatistics> statistics = pbCovDatadeSerializationHandler.deserializeTiledStatistics(new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertStatisticsEqual(tifFile, statistics);
+            GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertSamplesEqual(tifFile, gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifStatisticsWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif statistics via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            avroCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50, TileCodec.NONE, 1, Resampling.AVERAGE, true);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            List<BandStatistics> statistics = avroCovDatadeSerializationHandler.deserializeTiledStatistics(new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertStatisticsEqual(tifFile, statistics);
+            GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertSamplesEqual(tifFile, gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTileStoreStatistics() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif tile store statistics via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+        Path storeFile = Files.createTempFile("geotif", ".pbtiles");
+
+        try {
+            pbCovDataSerializationHandler.serializeTileStore(tifFile, storeFile, 50, 50, TileCodec.NONE, 1, Resampling.AVERAGE, true);
+            try (PBTileStore store = PBTileStore.open(storeFile)) {
+                assertStatisticsEqual(tifFile, pbCovDatadeSerializationHandler.deserializeTiledStatistics(store));
+                long samples = 0;
+                for (int row = 0; row < store.getRows(0); row++) {
+                    for (int column = 0; column < store.getColumns(0); column++) {
+                        GeoProtobufCov.Tile tile = store.getTile(0, column, row);
+                        assertEquals(1, tile.getStatisticsCount());
+                        assertEquals(tile.getWidth() * tile.getHeight(),
+                                tile.getStatistics(0).getCount() + tile.getStatistics(0).getNoDataCount());
+                        samples += tile.getStatistics(0).getCount() + tile.getStatistics(0).getNoDataCount();
+                    }
+                }
+                assertEquals(14400, samples);
+                assertEquals(0, store.getTile(1, 0, 0).getStatisticsCount());
+            }
+            pbCovDataSerializationHandler.serializeTileStore(tifFile, storeFile, 50, 50);
+            try (PBTileStore store = PBTileStore.open(storeFile)) {
+                assertEquals(Collections.singletonList(null), pbCovDatadeSerializationHandler.deserializeTiledStatistics(store));
+            }
+        } finally {
+            Files.deleteIfExists(storeFile);
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTileStoreStatisticsWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif tile store statistics via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+        Path storeFile = Files.createTempFile("geotif", ".avrotiles");
+
+        try {
+            avroCovDataSerializationHandler.serializeTileStore(tifFile, storeFile, 50, 50, TileCodec.NONE, 1, Resampling.AVERAGE, true);
+            try (AvroTileStore store = AvroTileStore.open(storeFile)) {
+                assertStatisticsEqual(tifFile, avroCovDatadeSerializationHandler.deserializeTiledStatistics(store));
+                long samples = 0;
+                for (int row = 0; row < store.getRows(0); row++) {
+                    for (int column = 0; column < store.getColumns(0); column++) {
+                        org.n52.tsf.serialization.avro.gen.raster.Tile tile = store.getTile(0, column, row);
+                        assertEquals(1, tile.getStatistics().size());
+                        samples += tile.getStatistics().get(0).getCount() + tile.getStatistics().get(0).getNoDataCount();
+                    }
+                }
+                assertEquals(14400, samples);
+                assertTrue(store.getTile(1, 0, 0).getStatistics().isEmpty());
+            }
+            avroCovDataSerializationHandler.serializeTileStore(tifFile, storeFile, 50, 50);
+            try (AvroTileStore store = AvroTileStore.open(storeFile)) {
+                assertEquals(Collections.singletonList(null), avroCovDatadeSerializationHandler.deserializeTiledStatistics(store));
+            }
+        } finally {
+            Files.deleteIfExists(storeFile);
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSerializeStatisticsWithoutMetaData() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+            new PBCovDataSerializationHandler().serialize(tifFile, output, false, true);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSerializeStatisticsWithoutMetaDataWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+            new AvroCovDataSerializationHandler().serialize(tifFile, output, false, true);
+        }
+    }
+
+    @Test
+    public void testDeserializeGeoTifGridToWorldEncodings() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing affine and packed Geotif world points via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+        List<GeoPoint> expected;
+        try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+            pbCovDataSerializationHandler.serialize(tifFile, output, GridToWorldEncoding.GRID_POINTS);
+        }
+        try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+            expected = pbCovDatadeSerializationHandler.deserializeToWorld(input);
+        }
+        for (GridToWorldEncoding encoding : new GridToWorldEncoding[]{GridToWorldEncoding.AFFINE, GridToWorldEncoding.PACKED}) {
+            try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+                pbCovDataSerializationHandler.serialize(tifFile, output, encoding);
+            }
+            try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                assertGeoPointsEqual(expected, pbCovDatadeSerializationHandler.deserializeToWorld(input));
+            }
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifGridToWorldEncodingsWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing affine and packed Geotif world points via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+        List<GeoPoint> expected;
+        try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+            avroCovDataSerializationHandler.serialize(tifFile, output, GridToWorldEncoding.GRID_POINTS);
+        }
+        try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+            expected = avroCovDatadeSerializationHandler.deserializeToWorld(input);
+        }
+        for (GridToWorldEncoding encoding : new GridToWorldEncoding[]{GridToWorldEncoding.AFFINE, GridToWorldEncoding.PACKED}) {
+            try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+                avroCovDataSerializationHandler.serialize(tifFile, output, encoding);
+            }
+            try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                assertGeoPointsEqual(expected, avroCovDatadeSerializationHandler.deserializeToWorld(input));
+            }
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testParallelGridToWorld() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing parallel Geotif world points -------------------------");
+        List<GeoPoint> expected = gridToWorldPerPixel(tifFile);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (GridToWorldEncoding encoding : new GridToWorldEncoding[]{GridToWorldEncoding.GRID_POINTS, GridToWorldEncoding.PACKED}) {
+                try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+                    new PBCovDataSerializationHandler(executor, 4).serialize(tifFile, output, encoding);
+                }
+                try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                    assertGeoPointsEqual(expected, new PBCovDataDeserializationHandler().deserializeToWorld(input));
+                }
+                try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+                    new AvroCovDataSerializationHandler(executor, 4).serialize(tifFile, output, encoding);
+                }
+                try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                    assertGeoPointsEqual(expected, new AvroCovDataDeserializationHandler().deserializeToWorld(input));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifToWorldArray() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif world points into primitive arrays -------------------------");
+        List<GeoPoint> expected = gridToWorldPerPixel(tifFile);
+        for (GridToWorldEncoding encoding : GridToWorldEncoding.values()) {
+            try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+                new PBCovDataSerializationHandler().serialize(tifFile, output, encoding);
+            }
+            try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                assertGeoPointArrayEquals(expected, new PBCovDataDeserializationHandler().deserializeToWorldArray(input));
+            }
+            try (FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION)) {
+                new AvroCovDataSerializationHandler().serialize(tifFile, output, encoding);
+            }
+            try (FileInputStream input = new FileInputStream(Utils.TEST_FILE_LOCATION)) {
+                assertGeoPointArrayEquals(expected, new AvroCovDataDeserializationHandler().deserializeToWorldArray(input));
+            }
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    private void assertGeoPointArrayEquals(List<GeoPoint> expected, GeoPointArray actual) {
+        assertEquals(expected.size(), actual.size());
+        GeoPointArray.Cursor cursor = actual.cursor();
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(cursor.next());
+            assertEquals(expected.get(i).getLongitude(), cursor.getLongitude(), 1e-9);
+            assertEquals(expected.get(i).getLatitude(), cursor.getLatitude(), 1e-9);
+            assertEquals(expected.get(i).getLongitude(), actual.getLongitude(i), 1e-9);
+        }
+        assertFalse(cursor.next());
+
+        double[] longitudes = new double[10];
+        double[] latitudes = new double[10];
+        actual.copyTo(100, longitudes, latitudes, 0, 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.get(100 + i).getLongitude(), longitudes[i], 1e-9);
+            assertEquals(expected.get(100 + i).getLatitude(), latitudes[i], 1e-9);
+        }
+    }
+
+    private List<GeoPoint> gridToWorldPerPixel(File tifFile) throws Exception {
+        GridCoverage2D coverage = new GeoTiffReader(tifFile).read(null);
+        GridGeometry2D geometry = coverage.getGridGeometry();
+        int w = coverage.getRenderedImage().getWidth();
+        int h = coverage.getRenderedImage().getHeight();
+        List<GeoPoint> geoPoints = new ArrayList<>(w * h);
+        for (int i = 0; i < w; i++) {
+            for (int j = 0; j < h; j++) {
+                Envelope2D pixelEnvelope = geometry.gridToWorld(new GridEnvelope2D(i, j, 1, 1));
+                geoPoints.add(new GeoPoint(pixelEnvelope.getCenterY(), pixelEnvelope.getCenterX()));
+            }
+        }
+        return geoPoints;
+    }
+
+    private void assertGeoPointsEqual(List<GeoPoint> expected, List<GeoPoint> actual) {
+        assertEquals(14400, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getLongitude(), actual.get(i).getLongitude(), 1e-9);
+            assertEquals(expected.get(i).getLatitude(), actual.get(i).getLatitude(), 1e-9);
+        }
+    }
+
+    private void assertStatisticsEqual(File tifFile, List<BandStatistics> actual) throws Exception {
+        GridCoverage2D coverage = new GeoTiffReader(tifFile).read(null);
+        Raster raster = coverage.getRenderedImage().getData();
+        assertEquals(raster.getNumBands(), actual.size());
+        for (int band = 0; band < raster.getNumBands(); band++) {
+            double[] noData = coverage.getSampleDimension(band).getNoDataValues();
+            BandStatistics expected = new BandStatistics(true, noData != null && noData.length > 0 ? noData[0] : Double.NaN);
+            expected.add(raster, band);
+            assertEquals(14400, expected.getCount() + expected.getNoDataCount());
+            assertEquals(expected.getCount(), actual.get(band).getCount());
+            assertEquals(expected.getNoDataCount(), actual.get(band).getNoDataCount());
+            assertEquals(expected.getMin(), actual.get(band).getMin(), 0);
+            assertEquals(expected.getMax(), actual.get(band).getMax(), 0);
+            assertEquals(expected.getMean(), actual.get(band).getMean(), 1e-9);
+            assertEquals(expected.getStdDev(), actual.get(band).getStdDev(), 1e-9);
+            assertEquals(expected.getHistogramMin(), actual.get(band).getHistogramMin(), 0);
+            assertEquals(expected.getHistogramBinWidth(), actual.get(band).getHistogramBinWidth(), 0);
+            assertArrayEquals(expected.getHistogram(), actual.get(band).getHistogram());
+        }
+    }
+
+    @Test
+    public void testGeoTiffSourceReopen() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Opening Geotif twice via GeoTiffSource -------------------------");
+        for (int i = 0; i < 2; i++) {
+            try (GeoTiffSource geoTiff = GeoTiffSource.open(tifFile)) {
+                assertEquals(120, geoTiff.getWidth());
+                assertEquals(120, geoTiff.getHeight());
+                assertEquals("EPSG:4301", CRS.lookupIdentifier(geoTiff.getCoordinateReferenceSystem(), true));
+                GridCoverage2D coverage = geoTiff.read();
+                assertTrue(coverage == geoTiff.read());
+                assertSamplesEqual(tifFile, coverage);
+            }
+        }
+        System.out.println("Successfully Opened....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifWithEmbeddedCrs() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif with embedded CRS via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler =
+                new PBCovDataSerializationHandler(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), true);
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            pbCovDataSerializationHandler.serialize(tifFile, output, true);
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserialize("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertTrue(CRS.equalsIgnoreMetadata(new GeoTiffReader(tifFile).getCoordinateReferenceSystem(),
+                    gridCoverage.getCoordinateReferenceSystem()));
+            long hits = CrsCache.getHitCount();
+            GridCoverage2D cachedCoverage = pbCovDatadeSerializationHandler.deserialize("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertTrue(gridCoverage.getCoordinateReferenceSystem() == cachedCoverage.getCoordinateReferenceSystem());
+            assertTrue(CrsCache.getHitCount() > hits);
+            assertSamplesEqual(tifFile, cachedCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifWithEmbeddedCrsWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif with embedded CRS via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler =
+                new AvroCovDataSerializationHandler(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), true);
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            avroCovDataSerializationHandler.serialize(tifFile, output, true);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserialize("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertTrue(CRS.equalsIgnoreMetadata(new GeoTiffReader(tifFile).getCoordinateReferenceSystem(),
+                    gridCoverage.getCoordinateReferenceSystem()));
+            long hits = CrsCache.getHitCount();
+            GridCoverage2D cachedCoverage = avroCovDatadeSerializationHandler.deserialize("testgeotif", new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertTrue(gridCoverage.getCoordinateReferenceSystem() == cachedCoverage.getCoordinateReferenceSystem());
+            assertTrue(CrsCache.getHitCount() > hits);
+            assertSamplesEqual(tifFile, cachedCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifPixelWindow() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif pixel window via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            pbCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50,
+                    new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE), 1, Resampling.NEAREST);
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            Rectangle window = new Rectangle(30, 40, 25, 35);
+            GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), window);
+            assertWindowEqual(tifFile, window, gridCoverage);
+            gridCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), new Rectangle(100, 100, 50, 50));
+            assertWindowEqual(tifFile, new Rectangle(100, 100, 20, 20), gridCoverage);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTiledGeoTifEnvelopeWindowWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif envelope window via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+
+        try {
+            avroCovDataSerializationHandler.serializeTiled(tifFile, output, 50, 50,
+                    new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE), 1, Resampling.AVERAGE);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            Rectangle window = new Rectangle(30, 40, 25, 35);
+            Envelope2D envelope = new GeoTiffReader(tifFile).read(null).getGridGeometry().gridToWorld(new GridEnvelope2D(window));
+            GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), envelope);
+            assertWindowEqual(tifFile, window, gridCoverage);
+            assertEquals(envelope.getMinX(), gridCoverage.getEnvelope2D().getMinX(), 1e-9);
+            assertEquals(envelope.getMaxY(), gridCoverage.getEnvelope2D().getMaxY(), 1e-9);
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTileStore() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif tile store via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        Path storeFile = Files.createTempFile("geotif", ".pbtiles");
+
+        try {
+            pbCovDataSerializationHandler.serializeTileStore(tifFile, storeFile, 50, 50,
+                    new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE), 1, Resampling.NEAREST, false);
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            try (PBTileStore store = PBTileStore.open(storeFile)) {
+                assertEquals(2, store.getLevelCount());
+                assertEquals(3, store.getColumns(0));
+                assertEquals(2, store.getRows(1));
+                assertEquals(1, store.getTile(1, 1, 0).getLevel());
+                GridCoverage2D gridCoverage = pbCovDatadeSerializationHandler.deserializeTile("testgeotif", store, 0, 1, 1);
+                assertWindowEqual(tifFile, new Rectangle(50, 50, 50, 50), gridCoverage);
+                Rectangle window = new Rectangle(30, 40, 85, 35);
+                gridCoverage = pbCovDatadeSerializationHandler.deserializeTiled("testgeotif", store, window);
+                assertWindowEqual(tifFile, window, gridCoverage);
+                assertEquals("EPSG:4301", CRS.lookupIdentifier(gridCoverage.getCoordinateReferenceSystem(), true));
+            }
+        } finally {
+            Files.deleteIfExists(storeFile);
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeTileStoreWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif tile store via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        Path storeFile = Files.createTempFile("geotif", ".avrotiles");
+
+        try {
+            avroCovDataSerializationHandler.serializeTileStore(tifFile, storeFile, 50, 50,
+                    new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE), 1, Resampling.AVERAGE, false);
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            try (AvroTileStore store = AvroTileStore.open(storeFile)) {
+                assertEquals(2, store.getLevelCount());
+                assertEquals(3, store.getRows(0));
+                assertEquals(2, store.getColumns(1));
+                GridCoverage2D gridCoverage = avroCovDatadeSerializationHandler.deserializeTile("testgeotif", store, 0, 2, 2);
+                assertWindowEqual(tifFile, new Rectangle(100, 100, 20, 20), gridCoverage);
+                Rectangle window = new Rectangle(0, 45, 120, 10);
+                gridCoverage = avroCovDatadeSerializationHandler.deserializeTiled("testgeotif", store, window);
+                assertWindowEqual(tifFile, window, gridCoverage);
+                assertEquals("EPSG:4301", CRS.lookupIdentifier(gridCoverage.getCoordinateReferenceSystem(), true));
+            }
+        } finally {
+            Files.deleteIfExists(storeFile);
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifSeries() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif series via Protobuf -------------------------");
+        PBCovDataSerializationHandler pbCovDataSerializationHandler = new PBCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+        List<File> tifFiles = Collections.nCopies(5, tifFile);
+
+        try {
+            pbCovDataSerializationHandler.serializeSeries(tifFiles, output, 3);
+            output.close();
+            // two deflated keyframes, the three unchanged steps between them are deltas of zeros
+            assertTrue(new File(Utils.TEST_FILE_LOCATION).length() < 3 * 120 * 120);
+            PBCovDataDeserializationHandler pbCovDatadeSerializationHandler = new PBCovDataDeserializationHandler();
+            List<CoverageTimeStep> steps = pbCovDatadeSerializationHandler.deserializeSeries("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertEquals(5, steps.size());
+            for (int i = 0; i < steps.size(); i++) {
+                assertEquals(i, steps.get(i).getTime());
+                assertSamplesEqual(tifFile, steps.get(i).getCoverage());
+            }
+            CoverageTimeStep step = pbCovDatadeSerializationHandler.deserializeSeries("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), 4);
+            assertEquals(4, step.getTime());
+            assertSamplesEqual(tifFile, step.getCoverage());
+            assertEquals("EPSG:4301", CRS.lookupIdentifier(step.getCoverage().getCoordinateReferenceSystem(), true));
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeGeoTifSeriesWithAvro() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing Geotif series via Avro -------------------------");
+        AvroCovDataSerializationHandler avroCovDataSerializationHandler = new AvroCovDataSerializationHandler();
+        FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+        List<File> tifFiles = Collections.nCopies(4, tifFile);
+        long[] times = {1000, 2000, 3000, 4000};
+
+        try {
+            avroCovDataSerializationHandler.serializeSeries(tifFiles, times, output, 2,
+                    new TileCodec(Predictor.HORIZONTAL, Compression.DEFLATE));
+            AvroCovDataDeserializationHandler avroCovDatadeSerializationHandler = new AvroCovDataDeserializationHandler();
+            List<CoverageTimeStep> steps = avroCovDatadeSerializationHandler.deserializeSeries("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION));
+            assertEquals(4, steps.size());
+            for (int i = 0; i < steps.size(); i++) {
+                assertEquals(times[i], steps.get(i).getTime());
+                assertSamplesEqual(tifFile, steps.get(i).getCoverage());
+            }
+            CoverageTimeStep step = avroCovDatadeSerializationHandler.deserializeSeries("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION), 3);
+            assertEquals(4000, step.getTime());
+            assertSamplesEqual(tifFile, step.getCoverage());
+        } finally {
+            output.close();
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testDeserializeLz4AndZstdTiledGeoTif() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        //source geo.tiff - https://github.com/geotools/geotools/tree/master/modules/plugin/geotiff/src/test/resources/org/geotools/gce/geotiff/test-data
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        System.out.println("-------------- Deserializing LZ4 and zstd tiled Geotif coverage via Protobuf and Avro -------------------------");
+        for (TileCodec codec : new TileCodec[]{new TileCodec(Predictor.HORIZONTAL, Compression.LZ4),
+                new TileCodec(Predictor.FLOATING_POINT, Compression.LZ4), new TileCodec(Predictor.HORIZONTAL, Compression.ZSTD),
+                new TileCodec(Predictor.FLOATING_POINT, Compression.ZSTD)}) {
+            FileOutputStream output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+            try {
+                new PBCovDataSerializationHandler().serializeTiled(tifFile, output, 50, 50, codec);
+            } finally {
+                output.close();
+            }
+            assertSamplesEqual(tifFile, new PBCovDataDeserializationHandler().deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION)));
+
+            output = new FileOutputStream(Utils.TEST_FILE_LOCATION);
+            try {
+                new AvroCovDataSerializationHandler().serializeTiled(tifFile, output, 50, 50, codec);
+            } finally {
+                output.close();
+            }
+            assertSamplesEqual(tifFile, new AvroCovDataDeserializationHandler().deserializeTiled("testgeotif",
+                    new FileInputStream(Utils.TEST_FILE_LOCATION)));
+        }
+        System.out.println("Successfully Deserialized....");
+    }
+
+    @Test
+    public void testCorruptTileIsRejected() throws Exception {
+        byte[] samples = new byte[50 * 50];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (byte) (i % 50 + i / 500);
+        }
+        for (Compression compression : new Compression[]{Compression.DEFLATE, Compression.LZ4, Compression.ZSTD}) {
+            TileCodec codec = new TileCodec(Predictor.HORIZONTAL, compression);
+            byte[] encoded = codec.encode(samples.clone(), DataBuffer.TYPE_BYTE, 50, 50);
+            assertCorruptTileRejected(codec, ByteBuffer.wrap(encoded, 0, encoded.length / 2));
+            assertCorruptTileRejected(codec, ByteBuffer.wrap(Arrays.copyOf(encoded, encoded.length + 16)));
+        }
+    }
+
+    @Test
+    public void testCorruptDeflateTileIsRejected() throws Exception {
+        TileCodec codec = new TileCodec(Predictor.NONE, Compression.DEFLATE);
+        // complete deflate streams holding fewer and more samples than a 50 x 50 tile
+        assertCorruptTileRejected(codec, ByteBuffer.wrap(codec.encode(new byte[50 * 40], DataBuffer.TYPE_BYTE, 50, 40)));
+        assertCorruptTileRejected(codec, ByteBuffer.wrap(codec.encode(new byte[50 * 60], DataBuffer.TYPE_BYTE, 50, 60)));
+        byte[] encoded = codec.encode(new byte[50 * 50], DataBuffer.TYPE_BYTE, 50, 50);
+        for (int length = 0; length < encoded.length; length++) {
+            assertCorruptTileRejected(codec, ByteBuffer.wrap(encoded, 0, length));
+        }
+        assertEquals(50 * 50, codec.decode(ByteBuffer.wrap(encoded), DataBuffer.TYPE_BYTE, 50, 50).remaining());
+    }
+
+    private void assertCorruptTileRejected(TileCodec codec, ByteBuffer corrupt) {
+        try {
+            codec.decode(corrupt, DataBuffer.TYPE_BYTE, 50, 50);
+            fail(codec.getCompression() + " accepted a corrupt tile of " + corrupt.remaining() + " bytes");
+        } catch (IOException | IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMissingCompressionDependency() throws Exception {
+        // loads the raster classes again with lz4-java and zstd-jni hidden, as when the optional dependencies are absent
+        ClassLoader withoutCompression = new ClassLoader(GTModelCovDataTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.startsWith("net.jpountz.") || name.startsWith("com.github.luben.")
+                        || name.startsWith("org.n52.tsf.model.raster.")) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        URL modelClasses = TileCodec.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{modelClasses}, withoutCompression)) {
+            Class<?> codecClass = classLoader.loadClass(TileCodec.class.getName());
+            Class<?> predictorClass = classLoader.loadClass(Predictor.class.getName());
+            Class<?> compressionClass = classLoader.loadClass(Compression.class.getName());
+            for (String compression : new String[]{"LZ4", "ZSTD"}) {
+                Object codec = codecClass.getConstructor(predictorClass, compressionClass)
+                        .newInstance(enumConstant(predictorClass, "NONE"), enumConstant(compressionClass, compression));
+                try {
+                    codecClass.getMethod("encode", byte[].class, int.class, int.class, int.class)
+                            .invoke(codec, new byte[4], DataBuffer.TYPE_BYTE, 2, 2);
+                    fail(compression + " encoded without its dependency");
+                } catch (InvocationTargetException e) {
+                    assertTrue(e.getCause() instanceof IOException);
+                    assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains(
+                            compression.equals("LZ4") ? "lz4-java" : "zstd-jni"));
+                }
+                try {
+                    codecClass.getMethod("decode", ByteBuffer.class, int.class, int.class, int.class)
+                            .invoke(codec, ByteBuffer.allocate(4), DataBuffer.TYPE_BYTE, 2, 2);
+                    fail(compression + " decoded without its dependency");
+                } catch (InvocationTargetException e) {
+                    assertTrue(e.getCause() instanceof IOException);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumConstant(Class<?> enumClass, String name) {
+        return Enum.valueOf((Class<? extends Enum>) enumClass, name);
+    }
+
+    @Test
+    public void testCrsCacheDecodesConcurrentMissesOnce() throws Exception {
+        CrsCache.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CoordinateReferenceSystem>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return CrsCache.decode("EPSG:4301");
+                }));
+            }
+            start.countDown();
+            CoordinateReferenceSystem crs = results.get(0).get();
+            for (Future<CoordinateReferenceSystem> result : results) {
+                assertSame(crs, result.get());
+            }
+            assertEquals(1, CrsCache.getMissCount());
+            assertEquals(7, CrsCache.getHitCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCrsCacheEvictsLeastRecentlyUsed() throws Exception {
+        CrsCache.clear();
+        MathTransform hot = CrsCache.transform(new GeneralMatrix(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}));
+        for (int i = 1; i <= CrsCache.MAX_ENTRIES; i++) {
+            CrsCache.transform(new GeneralMatrix(new double[][]{{1, 0, i}, {0, 1, 0}, {0, 0, 1}}));
+            assertSame(hot, CrsCache.transform(new GeneralMatrix(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}})));
+        }
+        long misses = CrsCache.getMissCount();
+        CrsCache.transform(new GeneralMatrix(new double[][]{{1, 0, 1}, {0, 1, 0}, {0, 0, 1}}));
+        assertEquals(misses + 1, CrsCache.getMissCount());
+    }
+
+    @Test
+    public void testOverviewFromStrips() throws Exception {
+        ClassLoader classLoader = GTModelCovDataTest.class.getClassLoader();
+        File tifFile = new File(classLoader.getResource("geotif/geo.tiff").getFile());
+        RenderedImage image = new GeoTiffReader(tifFile).read(null).getRenderedImage();
+        Raster full = image.getData();
+        double[] noData = {Double.NaN};
+        int levelCount = 3;
+        for (Resampling resampling : Resampling.values()) {
+            Raster[] expected = new Raster[levelCount];
+            for (int i = 0; i < levelCount; i++) {
+                expected[i] = Overviews.reduce(i == 0 ? full : expected[i - 1], resampling, noData);
+            }
+            for (int stripHeight : new int[]{1, 7, 50, 200}) {
+                for (int tileHeight : new int[]{1, 16, 50}) {
+                    List<WritableRaster> levels = new ArrayList<>();
+                    int[] filled = new int[levelCount];
+                    for (int i = 0; i < levelCount; i++) {
+                        levels.add(full.createCompatibleWritableRaster(expected[i].getWidth(), expected[i].getHeight()));
+                    }
+                    OverviewPyramid pyramid = new OverviewPyramid(full.getWidth(), full.getHeight(), levelCount,
+                            tileHeight, resampling, noData, (level, row, tileRow) -> {
+                                assertEquals(row * tileHeight, filled[level - 1]);
+                                assertTrue(tileRow.getHeight() == tileHeight
+                                        || filled[level - 1] + tileRow.getHeight() == expected[level - 1].getHeight());
+                                levels.get(level - 1).setRect(0, filled[level - 1], tileRow);
+                                filled[level - 1] += tileRow.getHeight();
+                            });
+                    for (int y = 0; y < full.getHeight(); y += stripHeight) {
+                        pyramid.add(full.createChild(0, y, full.getWidth(), Math.min(stripHeight, full.getHeight() - y),
+                                0, y, null));
+                    }
+                    pyramid.finish();
+                    for (int i = 0; i < levelCount; i++) {
+                        assertEquals(expected[i].getHeight(), filled[i]);
+                        assertArrayEquals(expected[i].getSamples(0, 0, expected[i].getWidth(), expected[i].getHeight(), 0, (int[]) null),
+                                levels.get(i).getSamples(0, 0, expected[i].getWidth(), expected[i].getHeight(), 0, (int[]) null));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverviewNoDataBlocks() throws Exception {
+        WritableRaster bytes = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, 4, 2, 1, null);
+        bytes.setSamples(0, 0, 4, 2, 0, new int[]{255, 255, 10, 255, 255, 255, 20, 31});
+        assertArrayEquals(new int[]{255, 20}, Overviews.reduce(bytes, Resampling.AVERAGE, new double[]{255})
+                .getSamples(0, 0, 2, 1, 0, (int[]) null));
+        // a band without no-data averages every sample of a block
+        assertArrayEquals(new int[]{255, 79}, Overviews.reduce(bytes, Resampling.AVERAGE, new double[]{Double.NaN})
+                .getSamples(0, 0, 2, 1, 0, (int[]) null));
+
+        WritableRaster floats = Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_FLOAT, 4, 2, 1), null);
+        floats.setSamples(0, 0, 4, 2, 0, new double[]{Double.NaN, Double.NaN, 1, -9999, Double.NaN, Double.NaN, 2, 3});
+        double[] reduced = Overviews.reduce(floats, Resampling.AVERAGE, new double[]{-9999})
+                .getSamples(0, 0, 2, 1, 0, (double[]) null);
+        assertEquals(-9999, reduced[0], 0);
+        assertEquals(2, reduced[1], 0);
+        assertTrue(Double.isNaN(Overviews.reduce(floats, Resampling.AVERAGE, new double[]{Double.NaN})
+                .getSampleDouble(0, 0, 0)));
+    }
+
+    private double resolution(GridCoverage2D gridCoverage) {
+        return Math.sqrt(gridCoverage.getEnvelope().getSpan(0) * gridCoverage.getEnvelope().getSpan(1)
+                / ((double) gridCoverage.getRenderedImage().getWidth() * gridCoverage.getRenderedImage().getHeight()));
+    }
+
+    private void assertWindowEqual(File tifFile, Rectangle window, GridCoverage2D gridCoverage) throws Exception {
+        Raster expected = new GeoTiffReader(tifFile).read(null).getRenderedImage().getData(window);
+        Raster actual = gridCoverage.getRenderedImage().getData();
+        assertEquals(window, actual.getBounds());
+        assertEquals(window, new Rectangle(gridCoverage.getGridGeometry().getGridRange2D()));
+        for (int band = 0; band < expected.getNumBands(); band++) {
+            assertArrayEquals(
+                    expected.getSamples(window.x, window.y, window.width, window.height, band, (double[]) null),
+                    actual.getSamples(window.x, window.y, window.width, window.height, band, (double[]) null),
+                    0);
+        }
+    }
+
+    private void assertSamplesEqual(File tifFile, GridCoverage2D gridCoverage) throws Exception {
+        Raster expected = new GeoTiffReader(tifFile).read(null).getRenderedImage().getData();
+        Raster actual = gridCoverage.getRenderedImage().getData();
+        assertEquals(expected.getNumBands(), actual.getNumBands());
+        assertEquals(expected.getTransferType(), actual.getTransferType());
+        for (int band = 0; band < expected.getNumBands(); band++) {
+            assertArrayEquals(
+                    expected.getSamples(expected.getMinX(), expected.getMinY(), expected.getWidth(), expected.getHeight(), band, (double[]) null),
+                    actual.getSamples(actual.getMinX(), actual.getMinY(), actual.getWidth(), actual.getHeight(), band, (double[]) null),
+                    0);
+        }
+    }
+
     @After
     public void tearDown() throws Exception {
         Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
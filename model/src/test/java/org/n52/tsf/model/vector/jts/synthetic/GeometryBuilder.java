@@ -0,0 +1,48 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.synthetic;
+
+import java.util.List;
+
+/**
+ * Creates the geometries of one JTS flavour from interleaved x/y coordinate arrays.
+ *
+ * @param <G> the geometry base type of the JTS flavour
+ */
+public interface GeometryBuilder<G> {
+
+    G point(double x, double y);
+
+    G multiPoint(double[] xy);
+
+    G lineString(double[] xy);
+
+    /**
+     * Creates a polygon from closed rings.
+     */
+    G polygon(double[] shell, List<double[]> holes);
+
+    G multiLineString(List<G> lineStrings);
+
+    G multiPolygon(List<G> polygons);
+
+    G geometryCollection(List<G> geometries);
+}
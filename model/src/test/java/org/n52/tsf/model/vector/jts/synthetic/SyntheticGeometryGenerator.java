@@ -0,0 +1,244 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.synthetic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator of synthetic geometries for round trip tests and benchmarks. The same seed always
+ * produces the same geometries, for both the locationtech and the vividsolutions JTS flavour, so codecs can be
+ * exercised from a handful of vertices up to very large geometries without shipping data files.
+ *
+ * @param <G> the geometry base type of the JTS flavour
+ */
+public class SyntheticGeometryGenerator<G> {
+    public static final String POINT = "POINT";
+    public static final String LINESTRING = "LINESTRING";
+    public static final String POLYGON = "POLYGON";
+    public static final String MULTIPOINT = "MULTIPOINT";
+    public static final String CLUSTERED_MULTIPOINT = "CLUSTERED_MULTIPOINT";
+    public static final String MULTILINESTRING = "MULTILINESTRING";
+    public static final String MULTIPOLYGON = "MULTIPOLYGON";
+    public static final String COASTLINE = "COASTLINE";
+    public static final String GEOMETRYCOLLECTION = "GEOMETRYCOLLECTION";
+
+    private static final double EXTENT = 1000;
+    private static final int PARTS = 4;
+    private static final int VERTICES_PER_HOLE = 50;
+    private static final int COLLECTION_DEPTH = 4;
+
+    private final GeometryBuilder<G> builder;
+    private final Random random;
+
+    public SyntheticGeometryGenerator(GeometryBuilder<G> builder, long seed) {
+        this.builder = builder;
+        this.random = new Random(seed);
+    }
+
+    public static SyntheticGeometryGenerator<org.locationtech.jts.geom.Geometry> locationtech(long seed) {
+        return new SyntheticGeometryGenerator<>(new LTGeometryBuilder(), seed);
+    }
+
+    public static SyntheticGeometryGenerator<com.vividsolutions.jts.geom.Geometry> vividsolutions(long seed) {
+        return new SyntheticGeometryGenerator<>(new VSGeometryBuilder(), seed);
+    }
+
+    /**
+     * Creates a geometry of one of the generator types with roughly the given number of vertices.
+     */
+    public G create(String geometryType, int vertexCount) {
+        switch (geometryType) {
+            case POINT:
+                return point();
+            case LINESTRING:
+                return lineString(vertexCount);
+            case POLYGON:
+                return polygonWithHoles(vertexCount, vertexCount / (2 * VERTICES_PER_HOLE));
+            case MULTIPOINT:
+                return multiPoint(vertexCount);
+            case CLUSTERED_MULTIPOINT:
+                return clusteredMultiPoint(vertexCount, Math.max(1, vertexCount / 100));
+            case MULTILINESTRING:
+                return multiLineString(vertexCount, PARTS);
+            case MULTIPOLYGON:
+                return multiPolygon(vertexCount, PARTS);
+            case COASTLINE:
+                return fractalCoastline(vertexCount, 0.5);
+            case GEOMETRYCOLLECTION:
+                return nestedCollection(vertexCount, COLLECTION_DEPTH);
+            default:
+                throw new IllegalArgumentException("Unsupported synthetic geometry type " + geometryType);
+        }
+    }
+
+    public G point() {
+        return builder.point(random.nextDouble() * EXTENT, random.nextDouble() * EXTENT);
+    }
+
+    /**
+     * Uniformly distributed points over the generator extent.
+     */
+    public G multiPoint(int pointCount) {
+        double[] xy = new double[pointCount * 2];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = random.nextDouble() * EXTENT;
+        }
+        return builder.multiPoint(xy);
+    }
+
+    /**
+     * Points normally distributed around randomly placed cluster centres.
+     */
+    public G clusteredMultiPoint(int pointCount, int clusterCount) {
+        double[] centres = new double[clusterCount * 2];
+        for (int i = 0; i < centres.length; i++) {
+            centres[i] = random.nextDouble() * EXTENT;
+        }
+        double spread = EXTENT / (10 * Math.sqrt(clusterCount));
+        double[] xy = new double[pointCount * 2];
+        for (int i = 0; i < pointCount; i++) {
+            int cluster = random.nextInt(clusterCount);
+            xy[i * 2] = centres[cluster * 2] + random.nextGaussian() * spread;
+            xy[i * 2 + 1] = centres[cluster * 2 + 1] + random.nextGaussian() * spread;
+        }
+        return builder.multiPoint(xy);
+    }
+
+    /**
+     * A random walk line string.
+     */
+    public G lineString(int vertexCount) {
+        int count = Math.max(2, vertexCount);
+        double[] xy = new double[count * 2];
+        double step = EXTENT / count;
+        xy[0] = random.nextDouble() * EXTENT;
+        xy[1] = random.nextDouble() * EXTENT;
+        for (int i = 1; i < count; i++) {
+            xy[i * 2] = xy[i * 2 - 2] + (random.nextDouble() - 0.5) * step;
+            xy[i * 2 + 1] = xy[i * 2 - 1] + (random.nextDouble() - 0.5) * step;
+        }
+        return builder.lineString(xy);
+    }
+
+    /**
+     * A line string built by midpoint displacement, the roughness in (0, 1) controls how fast the displacement
+     * decays with each subdivision.
+     */
+    public G fractalCoastline(int vertexCount, double roughness) {
+        int count = Math.max(2, vertexCount);
+        double[] xy = new double[count * 2];
+        double y = random.nextDouble() * EXTENT;
+        xy[1] = y;
+        xy[(count - 1) * 2] = EXTENT;
+        xy[(count - 1) * 2 + 1] = y;
+        displace(xy, 0, count - 1, EXTENT / 4, roughness);
+        return builder.lineString(xy);
+    }
+
+    private void displace(double[] xy, int from, int to, double amplitude, double roughness) {
+        int mid = (from + to) >>> 1;
+        if (mid == from) {
+            return;
+        }
+        double ratio = (double) (mid - from) / (to - from);
+        xy[mid * 2] = xy[from * 2] + (xy[to * 2] - xy[from * 2]) * ratio;
+        xy[mid * 2 + 1] = xy[from * 2 + 1] + (xy[to * 2 + 1] - xy[from * 2 + 1]) * ratio + random.nextGaussian() * amplitude;
+        displace(xy, from, mid, amplitude * roughness, roughness);
+        displace(xy, mid, to, amplitude * roughness, roughness);
+    }
+
+    /**
+     * A valid polygon with half of the vertices in the shell and the other half spread over the holes, which are
+     * laid out on a grid inside the shell so they never touch each other or the shell.
+     */
+    public G polygonWithHoles(int vertexCount, int holeCount) {
+        double radius = EXTENT / 8;
+        double cx = radius + random.nextDouble() * (EXTENT - 2 * radius);
+        double cy = radius + random.nextDouble() * (EXTENT - 2 * radius);
+        return polygonWithHoles(cx, cy, radius, vertexCount, holeCount);
+    }
+
+    private G polygonWithHoles(double cx, double cy, double radius, int vertexCount, int holeCount) {
+        int holeVertices = holeCount == 0 ? 0 : Math.max(3, vertexCount / 2 / holeCount);
+        double[] shell = ring(cx, cy, radius, Math.max(3, vertexCount - holeCount * holeVertices - 1));
+        List<double[]> holes = new ArrayList<>(holeCount);
+        if (holeCount > 0) {
+            int grid = (int) Math.ceil(Math.sqrt(holeCount));
+            double cell = 1.2 * radius / grid;
+            double origin = -0.6 * radius + cell / 2;
+            for (int i = 0; i < holeCount; i++) {
+                double hx = cx + origin + (i % grid) * cell;
+                double hy = cy + origin + (i / grid) * cell;
+                holes.add(ring(hx, hy, 0.35 * cell, holeVertices));
+            }
+        }
+        return builder.polygon(shell, holes);
+    }
+
+    private double[] ring(double cx, double cy, double radius, int vertexCount) {
+        double[] xy = new double[(vertexCount + 1) * 2];
+        for (int i = 0; i < vertexCount; i++) {
+            double angle = 2 * Math.PI * i / vertexCount;
+            double r = radius * (0.9 + 0.1 * random.nextDouble());
+            xy[i * 2] = cx + Math.cos(angle) * r;
+            xy[i * 2 + 1] = cy + Math.sin(angle) * r;
+        }
+        xy[vertexCount * 2] = xy[0];
+        xy[vertexCount * 2 + 1] = xy[1];
+        return xy;
+    }
+
+    public G multiLineString(int vertexCount, int parts) {
+        List<G> lineStrings = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            lineStrings.add(fractalCoastline(vertexCount / parts, 0.5));
+        }
+        return builder.multiLineString(lineStrings);
+    }
+
+    public G multiPolygon(int vertexCount, int parts) {
+        List<G> polygons = new ArrayList<>(parts);
+        double radius = EXTENT / (2 * parts);
+        for (int i = 0; i < parts; i++) {
+            int partVertices = vertexCount / parts;
+            polygons.add(polygonWithHoles(radius * (2 * i + 1), EXTENT / 2, radius, partVertices,
+                    partVertices / (2 * VERTICES_PER_HOLE)));
+        }
+        return builder.multiPolygon(polygons);
+    }
+
+    /**
+     * A geometry collection nested to the given depth, each level holding a line string, a polygon and the next
+     * level.
+     */
+    public G nestedCollection(int vertexCount, int depth) {
+        int levelVertices = Math.max(8, vertexCount / Math.max(1, depth));
+        List<G> geometries = new ArrayList<>(3);
+        geometries.add(lineString(levelVertices / 2));
+        geometries.add(polygonWithHoles(levelVertices - levelVertices / 2, 0));
+        if (depth > 1) {
+            geometries.add(nestedCollection(vertexCount - levelVertices, depth - 1));
+        }
+        return builder.geometryCollection(geometries);
+    }
+}
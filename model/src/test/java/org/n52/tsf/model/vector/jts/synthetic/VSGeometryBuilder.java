@@ -0,0 +1,76 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.synthetic;
+
+import com.vividsolutions.jts.geom.*;
+
+import java.util.List;
+
+/**
+ * {@link GeometryBuilder} for the vividsolutions JTS geometries.
+ */
+public class VSGeometryBuilder implements GeometryBuilder<Geometry> {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    public Geometry point(double x, double y) {
+        return geometryFactory.createPoint(new Coordinate(x, y));
+    }
+
+    public Geometry multiPoint(double[] xy) {
+        Point[] points = new Point[xy.length / 2];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = geometryFactory.createPoint(new Coordinate(xy[i * 2], xy[i * 2 + 1]));
+        }
+        return geometryFactory.createMultiPoint(points);
+    }
+
+    public Geometry lineString(double[] xy) {
+        return geometryFactory.createLineString(createCoordinates(xy));
+    }
+
+    public Geometry polygon(double[] shell, List<double[]> holes) {
+        LinearRing[] interiorRings = new LinearRing[holes.size()];
+        for (int i = 0; i < interiorRings.length; i++) {
+            interiorRings[i] = geometryFactory.createLinearRing(createCoordinates(holes.get(i)));
+        }
+        return geometryFactory.createPolygon(geometryFactory.createLinearRing(createCoordinates(shell)), interiorRings);
+    }
+
+    public Geometry multiLineString(List<Geometry> lineStrings) {
+        return geometryFactory.createMultiLineString(lineStrings.toArray(new LineString[lineStrings.size()]));
+    }
+
+    public Geometry multiPolygon(List<Geometry> polygons) {
+        return geometryFactory.createMultiPolygon(polygons.toArray(new Polygon[polygons.size()]));
+    }
+
+    public Geometry geometryCollection(List<Geometry> geometries) {
+        return geometryFactory.createGeometryCollection(geometries.toArray(new Geometry[geometries.size()]));
+    }
+
+    private Coordinate[] createCoordinates(double[] xy) {
+        Coordinate[] coordinates = new Coordinate[xy.length / 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(xy[i * 2], xy[i * 2 + 1]);
+        }
+        return coordinates;
+    }
+}
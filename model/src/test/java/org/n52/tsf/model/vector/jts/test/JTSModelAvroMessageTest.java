@@ -0,0 +1,94 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.n52.tsf.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JTSModelAvroMessageTest {
+
+    @Before
+    public void setUp() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.createFile(filePath);
+    }
+
+    @Test
+    public void testGeoPointWithAvroMessage() throws Exception {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Point point = geometryFactory.createPoint(new Coordinate(1, 2));
+        System.out.println("-------------- Serializing JTS Model Point via Avro single object encoding ------------------------");
+        SerializationHandler avroSerializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), SerializerType.AVRO_MESSAGE_SERIALIZER_LT);
+        avroSerializer.serialize(point);
+        avroSerializer.close();
+        long messageSize = new File(Utils.TEST_FILE_LOCATION).length();
+        assertTrue(messageSize > 0 && messageSize < 64);
+        System.out.println("-------------- Deserializing JTS Model Point via Avro single object encoding ------------------------");
+        DeserializationHandler avroDeserializationHandler = DeserializationFactory.createDeserializer(new FileInputStream(Utils.TEST_FILE_LOCATION), DeserializerType.AVRO_MESSAGE_DESERIALIZER_LT);
+        Point pointDeserialized = (Point) avroDeserializationHandler.deserialize();
+        assertEquals(point, pointDeserialized);
+        assertNull(avroDeserializationHandler.deserialize());
+        avroDeserializationHandler.close();
+        System.out.println("Successfully Deserialized : " + pointDeserialized + " (" + messageSize + " bytes)");
+    }
+
+    @Test
+    public void testGeometryStreamWithAvroMessage() throws Exception {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Point point = geometryFactory.createPoint(new Coordinate(1, 2));
+        LineString lineString = geometryFactory.createLineString(new Coordinate[]{new Coordinate(1, 2), new Coordinate(3, 4), new Coordinate(5, 6)});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SerializationHandler avroSerializer = SerializationFactory.createSerializer(output, SerializerType.AVRO_MESSAGE_SERIALIZER_LT);
+        avroSerializer.serialize(point);
+        avroSerializer.serialize(lineString);
+        avroSerializer.close();
+        DeserializationHandler avroDeserializationHandler = DeserializationFactory.createDeserializer(new ByteArrayInputStream(output.toByteArray()), DeserializerType.AVRO_MESSAGE_DESERIALIZER_LT);
+        assertEquals(point, avroDeserializationHandler.deserialize());
+        assertEquals(lineString, avroDeserializationHandler.deserialize());
+        assertNull(avroDeserializationHandler.deserialize());
+        avroDeserializationHandler.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.deleteIfExists(filePath);
+    }
+}
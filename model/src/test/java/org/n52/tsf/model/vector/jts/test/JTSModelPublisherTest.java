@@ -0,0 +1,151 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.tsf.model.*;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JTSModelPublisherTest {
+    private static final int GEOMETRY_COUNT = 100;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.createFile(filePath);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @Test
+    public void testPublishWithProtobuf() throws Exception {
+        publishAndVerify(SerializerType.PROTOBUF_SERIALIZER_LT, DeserializerType.PROTOBUF_DESERIALIZER_LT);
+    }
+
+    @Test
+    public void testPublishWithAvro() throws Exception {
+        publishAndVerify(SerializerType.AVRO_SERIALIZER_LT, DeserializerType.AVRO_DESERIALIZER_LT);
+    }
+
+    @Test
+    public void testPublishHonoursDemand() throws Exception {
+        serializePoints(SerializerType.PROTOBUF_SERIALIZER_LT);
+        DeserializationHandler deserializationHandler = DeserializationFactory.createDeserializer(new FileInputStream(Utils.TEST_FILE_LOCATION), DeserializerType.PROTOBUF_DESERIALIZER_LT);
+        Publisher<Geometry> publisher = deserializationHandler.toPublisher(Geometry.class, executor);
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(5);
+        executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+        assertEquals(5, subscriber.geometries.size());
+        subscriber.subscription.cancel();
+        executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+        assertEquals(5, subscriber.geometries.size());
+        assertEquals(1, subscriber.completion.getCount());
+    }
+
+    private void publishAndVerify(SerializerType serializerType, DeserializerType deserializerType) throws Exception {
+        serializePoints(serializerType);
+        System.out.println("-------------- Publishing JTS Model Points via " + deserializerType + " ------------------------");
+        DeserializationHandler deserializationHandler = DeserializationFactory.createDeserializer(new FileInputStream(Utils.TEST_FILE_LOCATION), deserializerType);
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+        deserializationHandler.toPublisher(Geometry.class, executor).subscribe(subscriber);
+        assertTrue(subscriber.completion.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error.get());
+        assertEquals(GEOMETRY_COUNT, subscriber.geometries.size());
+        assertEquals(new GeometryFactory().createPoint(new Coordinate(GEOMETRY_COUNT - 1, 1)), subscriber.geometries.get(GEOMETRY_COUNT - 1));
+        System.out.println("Successfully Published : " + subscriber.geometries.size());
+    }
+
+    private void serializePoints(SerializerType serializerType) throws Exception {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), serializerType);
+        for (int i = 0; i < GEOMETRY_COUNT; i++) {
+            serializer.serialize(geometryFactory.createPoint(new Coordinate(i, 1)));
+        }
+        serializer.close();
+    }
+
+    private static class CollectingSubscriber implements Subscriber<Geometry> {
+        private final List<Geometry> geometries = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final int batchSize;
+        private volatile Subscription subscription;
+
+        private CollectingSubscriber(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            if (batchSize > 0) {
+                subscription.request(batchSize);
+            }
+        }
+
+        public void onNext(Geometry geometry) {
+            geometries.add(geometry);
+            if (batchSize > 0) {
+                subscription.request(batchSize);
+            }
+        }
+
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            completion.countDown();
+        }
+
+        public void onComplete() {
+            completion.countDown();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.deleteIfExists(filePath);
+    }
+}
@@ -0,0 +1,101 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.n52.tsf.model.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class JTSModelStreamTest {
+    private static final int GEOMETRY_COUNT = 5000;
+
+    @Before
+    public void setUp() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.createFile(filePath);
+    }
+
+    @Test
+    public void testParallelStreamWithProtobuf() throws Exception {
+        streamAndVerify(SerializerType.PROTOBUF_SERIALIZER_LT, DeserializerType.PROTOBUF_DESERIALIZER_LT);
+    }
+
+    @Test
+    public void testParallelStreamWithAvro() throws Exception {
+        streamAndVerify(SerializerType.AVRO_SERIALIZER_LT, DeserializerType.AVRO_DESERIALIZER_LT);
+    }
+
+    @Test
+    public void testSequentialStreamWithAvroMessage() throws Exception {
+        streamAndVerify(SerializerType.AVRO_MESSAGE_SERIALIZER_LT, DeserializerType.AVRO_MESSAGE_DESERIALIZER_LT);
+    }
+
+    private void streamAndVerify(SerializerType serializerType, DeserializerType deserializerType) throws Exception {
+        List<LineString> lineStrings = createLineStrings();
+        SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), serializerType);
+        for (LineString lineString : lineStrings) {
+            serializer.serialize(lineString);
+        }
+        serializer.close();
+        System.out.println("-------------- Streaming JTS Model LineStrings via " + deserializerType + " ------------------------");
+        DeserializationHandler deserializationHandler = DeserializationFactory.createDeserializer(new File(Utils.TEST_FILE_LOCATION), deserializerType);
+        try (Stream<Object> stream = deserializationHandler.stream()) {
+            List<Object> deserialized = stream.parallel().collect(Collectors.toList());
+            assertEquals(lineStrings, deserialized);
+        }
+        System.out.println("Successfully Streamed : " + lineStrings.size());
+    }
+
+    private List<LineString> createLineStrings() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        List<LineString> lineStrings = new ArrayList<>(GEOMETRY_COUNT);
+        for (int i = 0; i < GEOMETRY_COUNT; i++) {
+            Coordinate[] coordinates = new Coordinate[20];
+            for (int j = 0; j < coordinates.length; j++) {
+                coordinates[j] = new Coordinate(i, j);
+            }
+            lineStrings.add(geometryFactory.createLineString(coordinates));
+        }
+        return lineStrings;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.deleteIfExists(filePath);
+    }
+}
@@ -0,0 +1,115 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.model.vector.jts.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.tsf.model.*;
+import org.n52.tsf.model.vector.jts.synthetic.SyntheticGeometryGenerator;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JTSModelSyntheticRoundTripTest {
+    private static final long SEED = 52;
+    private static final int VERTEX_COUNT = 2000;
+    private static final String[] GEOMETRY_TYPES = {
+            SyntheticGeometryGenerator.POINT, SyntheticGeometryGenerator.LINESTRING, SyntheticGeometryGenerator.POLYGON,
+            SyntheticGeometryGenerator.MULTIPOINT, SyntheticGeometryGenerator.CLUSTERED_MULTIPOINT,
+            SyntheticGeometryGenerator.MULTILINESTRING, SyntheticGeometryGenerator.MULTIPOLYGON,
+            SyntheticGeometryGenerator.COASTLINE, SyntheticGeometryGenerator.GEOMETRYCOLLECTION};
+
+    @Before
+    public void setUp() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.createFile(filePath);
+    }
+
+    @Test
+    public void testGeneratorIsDeterministic() throws Exception {
+        for (String geometryType : GEOMETRY_TYPES) {
+            assertEquals(SyntheticGeometryGenerator.locationtech(SEED).create(geometryType, VERTEX_COUNT),
+                    SyntheticGeometryGenerator.locationtech(SEED).create(geometryType, VERTEX_COUNT));
+            assertEquals(SyntheticGeometryGenerator.locationtech(SEED).create(geometryType, VERTEX_COUNT).toText(),
+                    SyntheticGeometryGenerator.vividsolutions(SEED).create(geometryType, VERTEX_COUNT).toText());
+        }
+    }
+
+    @Test
+    public void testSyntheticPolygonsAreValid() throws Exception {
+        SyntheticGeometryGenerator<org.locationtech.jts.geom.Geometry> generator = SyntheticGeometryGenerator.locationtech(SEED);
+        assertEquals(true, generator.create(SyntheticGeometryGenerator.POLYGON, VERTEX_COUNT).isValid());
+        assertEquals(true, generator.create(SyntheticGeometryGenerator.MULTIPOLYGON, VERTEX_COUNT).isValid());
+    }
+
+    @Test
+    public void testRoundTripLT() throws Exception {
+        roundTrip(createGeometries(SyntheticGeometryGenerator.locationtech(SEED)), SerializerType.PROTOBUF_SERIALIZER_LT, DeserializerType.PROTOBUF_DESERIALIZER_LT);
+        roundTrip(createGeometries(SyntheticGeometryGenerator.locationtech(SEED)), SerializerType.AVRO_SERIALIZER_LT, DeserializerType.AVRO_DESERIALIZER_LT);
+        roundTrip(createGeometries(SyntheticGeometryGenerator.locationtech(SEED)), SerializerType.AVRO_MESSAGE_SERIALIZER_LT, DeserializerType.AVRO_MESSAGE_DESERIALIZER_LT);
+    }
+
+    @Test
+    public void testRoundTripVS() throws Exception {
+        roundTrip(createGeometries(SyntheticGeometryGenerator.vividsolutions(SEED)), SerializerType.PROTOBUF_SERIALIZER_VS, DeserializerType.PROTOBUF_DESERIALIZER_VS);
+        roundTrip(createGeometries(SyntheticGeometryGenerator.vividsolutions(SEED)), SerializerType.AVRO_SERIALIZER_VS, DeserializerType.AVRO_DESERIALIZER_VS);
+        roundTrip(createGeometries(SyntheticGeometryGenerator.vividsolutions(SEED)), SerializerType.AVRO_MESSAGE_SERIALIZER_VS, DeserializerType.AVRO_MESSAGE_DESERIALIZER_VS);
+    }
+
+    private <G> List<G> createGeometries(SyntheticGeometryGenerator<G> generator) {
+        List<G> geometries = new ArrayList<>(GEOMETRY_TYPES.length);
+        for (String geometryType : GEOMETRY_TYPES) {
+            geometries.add(generator.create(geometryType, VERTEX_COUNT));
+        }
+        return geometries;
+    }
+
+    private void roundTrip(List<?> geometries, SerializerType serializerType, DeserializerType deserializerType) throws Exception {
+        System.out.println("-------------- Round trip of synthetic geometries via " + serializerType + " ------------------------");
+        SerializationHandler serializer = SerializationFactory.createSerializer(new FileOutputStream(Utils.TEST_FILE_LOCATION), serializerType);
+        for (Object geometry : geometries) {
+            serializer.serialize(geometry);
+        }
+        serializer.close();
+        DeserializationHandler deserializer = DeserializationFactory.createDeserializer(new FileInputStream(Utils.TEST_FILE_LOCATION), deserializerType);
+        for (Object geometry : geometries) {
+            assertEquals(geometry, deserializer.deserialize());
+        }
+        assertNull(deserializer.deserialize());
+        deserializer.close();
+        System.out.println("Successfully Deserialized : " + geometries.size());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Path filePath = Paths.get(Utils.TEST_FILE_LOCATION);
+        Files.deleteIfExists(filePath);
+    }
+}
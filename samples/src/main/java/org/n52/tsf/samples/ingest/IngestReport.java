@@ -0,0 +1,107 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.samples.ingest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and throughput counters of a {@link ShapefileIngestService} run. The counters are updated
+ * concurrently by the ingest workers and can be read at any time.
+ */
+public class IngestReport {
+    private final int totalFiles;
+    private final long startTime;
+    private final AtomicInteger processedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    private final AtomicLong geometries = new AtomicLong();
+    private final AtomicLong sourceBytes = new AtomicLong();
+    private final AtomicLong serializedBytes = new AtomicLong();
+    private volatile long endTime;
+
+    IngestReport(int totalFiles) {
+        this.totalFiles = totalFiles;
+        this.startTime = System.nanoTime();
+    }
+
+    void fileProcessed(long fileGeometries, long fileSourceBytes, long fileSerializedBytes) {
+        geometries.addAndGet(fileGeometries);
+        sourceBytes.addAndGet(fileSourceBytes);
+        serializedBytes.addAndGet(fileSerializedBytes);
+        processedFiles.incrementAndGet();
+    }
+
+    void fileFailed() {
+        failedFiles.incrementAndGet();
+    }
+
+    void finish() {
+        endTime = System.nanoTime();
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public int getProcessedFiles() {
+        return processedFiles.get();
+    }
+
+    public int getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    public long getGeometries() {
+        return geometries.get();
+    }
+
+    public long getSourceBytes() {
+        return sourceBytes.get();
+    }
+
+    public long getSerializedBytes() {
+        return serializedBytes.get();
+    }
+
+    public long getElapsedMillis() {
+        long end = endTime == 0 ? System.nanoTime() : endTime;
+        return TimeUnit.NANOSECONDS.toMillis(end - startTime);
+    }
+
+    public double getGeometriesPerSecond() {
+        long elapsed = Math.max(1, getElapsedMillis());
+        return geometries.get() * 1000.0 / elapsed;
+    }
+
+    public double getSourceMegabytesPerSecond() {
+        long elapsed = Math.max(1, getElapsedMillis());
+        return sourceBytes.get() * 1000.0 / (elapsed * 1024.0 * 1024.0);
+    }
+
+    public String toString() {
+        return String.format("Files : %d / %d (%d failed), Geometries : %d, Source : %d mb, Serialized : %d mb, "
+                        + "Time : %d ms, Throughput : %.0f geometries/s, %.2f mb/s",
+                processedFiles.get() + failedFiles.get(), totalFiles, failedFiles.get(), geometries.get(),
+                sourceBytes.get() / (1024 * 1024), serializedBytes.get() / (1024 * 1024), getElapsedMillis(),
+                getGeometriesPerSecond(), getSourceMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,182 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.samples.ingest;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.apache.commons.cli.*;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.log4j.Logger;
+import org.geotools.data.shapefile.files.ShpFiles;
+import org.geotools.data.shapefile.shp.ShapefileReader;
+import org.n52.tsf.model.SerializationFactory;
+import org.n52.tsf.model.SerializationHandler;
+import org.n52.tsf.model.SerializerType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Serializes all shape files below a directory concurrently. Each file is converted by its own serializer on
+ * a bounded worker pool, or on virtual threads limited to the same parallelism when requested and supported by
+ * the running JVM. The relative directory layout of the input is kept in the output directory.
+ * To execute from command line use option -input to point to the shape file directory.
+ */
+public class ShapefileIngestService {
+    private final static Logger logger = Logger.getLogger(ShapefileIngestService.class);
+    private static final String PARALLELISM = "parallelism";
+    private static final String SERIALIZER = "serializer";
+    private static final String VIRTUAL_THREADS = "virtual";
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+
+    private final SerializerType serializerType;
+    private final int parallelism;
+    private final boolean virtualThreads;
+
+    public ShapefileIngestService(SerializerType serializerType, int parallelism, boolean virtualThreads) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least one");
+        }
+        this.serializerType = serializerType;
+        this.parallelism = parallelism;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        setupOptions(options);
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine line = parser.parse(options, args);
+            File input = new File(line.getOptionValue("input"));
+            File output = line.hasOption("output") ? new File(line.getOptionValue("output"))
+                    : new File(input, "pb");
+            int parallelism = line.hasOption(PARALLELISM) ? Integer.parseInt(line.getOptionValue(PARALLELISM))
+                    : Runtime.getRuntime().availableProcessors();
+            SerializerType serializerType = line.hasOption(SERIALIZER) ? SerializerType.valueOf(line.getOptionValue(SERIALIZER))
+                    : SerializerType.PROTOBUF_SERIALIZER_VS;
+            ShapefileIngestService ingestService = new ShapefileIngestService(serializerType, parallelism,
+                    line.hasOption(VIRTUAL_THREADS));
+            System.out.println("-------------- Serializing Shape files with " + serializerType + " ------------------------");
+            IngestReport report = ingestService.ingest(input, output);
+            System.out.println(report);
+        } catch (ParseException parseException) {
+            System.out.println(
+                    "ERROR: Unable to parse command-line arguments " + Arrays.toString(args) + " due to: "
+                            + parseException);
+        }
+    }
+
+    public IngestReport ingest(File inputDirectory, File outputDirectory) throws IOException, InterruptedException {
+        List<File> files = new ArrayList<>(FileUtils.listFiles(inputDirectory, new String[]{"shp"}, true));
+        files.removeIf(file -> file.toPath().startsWith(outputDirectory.toPath()));
+        Files.createDirectories(outputDirectory.toPath());
+        IngestReport report = new IngestReport(files.size());
+
+        ScheduledExecutorService progressReporter = Executors.newSingleThreadScheduledExecutor();
+        progressReporter.scheduleAtFixedRate(() -> System.out.println(report), PROGRESS_INTERVAL_SECONDS,
+                PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        ExecutorService workers = createWorkers();
+        Semaphore permits = new Semaphore(parallelism);
+        try {
+            for (File file : files) {
+                permits.acquire();
+                try {
+                    workers.execute(() -> {
+                        try {
+                            ingestFile(inputDirectory.toPath(), file, outputDirectory.toPath(), report);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            permits.acquire(parallelism);
+        } finally {
+            workers.shutdown();
+            progressReporter.shutdownNow();
+            report.finish();
+        }
+        return report;
+    }
+
+    private void ingestFile(Path inputDirectory, File file, Path outputDirectory, IngestReport report) {
+        Path relative = inputDirectory.relativize(file.toPath());
+        Path outputFile = outputDirectory.resolve(relative).resolveSibling(FilenameUtils.getBaseName(file.getName()));
+        try {
+            Files.createDirectories(outputFile.getParent());
+            long geometries = 0;
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile.toFile()));
+                 SerializationHandler serializer = SerializationFactory.createSerializer(output, serializerType)) {
+                ShapefileReader reader = new ShapefileReader(new ShpFiles(file.toURI().toURL()), false, false,
+                        new GeometryFactory());
+                try (Closeable closeReader = reader::close) {
+                    while (reader.hasNext()) {
+                        serializer.serialize((Geometry) reader.nextRecord().shape());
+                        geometries++;
+                    }
+                }
+            }
+            report.fileProcessed(geometries, FileUtils.sizeOf(file), Files.size(outputFile));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to serialize shape file " + file, e);
+            report.fileFailed();
+        }
+    }
+
+    private ExecutorService createWorkers() {
+        if (virtualThreads) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads are not supported by this JVM, falling back to a platform thread pool");
+            }
+        }
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
+    private static void setupOptions(Options options) {
+        options.addOption(Option.builder("i").required(true).argName("input").longOpt("input").hasArg(true)
+                .desc("Shape file input directory").build());
+        options.addOption(Option.builder("o").required(false).argName("output").longOpt("output").hasArg(true)
+                .desc("Serialize output directory").build());
+        options.addOption(Option.builder("p").required(false).argName(PARALLELISM).longOpt(PARALLELISM).hasArg(true)
+                .desc("Number of shape files serialized concurrently").build());
+        options.addOption(Option.builder("s").required(false).argName(SERIALIZER).longOpt(SERIALIZER).hasArg(true)
+                .desc("Serializer type, one of " + Arrays.toString(SerializerType.values())).build());
+        options.addOption(Option.builder("v").required(false).longOpt(VIRTUAL_THREADS)
+                .desc("Use virtual threads when supported by the JVM").build());
+    }
+}
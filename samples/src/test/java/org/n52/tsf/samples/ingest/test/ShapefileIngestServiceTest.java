@@ -0,0 +1,83 @@
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+
+package org.n52.tsf.samples.ingest.test;
+
+import org.junit.Test;
+import org.n52.tsf.model.SerializerType;
+import org.n52.tsf.samples.ingest.IngestReport;
+import org.n52.tsf.samples.ingest.ShapefileIngestService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShapefileIngestServiceTest {
+    private static final int POINT_COUNT = 9;
+
+    @Test
+    public void testIngestCountsProcessedAndFailedFiles() throws Exception {
+        Path input = Files.createTempDirectory("shapes");
+        Path output = input.resolve("pb");
+        try {
+            //source points.shp - scratch/src/main/resources/shape
+            Path shapeDirectory = Paths.get(ShapefileIngestServiceTest.class.getClassLoader()
+                    .getResource("shape/points.shp").toURI()).getParent();
+            Files.createDirectories(input.resolve("nested"));
+            for (String extension : new String[]{"shp", "shx", "prj"}) {
+                Files.copy(shapeDirectory.resolve("points." + extension), input.resolve("points." + extension));
+                Files.copy(shapeDirectory.resolve("points." + extension), input.resolve("nested/copy." + extension));
+            }
+            Files.write(input.resolve("broken.shp"), new byte[]{1, 2, 3});
+
+            ShapefileIngestService ingestService = new ShapefileIngestService(SerializerType.PROTOBUF_SERIALIZER_VS, 2, false);
+            IngestReport report = ingestService.ingest(input.toFile(), output.toFile());
+
+            assertEquals(3, report.getTotalFiles());
+            assertEquals(2, report.getProcessedFiles());
+            assertEquals(1, report.getFailedFiles());
+            assertEquals(2 * POINT_COUNT, report.getGeometries());
+            assertEquals(2 * Files.size(input.resolve("points.shp")), report.getSourceBytes());
+            assertTrue(Files.size(output.resolve("points")) > 0);
+            assertEquals(Files.size(output.resolve("points")) + Files.size(output.resolve("nested/copy")),
+                    report.getSerializedBytes());
+        } finally {
+            delete(input);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidParallelism() throws Exception {
+        new ShapefileIngestService(SerializerType.PROTOBUF_SERIALIZER_VS, 0, false);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}